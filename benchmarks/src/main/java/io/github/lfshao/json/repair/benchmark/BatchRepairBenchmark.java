@@ -0,0 +1,58 @@
+package io.github.lfshao.json.repair.benchmark;
+
+import io.github.lfshao.json.repair.RepairEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在不同并行度的线程池中批量修复一万条模型输出，其中一半是合法的JSON（经过共享的ObjectMapper），一半需要修复
+ * 线程之间没有竞争时，耗时应随线程数（不超过CPU核数）近似反比下降
+ * <p>
+ * 运行方式：java -jar benchmarks/target/benchmarks.jar BatchRepairBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchRepairBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"10000"})
+    public int count;
+
+    private final RepairEngine engine = new RepairEngine();
+
+    private ForkJoinPool pool;
+    private List<String> inputs;
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(threads);
+        inputs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (i % 2 == 0) {
+                inputs.add("{\"id\": " + i + ", \"name\": \"user" + i + "\", \"tags\": [\"a\", \"b\"], \"active\": true}");
+            } else {
+                inputs.add("Here is the record: {id: " + i + ", name: 'user" + i + "', tags: [a, b], active: True");
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<String> repairAll() {
+        return engine.repairAll(inputs, pool);
+    }
+}
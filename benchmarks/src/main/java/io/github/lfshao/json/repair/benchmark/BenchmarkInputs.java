@@ -0,0 +1,102 @@
+package io.github.lfshao.json.repair.benchmark;
+
+/**
+ * 基准测试输入生成器
+ * 按照README中列出的修复类型生成指定大小的输入，内容是确定的，便于多次运行之间对比
+ */
+public final class BenchmarkInputs {
+
+    private BenchmarkInputs() {
+    }
+
+    /**
+     * 生成大约targetSize个字符的输入
+     *
+     * @param kind       输入类型
+     * @param targetSize 目标大小（字符数）
+     * @return 生成的输入
+     */
+    public static String generate(InputKind kind, int targetSize) {
+        StringBuilder sb = new StringBuilder(targetSize + 256);
+        switch (kind) {
+            case MULTI_JSON:
+                // LLM输出中夹杂说明文字的多个JSON
+                for (int i = 0; sb.length() < targetSize; i++) {
+                    sb.append("Record ").append(i).append(":\n```json\n");
+                    appendRecord(sb, kind, i);
+                    sb.append("\n```\n");
+                }
+                return sb.toString();
+            case MISSING_BRACKETS:
+                // 被截断的输出：缺少结尾的 } 和 ]
+                sb.append('[');
+                for (int i = 0; sb.length() < targetSize; i++) {
+                    if (i > 0) {
+                        sb.append(", ");
+                    }
+                    appendRecord(sb, kind, i);
+                }
+                sb.setLength(sb.length() - 2);
+                return sb.toString();
+            default:
+                sb.append('[');
+                for (int i = 0; sb.length() < targetSize; i++) {
+                    if (i > 0) {
+                        sb.append(",\n");
+                    }
+                    if (kind == InputKind.COMMENTS) {
+                        sb.append("// record ").append(i).append('\n');
+                    }
+                    appendRecord(sb, kind, i);
+                }
+                return sb.append(']').toString();
+        }
+    }
+
+    private static void appendRecord(StringBuilder sb, InputKind kind, int i) {
+        sb.append('{');
+        key(sb, kind, i, "id").append(i).append(", ");
+        key(sb, kind, i, "name");
+        value(sb, kind, i, "user-" + i).append(", ");
+        if (kind == InputKind.COMMENTS) {
+            sb.append("/* generated */ ");
+        }
+        key(sb, kind, i, "active").append(i % 2 == 0).append(", ");
+        key(sb, kind, i, "tags").append('[');
+        value(sb, kind, i, "a").append(", ");
+        value(sb, kind, i, "b").append("], ");
+        key(sb, kind, i, "address").append('{');
+        key(sb, kind, i, "city");
+        value(sb, kind, i, "City " + i).append("}}");
+    }
+
+    private static StringBuilder key(StringBuilder sb, InputKind kind, int i, String key) {
+        if (kind == InputKind.MISSING_QUOTES) {
+            return sb.append(key).append(": ");
+        }
+        return value(sb, kind, i, key).append(": ");
+    }
+
+    private static StringBuilder value(StringBuilder sb, InputKind kind, int i, String value) {
+        char quote = kind == InputKind.MIXED_QUOTES && (i + value.length()) % 2 == 0 ? '\'' : '"';
+        return sb.append(quote).append(value).append(quote);
+    }
+
+    /**
+     * 输入类型
+     */
+    public enum InputKind {
+        // 合法JSON，走Jackson快速路径
+        VALID,
+        // 对象键缺少引号
+        MISSING_QUOTES,
+        // 结尾缺少括号
+        MISSING_BRACKETS,
+        // 包含 // 和 /* */ 注释
+        COMMENTS,
+        // 单双引号混用
+        MIXED_QUOTES,
+        // 多个JSON夹杂在文本中
+        MULTI_JSON
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.lfshao.json.repair.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.lfshao.json.repair.RepairEngine;
+import io.github.lfshao.json.repair.RepairingJsonFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把一份包含200条记录的订单修复并绑定为Java对象，对比先得到修复后的JSON文本再交给ObjectMapper，
+ * 与通过RepairingJsonFactory直接绑定；damaged为false时输入是合法的JSON
+ * <p>
+ * 运行方式：java -jar benchmarks/target/benchmarks.jar BindingBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BindingBenchmark {
+
+    @Param({"true", "false"})
+    public boolean damaged;
+
+    private final RepairEngine engine = new RepairEngine();
+    private final RepairingJsonFactory factory = new RepairingJsonFactory(engine);
+    private final ObjectMapper mapper = new ObjectMapper();
+    private String input;
+
+    public static class Order {
+        public String id;
+        public String customer;
+        public List<Item> items;
+    }
+
+    public static class Item {
+        public String sku;
+        public int quantity;
+        public double price;
+        public boolean gift;
+    }
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder();
+        if (damaged) {
+            sb.append("{id: 'A-1', customer: Alice, items: [");
+            for (int i = 0; i < 200; i++) {
+                sb.append("{sku: 'S").append(i).append("', quantity: ").append(i % 7)
+                        .append(", price: ").append(i).append(".25, gift: False}, ");
+            }
+            // 缺少右括号
+        } else {
+            sb.append("{\"id\":\"A-1\",\"customer\":\"Alice\",\"items\":[");
+            for (int i = 0; i < 200; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append("{\"sku\":\"S").append(i).append("\",\"quantity\":").append(i % 7)
+                        .append(",\"price\":").append(i).append(".25,\"gift\":false}");
+            }
+            sb.append("]}");
+        }
+        input = sb.toString();
+    }
+
+    @Benchmark
+    public Order viaText() throws IOException {
+        return mapper.readValue(engine.repair(input), Order.class);
+    }
+
+    @Benchmark
+    public Order direct() throws IOException {
+        return mapper.readValue(factory.createParser(input), Order.class);
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.lfshao.json.repair.benchmark;
+
+import io.github.lfshao.json.repair.CachingRepairEngine;
+import io.github.lfshao.json.repair.RepairEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 重试和扇出时同一段损坏的模型输出被反复修复，对比直接修复与通过CachingRepairEngine修复
+ * 缓存命中时只需要计算一次哈希、查找一次并比较输入
+ * <p>
+ * 运行方式：java -jar benchmarks/target/benchmarks.jar CachedRepairBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CachedRepairBenchmark {
+
+    // 不同输入的个数，每次调用依次使用其中一个
+    @Param({"100"})
+    public int distinct;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private final RepairEngine engine = new RepairEngine();
+    private CachingRepairEngine cache;
+    private String[] inputs;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        cache = new CachingRepairEngine(engine, distinct * 2, (long) distinct * size * 4);
+        inputs = new String[distinct];
+        for (int d = 0; d < distinct; d++) {
+            StringBuilder sb = new StringBuilder("Sure, here it is: {items: [");
+            for (int i = 0; sb.length() < size; i++) {
+                sb.append("{id: ").append(d * 100000 + i).append(", name: 'item ").append(i).append("', ok: True}, ");
+            }
+            inputs[d] = sb.toString();
+        }
+    }
+
+    @Benchmark
+    public String repair() {
+        return engine.repair(nextInput());
+    }
+
+    @Benchmark
+    public String cached() {
+        return cache.repair(nextInput());
+    }
+
+    private String nextInput() {
+        String input = inputs[next];
+        next = next + 1 == inputs.length ? 0 : next + 1;
+        return input;
+    }
+}
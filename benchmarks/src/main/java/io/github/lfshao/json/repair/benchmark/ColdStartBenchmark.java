@@ -0,0 +1,38 @@
+package io.github.lfshao.json.repair.benchmark;
+
+import io.github.lfshao.json.repair.JsonRepair;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在新启动的JVM中测量第一次调用的耗时，包括加载和初始化本库的类；绑定到Java对象时还包括加载Jackson
+ * 每个fork只调用一次，不预热，结果是多个fork的平均值
+ * <p>
+ * 运行方式：java -jar benchmarks/target/benchmarks.jar ColdStartBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class ColdStartBenchmark {
+
+    @Benchmark
+    public String firstRepair() {
+        return JsonRepair.repair("{name: John, tags: [a, b], active: True");
+    }
+
+    @Benchmark
+    public String firstValidRepair() {
+        return JsonRepair.repair("{\"name\": \"John\", \"tags\": [\"a\", \"b\"], \"active\": true}");
+    }
+
+    @Benchmark
+    public Map<?, ?> firstBinding() throws IOException {
+        return JsonRepair.repair("{name: John, tags: [a, b], active: True", Map.class);
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.lfshao.json.repair.benchmark;
+
+import io.github.lfshao.json.repair.JsonRepair;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 只在末尾损坏的输入，例如被截断或在结尾附近有一个多余token的LLM输出
+ * 对比从头修复整个输入的repair与只修复损坏尾部的repairTail，后者的修复开销应与输入大小基本无关
+ * <p>
+ * 运行方式：java -jar benchmarks/target/benchmarks.jar DamagedTailBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DamagedTailBenchmark {
+
+    public enum Damage {
+        // 在最后一个记录的字符串值中间截断
+        TRUNCATED,
+        // 最后一个记录中有一个单引号字符串，之后的内容完整
+        STRAY_TOKEN
+    }
+
+    @Param({"TRUNCATED", "STRAY_TOKEN"})
+    public Damage damage;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private String input;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder(size + 128);
+        sb.append("{\"items\": [");
+        for (int i = 0; sb.length() < size; i++) {
+            sb.append("{\"id\": ").append(i).append(", \"name\": \"user ").append(i)
+                    .append("\", \"tags\": [\"a\", \"b\"], \"score\": 1.5}, ");
+        }
+        if (damage == Damage.TRUNCATED) {
+            sb.append("{\"id\": -1, \"name\": \"trunc");
+        } else {
+            sb.append("{\"id\": -1, \"name\": 'last'}], \"total\": 1}");
+        }
+        input = sb.toString();
+    }
+
+    @Benchmark
+    public String repair() {
+        return JsonRepair.repair(input);
+    }
+
+    @Benchmark
+    public String repairTail() {
+        return JsonRepair.repairTail(input);
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.lfshao.json.repair.benchmark;
+
+import io.github.lfshao.json.repair.JsonRepair;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 嵌套很深的对象中，最内层的字符串值包含大量多余的引号
+ * 字符串解析器遇到每个引号时都会向后查找，并对查找到的每个字符检查上下文栈中是否有某种上下文值，
+ * 修复时间应只随字符串长度线性增长，与嵌套深度基本无关
+ * <p>
+ * 运行方式：java -jar benchmarks/target/benchmarks.jar DeepContextBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeepContextBenchmark {
+
+    @Param({"1", "100", "500"})
+    public int depth;
+
+    @Param({"65536"})
+    public int length;
+
+    private String input;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            sb.append("{\"k").append(i).append("\": ");
+        }
+        sb.append('"');
+        int start = sb.length();
+        for (int i = 0; sb.length() - start < length; i++) {
+            sb.append("he said \"word ").append(i).append("\" and then a longer piece of text follows ");
+        }
+        sb.append('"');
+        for (int i = 0; i < depth; i++) {
+            sb.append('}');
+        }
+        input = sb.toString();
+    }
+
+    @Benchmark
+    public String repair() {
+        return JsonRepair.repair(input);
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.lfshao.json.repair.benchmark;
+
+import io.github.lfshao.json.repair.RepairEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 嵌套的对象和数组交替出现并且缺少所有的右括号，对比递归模式和迭代模式的修复引擎
+ * 迭代模式把嵌套的容器保存在堆上的栈中，不受调用栈大小的限制，这里比较两者在递归模式也能处理的深度下的开销
+ * <p>
+ * 运行方式：java -jar benchmarks/target/benchmarks.jar DeepNestingBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeepNestingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int depth;
+
+    private final RepairEngine recursive = new RepairEngine();
+    private final RepairEngine iterative = new RepairEngine(true);
+
+    private String input;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            if (i % 2 == 0) {
+                sb.append("{\"k").append(i).append("\": ");
+            } else {
+                sb.append("[1, 'two', ");
+            }
+        }
+        sb.append("true");
+        input = sb.toString();
+    }
+
+    @Benchmark
+    public String recursive() {
+        return recursive.repair(input);
+    }
+
+    @Benchmark
+    public String iterative() {
+        return iterative.repair(input);
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.lfshao.json.repair.benchmark;
+
+import io.github.lfshao.json.repair.JsonRepair;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 数组中缺少对象边界的记录：[{"id": 0, "name": "user 0", "id": 1, "name": "user 1", ...
+ * 每遇到一个重复的键，修复时都会在该键之前补一个 { 并从这里开始新的对象
+ * 用于观察修复时间随记录数的变化，理想情况下应该是线性的
+ * <p>
+ * 运行方式：java -jar benchmarks/target/benchmarks.jar DuplicateKeyBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DuplicateKeyBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int records;
+
+    private String input;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder("[{");
+        for (int i = 0; i < records; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append("\"id\": ").append(i).append(", \"name\": \"user ").append(i)
+                    .append("\", \"email\": \"user").append(i).append("@example.com\"");
+        }
+        input = sb.toString();
+    }
+
+    @Benchmark
+    public String repair() {
+        return JsonRepair.repair(input);
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.lfshao.json.repair.benchmark;
+
+import io.github.lfshao.json.repair.JsonRepairHandler;
+import io.github.lfshao.json.repair.RepairEngine;
+import io.github.lfshao.json.repair.TreeHandler;
+import io.github.lfshao.json.repair.WriterHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 修复一个缺少右括号、包含大量记录的顶层数组，对比构建对象树、事件驱动的TreeHandler、
+ * 事件直接写出JSON的WriterHandler，以及只统计name字段、不保留任何结构的处理器
+ * <p>
+ * 运行方式：java -jar benchmarks/target/benchmarks.jar HandlerBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HandlerBenchmark {
+
+    @Param({"20000"})
+    public int records;
+
+    private final RepairEngine engine = new RepairEngine();
+    private String input;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int r = 0; r < records; r++) {
+            sb.append("{id: ").append(r).append(", name: 'user").append(r)
+                    .append("', tags: [a, b, c], active: True}, ");
+        }
+        input = sb.toString();
+    }
+
+    @Benchmark
+    public Object parseTree() {
+        return engine.parse(input);
+    }
+
+    @Benchmark
+    public Object treeHandler() {
+        TreeHandler handler = new TreeHandler();
+        engine.repair(input, handler);
+        return handler.getResult();
+    }
+
+    @Benchmark
+    public int writerHandler() {
+        StringBuilder out = new StringBuilder(input.length());
+        engine.repair(input, new WriterHandler(out));
+        return out.length();
+    }
+
+    @Benchmark
+    public int countingHandler() {
+        NameCounter counter = new NameCounter();
+        engine.repair(input, counter);
+        return counter.count;
+    }
+
+    private static final class NameCounter implements JsonRepairHandler {
+
+        private int count;
+
+        @Override
+        public void startObject() {
+        }
+
+        @Override
+        public void endObject() {
+        }
+
+        @Override
+        public void startArray() {
+        }
+
+        @Override
+        public void endArray() {
+        }
+
+        @Override
+        public void key(String key) {
+            if (key.equals("name")) {
+                count++;
+            }
+        }
+
+        @Override
+        public void value(Object value) {
+        }
+    }
+}
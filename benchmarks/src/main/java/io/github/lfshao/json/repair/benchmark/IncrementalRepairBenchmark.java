@@ -0,0 +1,73 @@
+package io.github.lfshao.json.repair.benchmark;
+
+import io.github.lfshao.json.repair.IncrementalJsonRepair;
+import io.github.lfshao.json.repair.JsonRepair;
+import io.github.lfshao.json.repair.benchmark.BenchmarkInputs.InputKind;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 流式输入的基准测试：输入按固定大小分块到达，每块之后获取一次修复结果
+ * 对比IncrementalJsonRepair与每次都修复完整前缀的做法
+ * <p>
+ * 运行方式：java -jar benchmarks/target/benchmarks.jar IncrementalRepairBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IncrementalRepairBenchmark {
+
+    @Param({"VALID", "MISSING_BRACKETS"})
+    public InputKind kind;
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    // 每块的字符数，大约相当于几个LLM token
+    @Param({"16"})
+    public int chunk;
+
+    private String input;
+
+    @Setup
+    public void setUp() {
+        input = BenchmarkInputs.generate(kind, size);
+    }
+
+    @Benchmark
+    public long incremental() {
+        IncrementalJsonRepair repair = new IncrementalJsonRepair();
+        long total = 0;
+        int stable = 0;
+        for (int i = 0; i < input.length(); i += chunk) {
+            repair.feed(input.subSequence(i, Math.min(input.length(), i + chunk)));
+            total += repair.snapshot(stable).length();
+            stable = repair.getStableLength();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long incrementalFullSnapshot() {
+        IncrementalJsonRepair repair = new IncrementalJsonRepair();
+        long total = 0;
+        for (int i = 0; i < input.length(); i += chunk) {
+            repair.feed(input.subSequence(i, Math.min(input.length(), i + chunk)));
+            total += repair.snapshot().length();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long repairPrefix() {
+        long total = 0;
+        for (int i = chunk; i < input.length() + chunk; i += chunk) {
+            total += JsonRepair.repair(input.substring(0, Math.min(input.length(), i))).length();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.lfshao.json.repair.benchmark;
+
+import io.github.lfshao.json.repair.JsonLinesRepair;
+import io.github.lfshao.json.repair.JsonRepair;
+import io.github.lfshao.json.repair.RepairEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 修复约10万行的JSON Lines审计日志，其中一部分行被截断或使用单引号
+ * 对比逐行调用JsonRepair.repair和不同并行度下的JsonLinesRepair，输出丢弃
+ * <p>
+ * 运行方式：java -jar benchmarks/target/benchmarks.jar JsonLinesBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonLinesBenchmark {
+
+    @Param({"1", "4"})
+    public int threads;
+
+    @Param({"100000"})
+    public int lines;
+
+    private ForkJoinPool pool;
+    private JsonLinesRepair repair;
+    private String input;
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(threads);
+        repair = new JsonLinesRepair(new RepairEngine(), pool, false);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            switch (i % 4) {
+                case 0:
+                    sb.append("{'ts': ").append(i).append(", 'user': 'u").append(i % 97).append("', 'action': 'login'}");
+                    break;
+                case 1:
+                    sb.append("{\"ts\": ").append(i).append(", \"user\": \"u").append(i % 97).append("\", \"action\": \"upd");
+                    break;
+                default:
+                    sb.append("{\"ts\": ").append(i).append(", \"user\": \"u").append(i % 97)
+                            .append("\", \"action\": \"read\", \"ok\": true}");
+            }
+            sb.append('\n');
+        }
+        input = sb.toString();
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public void sequential() throws IOException {
+        BufferedReader reader = new BufferedReader(new StringReader(input));
+        Writer out = new NullWriter();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            out.append(JsonRepair.repair(line)).append('\n');
+        }
+    }
+
+    @Benchmark
+    public void pipeline() throws IOException {
+        repair.repair(new StringReader(input), new NullWriter());
+    }
+
+    /**
+     * 丢弃所有输出
+     */
+    private static class NullWriter extends Writer {
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
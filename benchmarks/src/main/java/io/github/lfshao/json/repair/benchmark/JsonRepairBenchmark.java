@@ -0,0 +1,73 @@
+package io.github.lfshao.json.repair.benchmark;
+
+import io.github.lfshao.json.repair.JsonRepair;
+import io.github.lfshao.json.repair.benchmark.BenchmarkInputs.InputKind;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JsonRepair.repair 端到端基准测试
+ * <p>
+ * 运行方式：java -jar benchmarks/target/benchmarks.jar JsonRepairBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonRepairBenchmark {
+
+    @Param({"VALID", "MISSING_QUOTES", "MISSING_BRACKETS", "COMMENTS", "MIXED_QUOTES", "MULTI_JSON"})
+    public InputKind kind;
+
+    @Param({"100", "10000", "1000000", "10000000"})
+    public int size;
+
+    private String input;
+
+    @Setup
+    public void setUp() {
+        input = BenchmarkInputs.generate(kind, size);
+    }
+
+    @Benchmark
+    public String repair() {
+        return JsonRepair.repair(input);
+    }
+
+    @Benchmark
+    public long repairStreaming() throws IOException {
+        CountingAppendable out = new CountingAppendable();
+        JsonRepair.repair(input, out);
+        return out.count;
+    }
+
+    /**
+     * 只统计字符数的输出目标，使分配统计只反映修复本身
+     */
+    static final class CountingAppendable implements Appendable {
+
+        long count;
+
+        @Override
+        public Appendable append(CharSequence csq) {
+            count += csq.length();
+            return this;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+            count += end - start;
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            count++;
+            return this;
+        }
+    }
+}
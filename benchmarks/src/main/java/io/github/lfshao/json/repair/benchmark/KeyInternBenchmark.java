@@ -0,0 +1,86 @@
+package io.github.lfshao.json.repair.benchmark;
+
+import io.github.lfshao.json.repair.RepairEngine;
+import io.github.lfshao.json.repair.core.KeyTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把一批结构相同、共有20个键的损坏记录修复为对象树，对比是否使用键的驻留表
+ * 除了每次操作的分配量，结束时还会保留十万条记录的对象树并输出GC之后占用的堆大小
+ * <p>
+ * 运行方式：java -jar benchmarks/target/benchmarks.jar KeyInternBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeyInternBenchmark {
+
+    @Param({"false", "true"})
+    public boolean intern;
+
+    @Param({"10000"})
+    public int records;
+
+    private RepairEngine engine;
+    private String[] inputs;
+
+    @Setup
+    public void setUp() {
+        engine = intern ? new RepairEngine(false, new KeyTable(1024)) : new RepairEngine();
+        inputs = new String[records];
+        for (int r = 0; r < records; r++) {
+            inputs[r] = record(r);
+        }
+    }
+
+    private static String record(int r) {
+        StringBuilder sb = new StringBuilder("{");
+        for (int k = 0; k < 20; k++) {
+            sb.append("'field_").append(k).append("': ").append(r + k).append(", ");
+        }
+        // 缺少右括号
+        return sb.toString();
+    }
+
+    @Benchmark
+    public List<Object> parse() {
+        List<Object> trees = new ArrayList<>(inputs.length);
+        for (String input : inputs) {
+            trees.add(engine.parse(input));
+        }
+        return trees;
+    }
+
+    @TearDown
+    public void retainedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        int count = 100000;
+        String[] batch = new String[count];
+        for (int r = 0; r < count; r++) {
+            batch[r] = record(r);
+        }
+        long before = usedAfterGc(memory);
+        List<Object> trees = new ArrayList<>(count);
+        for (String input : batch) {
+            trees.add(engine.parse(input));
+        }
+        long after = usedAfterGc(memory);
+        System.out.printf("%nintern=%s: %d trees retain %.1f MB%n", intern, trees.size(), (after - before) / 1048576.0);
+    }
+
+    private static long usedAfterGc(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.lfshao.json.repair.benchmark;
+
+import io.github.lfshao.json.repair.JsonRepair;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对象的两个成员之间有一段很长的块注释，例如生成的配置文件中被注释掉的整段配置
+ * 修复时注释只需要被跳过，时间应随注释长度线性增长
+ * <p>
+ * 运行方式：java -jar benchmarks/target/benchmarks.jar LargeCommentBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LargeCommentBenchmark {
+
+    @Param({"65536", "262144", "1048576"})
+    public int size;
+
+    private String input;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder(size + 64);
+        sb.append("{\"a\": 1, /*");
+        while (sb.length() < size) {
+            // 注释中单独出现的 * 和 / 不会结束注释
+            sb.append(" * \"disabled\": {\"key\": \"value\", \"path\": \"a/b\"},\n");
+        }
+        input = sb.append(" */ \"b\": 2}").toString();
+    }
+
+    @Benchmark
+    public String repair() {
+        return JsonRepair.repair(input);
+    }
+}
@@ -0,0 +1,41 @@
+package io.github.lfshao.json.repair.benchmark;
+
+import io.github.lfshao.json.repair.JsonRepair;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 模型输出的JSON之前有一大段说明文字，根元素之前的字符没有解析器能处理，需要逐个跳过
+ * 修复时间应随文字长度线性增长，并且每个字符的开销很小
+ * <p>
+ * 运行方式：java -jar benchmarks/target/benchmarks.jar LeadingProseBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LeadingProseBenchmark {
+
+    @Param({"1000", "100000"})
+    public int length;
+
+    private String input;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < length) {
+            sb.append("Sure! Here is the data you asked for, based on the 3 sources and the notes below. ");
+        }
+        sb.append("{\"name\": \"John\", \"age\": 30, \"tags\": [\"a\", \"b\"]}");
+        input = sb.toString();
+    }
+
+    @Benchmark
+    public String repair() {
+        return JsonRepair.repair(input);
+    }
+}
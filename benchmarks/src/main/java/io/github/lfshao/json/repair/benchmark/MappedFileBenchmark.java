@@ -0,0 +1,67 @@
+package io.github.lfshao.json.repair.benchmark;
+
+import io.github.lfshao.json.repair.JsonLinesRepair;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 修复磁盘上的JSON Lines文件，对比通过输入输出流读写和通过内存映射、直接缓冲区读写
+ * 内存映射时文件内容不经过堆上的字节缓冲区，由工作线程各自解码自己的批次
+ * <p>
+ * 运行方式：java -jar benchmarks/target/benchmarks.jar MappedFileBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappedFileBenchmark {
+
+    @Param({"16"})
+    public int megabytes;
+
+    private final JsonLinesRepair repair = new JsonLinesRepair();
+
+    private Path source;
+    private Path target;
+
+    @Setup
+    public void setUp() throws IOException {
+        source = Files.createTempFile("json-repair-bench", ".jsonl");
+        target = Files.createTempFile("json-repair-bench", ".out.jsonl");
+        try (Writer writer = Files.newBufferedWriter(source, StandardCharsets.UTF_8)) {
+            long size = 0;
+            for (int i = 0; size < (long) megabytes << 20; i++) {
+                String line = i % 3 == 0
+                        ? "{'ts': " + i + ", 'user': 'u" + i % 97 + "', 'action': 'login'}\n"
+                        : "{\"ts\": " + i + ", \"user\": \"u" + i % 97 + "\", \"action\": \"read\", \"ok\": true}\n";
+                writer.write(line);
+                size += line.length();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(source);
+        Files.deleteIfExists(target);
+    }
+
+    @Benchmark
+    public void streams() throws IOException {
+        try (InputStream in = Files.newInputStream(source); OutputStream out = Files.newOutputStream(target)) {
+            repair.repair(in, out);
+        }
+    }
+
+    @Benchmark
+    public void mapped() throws IOException {
+        repair.repair(source, target);
+    }
+}
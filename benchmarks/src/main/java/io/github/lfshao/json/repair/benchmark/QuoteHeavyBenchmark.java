@@ -0,0 +1,69 @@
+package io.github.lfshao.json.repair.benchmark;
+
+import io.github.lfshao.json.repair.JsonRepair;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 引号和分隔符密集的输入，修复时每遇到一个可疑的引号或逗号都要向后查找匹配的字符
+ * 用于观察修复时间随输入大小的变化，理想情况下应该是线性的
+ * <p>
+ * 运行方式：java -jar benchmarks/target/benchmarks.jar QuoteHeavyBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuoteHeavyBenchmark {
+
+    public enum Pattern {
+        // 数组中的字符串包含未转义的引号：["a "b" c", "a "b" c", ...
+        STRAY_QUOTES_IN_ARRAY,
+        // 没有结束引号的对象值中有大量逗号：{"a": "x, y x, y ...
+        COMMAS_IN_UNCLOSED_VALUE,
+        // 对象值包含未转义的引号：{"k0": "say "hi" now", ...
+        STRAY_QUOTES_IN_OBJECT
+    }
+
+    @Param({"STRAY_QUOTES_IN_ARRAY", "COMMAS_IN_UNCLOSED_VALUE", "STRAY_QUOTES_IN_OBJECT"})
+    public Pattern pattern;
+
+    @Param({"10000", "40000", "160000"})
+    public int size;
+
+    private String input;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder(size + 64);
+        switch (pattern) {
+            case STRAY_QUOTES_IN_ARRAY:
+                sb.append('[');
+                while (sb.length() < size) {
+                    sb.append("\"a \"b\" c\", ");
+                }
+                break;
+            case COMMAS_IN_UNCLOSED_VALUE:
+                sb.append("{\"a\": \"");
+                while (sb.length() < size) {
+                    sb.append("x, y ");
+                }
+                break;
+            default:
+                sb.append('{');
+                for (int i = 0; sb.length() < size; i++) {
+                    sb.append("\"k").append(i).append("\": \"say \"hi\" now\", ");
+                }
+                break;
+        }
+        input = sb.toString();
+    }
+
+    @Benchmark
+    public String repair() {
+        return JsonRepair.repair(input);
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.lfshao.json.repair.benchmark;
+
+import io.github.lfshao.json.repair.JsonRepair;
+import io.github.lfshao.json.repair.benchmark.BenchmarkInputs.InputKind;
+import io.github.lfshao.json.repair.benchmark.JsonRepairBenchmark.CountingAppendable;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 从InputStream读取输入的基准测试
+ * 对比滑动窗口边读边修复与先把整个输入读成字符串再修复的做法，重点关注每次修复分配的内存
+ * <p>
+ * 运行方式：java -jar benchmarks/target/benchmarks.jar ReaderRepairBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReaderRepairBenchmark {
+
+    @Param({"MISSING_BRACKETS", "COMMENTS"})
+    public InputKind kind;
+
+    @Param({"10000000", "50000000"})
+    public int size;
+
+    private byte[] input;
+
+    @Setup
+    public void setUp() {
+        input = BenchmarkInputs.generate(kind, size).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public long repairInputStream() throws IOException {
+        CountingAppendable out = new CountingAppendable();
+        JsonRepair.repair(new ByteArrayInputStream(input), out);
+        return out.count;
+    }
+
+    @Benchmark
+    public long readThenRepair() throws IOException {
+        CountingAppendable out = new CountingAppendable();
+        JsonRepair.repair(readFully(new ByteArrayInputStream(input)), out);
+        return out.count;
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) >= 0) {
+            bytes.write(buffer, 0, n);
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
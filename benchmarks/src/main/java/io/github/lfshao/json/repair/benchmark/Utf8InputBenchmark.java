@@ -0,0 +1,72 @@
+package io.github.lfshao.json.repair.benchmark;
+
+import io.github.lfshao.json.repair.RepairEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 修复以UTF-8字节给出、缺少右括号的响应，对比先解码为String再修复与直接修复字节
+ * 输入大部分是ASCII，少量记录包含中文；size为输入的大致字节数，小的输入使用复用的解析状态，大的输入超过复用的上限
+ * <p>
+ * 运行方式：java -jar benchmarks/target/benchmarks.jar Utf8InputBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Utf8InputBenchmark {
+
+    @Param({"2000", "1000000"})
+    private int size;
+
+    private final RepairEngine engine = new RepairEngine();
+    private final OutputStream sink = new NullOutputStream();
+    private byte[] input;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; sb.length() < size; i++) {
+            sb.append("{id: ").append(i).append(", name: 'user").append(i)
+                    .append("', note: '").append(i % 10 == 0 ? "中文备注" : "plain note").append("', active: True}, ");
+        }
+        input = sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String decodeThenRepair() {
+        return engine.repair(new String(input, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public String byteArray() {
+        return engine.repair(input);
+    }
+
+    @Benchmark
+    public void decodeThenRepairToStream() throws IOException {
+        sink.write(engine.repair(new String(input, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void byteArrayToStream() throws IOException {
+        engine.repair(input, sink);
+    }
+
+    private static final class NullOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.lfshao.json.repair.benchmark;
+
+import io.github.lfshao.json.repair.RepairEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把约1 MB、缺少右括号的响应修复为UTF-8字节，对比先得到String再编码、直接写入OutputStream，以及直接写入直接缓冲区
+ * 输入大部分是ASCII，少量记录包含中文
+ * <p>
+ * 运行方式：java -jar benchmarks/target/benchmarks.jar Utf8OutputBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Utf8OutputBenchmark {
+
+    private final RepairEngine engine = new RepairEngine();
+    private final OutputStream sink = new NullOutputStream();
+    private String input;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; sb.length() < 1 << 20; i++) {
+            sb.append("{id: ").append(i).append(", name: 'user").append(i)
+                    .append("', note: '").append(i % 10 == 0 ? "中文备注" : "plain note").append("', active: True}, ");
+        }
+        input = sb.toString();
+        buffer = ByteBuffer.allocateDirect(input.length() * 3);
+    }
+
+    @Benchmark
+    public void viaString() throws IOException {
+        sink.write(engine.repair(input).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void outputStream() throws IOException {
+        engine.repair(input, sink);
+    }
+
+    @Benchmark
+    public int directBuffer() {
+        buffer.clear();
+        engine.repair(input, buffer);
+        return buffer.position();
+    }
+
+    private static final class NullOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
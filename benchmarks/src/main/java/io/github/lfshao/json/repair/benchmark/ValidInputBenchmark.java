@@ -0,0 +1,50 @@
+package io.github.lfshao.json.repair.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.lfshao.json.repair.JsonRepair;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已经合法的输入
+ * 对比构建对象树再序列化的方式、repair中逐个token复制的方式，以及keepValidInput时原样返回的方式
+ * <p>
+ * 运行方式：java -jar benchmarks/target/benchmarks.jar ValidInputBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidInputBenchmark {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private String input;
+
+    @Setup
+    public void setUp() {
+        input = BenchmarkInputs.generate(BenchmarkInputs.InputKind.VALID, size);
+    }
+
+    @Benchmark
+    public String treeRoundTrip() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(objectMapper.readValue(input, Object.class));
+    }
+
+    @Benchmark
+    public String repair() {
+        return JsonRepair.repair(input);
+    }
+
+    @Benchmark
+    public String repairKeepValid() {
+        return JsonRepair.repair(input, true);
+    }
+}
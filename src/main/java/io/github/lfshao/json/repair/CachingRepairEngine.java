@@ -0,0 +1,253 @@
+package io.github.lfshao.json.repair;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存修复结果的引擎
+ * 包装一个RepairEngine，以输入的64位哈希和长度为键缓存repair(String)的结果，命中时还会比较输入是否相同，
+ * 因此重复的输入（例如重试或扇出时同一段模型输出）只需要计算一次哈希并查找一次。
+ * <p>
+ * 缓存同时限制整个缓存的条目数和总权重（输入与结果的字符数之和），权重超过总上限的单个结果不会被缓存。
+ * 缓存分为若干段，每段独立加锁，不同的输入通常不会互相等待；超过上限时先淘汰新条目所在段中最久未访问的条目，
+ * 该段没有其他条目时再依次淘汰后面各段的。
+ * <p>
+ * 实例可以被多个线程共享
+ */
+public final class CachingRepairEngine {
+
+    // 段数，必须是2的幂
+    private static final int SEGMENTS = 16;
+
+    private final RepairEngine engine;
+    private final int maxEntries;
+    private final long maxWeight;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    // 所有段的条目数和总权重，在段的锁内更新
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong weight = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param engine     执行修复的引擎
+     * @param maxEntries 最多缓存的结果数
+     * @param maxWeight  缓存的输入与结果的最大总字符数
+     */
+    public CachingRepairEngine(RepairEngine engine, int maxEntries, long maxWeight) {
+        if (maxEntries <= 0 || maxWeight <= 0) {
+            throw new IllegalArgumentException("maxEntries: " + maxEntries + ", maxWeight: " + maxWeight);
+        }
+        this.engine = engine;
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * 修复格式不正确的JSON字符串，结果与RepairEngine.repair(String)相同
+     *
+     * @param jsonStr 需要修复的JSON字符串
+     * @return 修复后的有效JSON字符串
+     */
+    public String repair(String jsonStr) {
+        if (jsonStr == null || jsonStr.isEmpty()) {
+            return engine.repair(jsonStr);
+        }
+        long hash = hash(jsonStr);
+        Key key = new Key(hash, jsonStr.length());
+        int index = (int) (hash >>> 32) & (SEGMENTS - 1);
+        Segment segment = segments[index];
+        String cached = segment.get(key, jsonStr);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        // 在锁外修复，相同的输入同时未命中时可能会修复多次，结果相同
+        String repaired = engine.repair(jsonStr);
+        Entry entry = new Entry(jsonStr, repaired);
+        if (entry.weight() <= maxWeight) {
+            segment.put(key, entry);
+            evict(index, entry);
+        }
+        return repaired;
+    }
+
+    /**
+     * 超过上限时从index所在的段开始淘汰，不淘汰刚加入的added
+     * 每次只持有一段的锁；所有段都只剩下正在加入的条目时停止
+     */
+    private void evict(int index, Entry added) {
+        int idle = 0;
+        while ((size.get() > maxEntries || weight.get() > maxWeight) && idle < SEGMENTS) {
+            if (segments[index].evictEldest(added)) {
+                idle = 0;
+            } else {
+                index = (index + 1) & (SEGMENTS - 1);
+                idle++;
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * 当前缓存的结果数
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * 当前缓存的总权重
+     */
+    public long weight() {
+        return weight.get();
+    }
+
+    /**
+     * 清空缓存，计数器不会被重置
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * 字符串的64位哈希，每次处理4个字符
+     */
+    static long hash(String s) {
+        int length = s.length();
+        long h = 0x9E3779B97F4A7C15L ^ length;
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            long block = s.charAt(i)
+                    | (long) s.charAt(i + 1) << 16
+                    | (long) s.charAt(i + 2) << 32
+                    | (long) s.charAt(i + 3) << 48;
+            h = Long.rotateLeft(h ^ block * 0xC2B2AE3D27D4EB4FL, 31) * 0x9E3779B97F4A7C15L;
+        }
+        for (; i < length; i++) {
+            h = (h ^ s.charAt(i)) * 0x100000001B3L;
+        }
+        // 最后混合一次，使高位也依赖于所有输入
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Key {
+
+        final long hash;
+        final int length;
+
+        Key(long hash, int length) {
+            this.hash = hash;
+            this.length = length;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hash == key.hash && length == key.length;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) hash;
+        }
+    }
+
+    private static final class Entry {
+
+        final String input;
+        final String output;
+
+        Entry(String input, String output) {
+            this.input = input;
+            this.output = output;
+        }
+
+        long weight() {
+            return (long) input.length() + output.length();
+        }
+    }
+
+    /**
+     * 缓存的一段，按访问顺序排列的LinkedHashMap，由自身的锁保护
+     */
+    private final class Segment {
+
+        private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        synchronized String get(Key key, String input) {
+            Entry entry = entries.get(key);
+            // 哈希和长度都相同但内容不同时视为未命中
+            return entry != null && entry.input.equals(input) ? entry.output : null;
+        }
+
+        synchronized void put(Key key, Entry entry) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                weight.addAndGet(-previous.weight());
+            } else {
+                size.incrementAndGet();
+            }
+            weight.addAndGet(entry.weight());
+        }
+
+        /**
+         * 淘汰这一段中最久未访问的条目
+         *
+         * @return 是否淘汰了条目；段中没有keep之外的条目时返回false
+         */
+        synchronized boolean evictEldest(Entry keep) {
+            Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+            Entry eldest = null;
+            while (it.hasNext() && (eldest == null || eldest == keep)) {
+                eldest = it.next().getValue();
+            }
+            if (eldest == null || eldest == keep) {
+                return false;
+            }
+            it.remove();
+            size.decrementAndGet();
+            weight.addAndGet(-eldest.weight());
+            evictions.increment();
+            return true;
+        }
+
+        synchronized void clear() {
+            for (Entry entry : entries.values()) {
+                weight.addAndGet(-entry.weight());
+            }
+            size.addAndGet(-entries.size());
+            entries.clear();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package io.github.lfshao.json.repair;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 以UTF-8编码写入channel
+ * 字符先积累在缓冲区中，再批量编码到直接缓冲区并写入channel。
+ * close只会刷新剩余的内容，channel不会被关闭
+ */
+final class ChannelWriter extends Writer {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final char[] chars = new char[BUFFER_SIZE / 4];
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private int count;
+    private boolean closed;
+
+    ChannelWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (count == chars.length) {
+            encode(false);
+        }
+        chars[count++] = (char) c;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        while (len > 0) {
+            if (count == chars.length) {
+                encode(false);
+            }
+            int n = Math.min(len, chars.length - count);
+            System.arraycopy(cbuf, off, chars, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        while (len > 0) {
+            if (count == chars.length) {
+                encode(false);
+            }
+            int n = Math.min(len, chars.length - count);
+            str.getChars(off, off + n, chars, count);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        encode(false);
+        drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        encode(true);
+        while (encoder.flush(bytes).isOverflow()) {
+            drain();
+        }
+        drain();
+    }
+
+    /**
+     * 编码缓冲区中的字符，末尾不完整的代理对留到下一次
+     */
+    private void encode(boolean endOfInput) throws IOException {
+        CharBuffer in = CharBuffer.wrap(chars, 0, count);
+        while (encoder.encode(in, bytes, endOfInput).isOverflow()) {
+            drain();
+        }
+        int rest = in.remaining();
+        System.arraycopy(chars, in.position(), chars, 0, rest);
+        count = rest;
+    }
+
+    private void drain() throws IOException {
+        // 通过Buffer调用，Java 8中ByteBuffer没有这两个方法的重载
+        ((Buffer) bytes).flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        ((Buffer) bytes).clear();
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.lfshao.json.repair;
+
+import io.github.lfshao.json.repair.core.JsonSink;
+
+/**
+ * 将解析器的事件转发给JsonRepairHandler
+ */
+final class HandlerSink implements JsonSink {
+
+    private final JsonRepairHandler handler;
+
+    HandlerSink(JsonRepairHandler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public void startObject() {
+        handler.startObject();
+    }
+
+    @Override
+    public void endObject() {
+        handler.endObject();
+    }
+
+    @Override
+    public void startArray() {
+        handler.startArray();
+    }
+
+    @Override
+    public void endArray() {
+        handler.endArray();
+    }
+
+    @Override
+    public void key(String key) {
+        handler.key(key);
+    }
+
+    @Override
+    public void value(Object value) {
+        handler.value(value);
+    }
+}
@@ -0,0 +1,400 @@
+package io.github.lfshao.json.repair;
+
+import io.github.lfshao.json.repair.core.JsonParser;
+import io.github.lfshao.json.repair.core.JsonWriter;
+import io.github.lfshao.json.repair.core.StrictJsonScanner;
+
+/**
+ * 增量JSON修复器
+ * 适用于逐块到达的输入（例如LLM的流式输出）：通过feed追加内容，随时通过snapshot获取修复后的JSON。
+ * <p>
+ * 输入中合法的部分在到达时即被严格扫描，去掉空白后确认下来，之后不会再被解析；
+ * 每次snapshot只需要用streamStable模式修复最后一个确认点之后的内容，并从当时打开的容器继续解析，
+ * 因此解析的开销只与未确认的尾部长度相关，而不是与整个输入的长度相关。
+ * 输入出现无法严格解析的内容后，之后的部分都作为尾部在每次snapshot时重新修复。
+ * <p>
+ * 快照中长度为getStableLength()的前缀在之后的快照中不会再改变，
+ * 渲染时可以通过snapshot(int)只获取之后的部分，使每次的开销与新到达的内容相关。
+ * <p>
+ * 与一次性修复整个输入的区别：
+ * - 只处理以对象或数组为根的输入，根元素之前的文本和注释会被跳过，根元素结束之后的内容会被忽略
+ * - 合法的部分保持原文，例如数字的写法和字符串中的转义不会被改写，对象中重复的键也会保留
+ * <p>
+ * 非线程安全
+ */
+public class IncrementalJsonRepair {
+
+    // 根元素之前的内容：普通文本、# 或 // 注释、/ 之后、块注释、块注释中的 * 之后
+    private static final int TEXT = 0;
+    private static final int LINE_COMMENT = 1;
+    private static final int SLASH = 2;
+    private static final int BLOCK_COMMENT = 3;
+    private static final int BLOCK_COMMENT_STAR = 4;
+
+    // 收到的输入，已经确认的部分会被定期丢弃
+    private final StringBuilder input = new StringBuilder();
+    // 已经确认的合法前缀（去掉了结构中的空白）
+    private final StringBuilder committed = new StringBuilder();
+    // 已经扫描但还未确认的合法内容
+    private final StringBuilder staged = new StringBuilder();
+    private final StrictJsonScanner scanner = new StrictJsonScanner();
+
+    // 下一个要扫描的字符位置
+    private int scanned;
+    private int preamble = TEXT;
+    // 已经遇到根元素的 { 或 [
+    private boolean rootStarted;
+    // 根元素已经结束
+    private boolean rootDone;
+    // 根元素结束之后追加的输入中有空白以外的内容，这些输入不会被保留
+    private boolean trailingContent;
+    // 严格扫描已经停止，之后的内容都属于尾部
+    private boolean stopped;
+
+    // 未确认内容在input中的开始位置
+    private int pendingStart;
+    // 确认点位于容器中的一个元素之后
+    private boolean committedAfterValue;
+    // 确认点位于字符串值的内部
+    private boolean committedInString;
+    // 已确认的打开容器数量，数组中新开始的容器在出现第一个子元素之前不会确认
+    private int committedDepth;
+    // 进入字符串值之前最后一个确认点的状态，字符串中出错时回退到这里
+    private int structuralLength;
+    private int structuralStart;
+    private boolean structuralAfterValue;
+    private int structuralDepth;
+
+    // 最近结束的标量值在staged中的结束位置，-1表示没有
+    // 修复时可能把值之后的内容也算作值的一部分（例如 "a"b" 或 1,000），所以要等到分隔符之后出现合法的内容才确认
+    private int valueEndStaged = -1;
+    private int valueEnd;
+    private boolean valueFollowedByComma;
+
+    /**
+     * 追加一段输入
+     *
+     * @param chunk 新到达的内容
+     * @return 当前对象
+     */
+    public IncrementalJsonRepair feed(CharSequence chunk) {
+        if (chunk == null || chunk.length() == 0) {
+            return this;
+        }
+        if (rootDone) {
+            // 之后的内容不会出现在快照中，只记录是否有内容，使finish的结果与输入的分块方式无关
+            trailingContent = trailingContent || hasTrailingContent(chunk, 0);
+            return this;
+        }
+        compact();
+        input.append(chunk);
+        if (!stopped) {
+            scan();
+        }
+        return this;
+    }
+
+    /**
+     * 获取当前输入修复后的JSON
+     *
+     * @return 修复后的JSON字符串，还没有遇到根元素时返回空字符串
+     */
+    public String snapshot() {
+        return snapshot(0);
+    }
+
+    /**
+     * 获取当前输入修复后的JSON从指定位置开始的部分
+     *
+     * @param from 开始位置，通常是上一次获取快照之后getStableLength()的值
+     * @return 修复后的JSON字符串从from开始的部分
+     */
+    public String snapshot(int from) {
+        if (from < 0 || from > structuralLength) {
+            throw new IndexOutOfBoundsException("from: " + from + ", stable length: " + structuralLength);
+        }
+        if (!rootStarted) {
+            return "";
+        }
+        return render(from, false);
+    }
+
+    /**
+     * 输入已经完整时获取修复后的JSON，尾部按一次性修复的规则处理（不使用streamStable模式）
+     *
+     * @return 修复后的JSON字符串，根元素结束之后还有空白以外的内容时返回null
+     */
+    String finish() {
+        if (!rootStarted) {
+            return "";
+        }
+        if (rootDone && (trailingContent || hasTrailingContent(input, pendingStart))) {
+            return null;
+        }
+        return render(0, true);
+    }
+
+    private String render(int from, boolean complete) {
+        int length = committed.length();
+        int start = pendingStart;
+        boolean afterValue = committedAfterValue;
+        int depth = committedDepth;
+        if (committedInString && complete) {
+            // 输入已经完整，字符串的结尾（例如末尾的空白）按一次性修复的规则处理，从字符串之前开始修复
+            length = structuralLength;
+            start = structuralStart;
+            afterValue = structuralAfterValue;
+            depth = structuralDepth;
+        }
+        StringBuilder out = new StringBuilder(length - from + input.length() - start + depth + 16);
+        out.append(committed, from, length);
+        if (rootDone) {
+            return out.toString();
+        }
+        if (committedInString && !complete) {
+            // 尾部只可能是不完整的转义序列或者字符串的结束引号，直接结束字符串和所有容器
+            out.append('"');
+            for (int i = depth - 1; i >= 0; i--) {
+                out.append(scanner.isObject(i) ? '}' : ']');
+            }
+            return out.toString();
+        }
+
+        boolean[] objects = new boolean[depth];
+        JsonWriter writer = new JsonWriter(out);
+        for (int i = 0; i < depth; i++) {
+            objects[i] = scanner.isObject(i);
+            writer.resumeContainer(i < depth - 1 || afterValue);
+        }
+        JsonParser parser = new JsonParser(input.substring(start), false, !complete);
+        parser.resume(objects, depth, afterValue, writer);
+        if (complete) {
+            parser.skipWhitespacesAt();
+            if (parser.charAt() != JsonParser.EOF) {
+                // 尾部的修复在根元素结束后停止，之后的内容只有一次性修复才会处理
+                return null;
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * 快照中已经稳定的前缀长度，之后的快照都以相同的内容开头
+     * 正在接收的字符串值不计入稳定部分，因为后续内容可能表明其中的引号并不是结束引号
+     */
+    public int getStableLength() {
+        return structuralLength;
+    }
+
+    /**
+     * text中from之后是否还有空白以外的内容
+     */
+    private static boolean hasTrailingContent(CharSequence text, int from) {
+        for (int i = from; i < text.length(); i++) {
+            if (!StrictJsonScanner.isWhitespace(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 丢弃已经确认的输入，只保留之后可能需要重新解析的部分
+     */
+    private void compact() {
+        int discard = structuralStart;
+        if (discard < 4096 || discard < input.length() / 2) {
+            return;
+        }
+        input.delete(0, discard);
+        scanned -= discard;
+        pendingStart -= discard;
+        structuralStart = 0;
+        valueEnd -= discard;
+    }
+
+    private void scan() {
+        for (; scanned < input.length(); scanned++) {
+            char c = input.charAt(scanned);
+            if (!rootStarted) {
+                if (skipPreamble(c)) {
+                    continue;
+                }
+                rootStarted = true;
+            }
+
+            int before = scanner.getState();
+            boolean inString = scanner.isInString();
+            if (before == StrictJsonScanner.STRING && valueEndStaged < 0 && isPlainStringChar(c)) {
+                // 字符串中的普通字符不会改变扫描器的状态，整段一起复制和确认
+                int end = scanned + 1;
+                while (end < input.length() && isPlainStringChar(input.charAt(end))) {
+                    end++;
+                }
+                staged.append(input, scanned, end);
+                scanned = end - 1;
+                commitIfBoundary(false);
+                continue;
+            }
+            if (before == StrictJsonScanner.STRING && c < 0x20) {
+                // 字符串中未转义的控制字符，修复时同样会保留，这里直接写为转义形式
+                staged.append(JsonWriter.escape(c));
+                commitIfBoundary(false);
+                continue;
+            }
+            if (scanner.scan(input, scanned, scanned + 1) == scanned) {
+                stop();
+                return;
+            }
+            int after = scanner.getState();
+
+            if (before == StrictJsonScanner.NUMBER && after != StrictJsonScanner.NUMBER) {
+                // 数字在当前字符之前结束
+                markValueEnd(scanned);
+            }
+            if (inString || !StrictJsonScanner.isWhitespace(c)) {
+                staged.append(c);
+            }
+            if ((inString && !scanner.isInString() && !scanner.isKeyString())
+                    || (before == StrictJsonScanner.LITERAL && after != StrictJsonScanner.LITERAL)) {
+                markValueEnd(scanned + 1);
+                continue;
+            }
+            if (valueEndStaged >= 0 && !StrictJsonScanner.isWhitespace(c)) {
+                if (c == ',' && !valueFollowedByComma) {
+                    valueFollowedByComma = true;
+                    continue;
+                }
+                if (valueFollowedByComma) {
+                    // 分隔符之后出现了合法的内容，确认之前的值
+                    boolean opened = after == StrictJsonScanner.ARRAY_FIRST || after == StrictJsonScanner.OBJECT_FIRST;
+                    commit(valueEndStaged, valueEnd, true, false, scanner.getDepth() - (opened ? 1 : 0));
+                } else {
+                    // 容器结束，和值一起确认
+                    valueEndStaged = -1;
+                }
+            }
+            if (valueEndStaged < 0) {
+                commitIfBoundary(!inString && scanner.isInString());
+                if (rootDone) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static boolean isPlainStringChar(char c) {
+        return c != '"' && c != '\\' && c >= 0x20;
+    }
+
+    /**
+     * 跳过根元素之前的内容，规则与修复时顶层的处理一致
+     *
+     * @return 字符是否被跳过，false表示根元素从这里开始
+     */
+    private boolean skipPreamble(char c) {
+        switch (preamble) {
+            case LINE_COMMENT:
+                if (c == '\n' || c == '\r') {
+                    preamble = TEXT;
+                }
+                return true;
+            case SLASH:
+                if (c == '/') {
+                    preamble = LINE_COMMENT;
+                    return true;
+                }
+                if (c == '*') {
+                    preamble = BLOCK_COMMENT;
+                    return true;
+                }
+                preamble = TEXT;
+                return skipPreamble(c);
+            case BLOCK_COMMENT:
+                if (c == '*') {
+                    preamble = BLOCK_COMMENT_STAR;
+                }
+                return true;
+            case BLOCK_COMMENT_STAR:
+                if (c == '/') {
+                    preamble = TEXT;
+                } else if (c != '*') {
+                    preamble = BLOCK_COMMENT;
+                }
+                return true;
+            default:
+                if (c == '#') {
+                    preamble = LINE_COMMENT;
+                } else if (c == '/') {
+                    preamble = SLASH;
+                } else if (c == '{' || c == '[') {
+                    pendingStart = scanned;
+                    structuralStart = scanned;
+                    return false;
+                }
+                return true;
+        }
+    }
+
+    private void markValueEnd(int end) {
+        valueEndStaged = staged.length();
+        valueEnd = end;
+        valueFollowedByComma = false;
+    }
+
+    private void commitIfBoundary(boolean stringOpened) {
+        int depth = scanner.getDepth();
+        switch (scanner.getState()) {
+            case StrictJsonScanner.ARRAY_FIRST:
+            case StrictJsonScanner.OBJECT_FIRST:
+                // 数组中的空容器修复时会被丢弃，所以要等到出现子元素
+                if (depth == 1 || scanner.isObject(depth - 2)) {
+                    commit(staged.length(), scanned + 1, false, false, depth);
+                }
+                break;
+            case StrictJsonScanner.ARRAY_NEXT:
+            case StrictJsonScanner.OBJECT_NEXT:
+            case StrictJsonScanner.AFTER_ROOT:
+                commit(staged.length(), scanned + 1, true, false, depth);
+                break;
+            case StrictJsonScanner.STRING:
+                // 数组中的空字符串同样会被丢弃
+                if (!scanner.isKeyString() && !(stringOpened && !scanner.isObject(depth - 1))) {
+                    commit(staged.length(), scanned + 1, false, true, depth);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void commit(int stagedEnd, int end, boolean afterValue, boolean inString, int depth) {
+        committed.append(staged, 0, stagedEnd);
+        staged.delete(0, stagedEnd);
+        pendingStart = end;
+        committedAfterValue = afterValue;
+        committedInString = inString;
+        committedDepth = depth;
+        rootDone = scanner.getState() == StrictJsonScanner.AFTER_ROOT;
+        valueEndStaged = -1;
+        if (!inString) {
+            structuralLength = committed.length();
+            structuralStart = end;
+            structuralAfterValue = afterValue;
+            structuralDepth = depth;
+        }
+    }
+
+    private void stop() {
+        stopped = true;
+        staged.setLength(0);
+        if (committedInString) {
+            // 尾部不能从字符串中间开始解析，回退到字符串之前
+            committed.setLength(structuralLength);
+            pendingStart = structuralStart;
+            committedAfterValue = structuralAfterValue;
+            committedDepth = structuralDepth;
+            committedInString = false;
+        }
+    }
+}
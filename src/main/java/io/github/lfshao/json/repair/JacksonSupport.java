@@ -0,0 +1,47 @@
+package io.github.lfshao.json.repair;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.lfshao.json.repair.core.JsonValidator;
+
+import java.io.IOException;
+
+/**
+ * 与Jackson的集成，把修复结果绑定到Java对象
+ * 只有调用绑定相关的方法时才会加载这个类和Jackson，其余的修复方法不依赖Jackson
+ */
+final class JacksonSupport {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    static {
+        objectMapper.configure(DeserializationFeature.FAIL_ON_TRAILING_TOKENS, true);
+    }
+
+    private JacksonSupport() {
+    }
+
+    /**
+     * 创建读取修复结果的解析器：合法的输入直接由Jackson解析，不合法的输入修复为token缓冲区
+     */
+    static JsonParser createParser(RepairEngine engine, String jsonStr) throws IOException {
+        if (jsonStr != null && JsonValidator.validate(jsonStr) == JsonValidator.VALID) {
+            return objectMapper.getFactory().createParser(jsonStr);
+        }
+        TokenBufferHandler handler = new TokenBufferHandler(objectMapper);
+        if (jsonStr != null && !jsonStr.isEmpty()) {
+            engine.parse(jsonStr, new HandlerSink(handler));
+        }
+        return handler.asParser();
+    }
+
+    /**
+     * 修复并绑定为指定类型的对象
+     */
+    static <T> T readValue(RepairEngine engine, String jsonStr, Class<T> type) throws IOException {
+        try (JsonParser parser = createParser(engine, jsonStr)) {
+            return objectMapper.readValue(parser, type);
+        }
+    }
+}
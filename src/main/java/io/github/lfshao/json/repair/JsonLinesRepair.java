@@ -0,0 +1,321 @@
+package io.github.lfshao.json.repair;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * JSON Lines（NDJSON）修复器
+ * 按行读取输入，每一行作为一条记录单独修复，修复后的记录按输入的顺序逐行写出。
+ * <p>
+ * 输入按行边界切分成批次提交给executor并行修复，同时最多有MAX_PENDING_PER_CPU * CPU核数个批次未写出，
+ * 超过时先等待最早的批次完成并写出，因此内存占用与批次大小有关，与输入大小无关。
+ * 修复结果为空的记录（例如空行）不会输出。
+ * <p>
+ * 续行模式下，第一个非空白字符不是 { 的行无法单独构成对象，会连同换行符追加到上一条记录之后一起修复，
+ * 适用于记录都是对象、但个别记录中的字符串包含未转义换行符的文件；输入的第一行总是开始一条新的记录。
+ * 批次只在以 { 开始的行之前切分，因此结果与批次的划分无关。
+ * <p>
+ * 实例不可变，可以被多个线程共享
+ */
+public final class JsonLinesRepair {
+
+    // 每个批次的最大行数
+    static final int BATCH_LINES = 1024;
+    // 每个批次的目标字符数（内存映射时为字节数），单条记录超过时独占一个批次
+    static final int BATCH_CHARS = 1 << 20;
+    // 每个CPU最多未写出的批次数
+    private static final int MAX_PENDING_PER_CPU = 2;
+
+    private final RepairEngine engine;
+    private final Executor executor;
+    private final boolean joinContinuations;
+
+    /**
+     * 创建在ForkJoinPool.commonPool()中修复、不合并续行的修复器
+     */
+    public JsonLinesRepair() {
+        this(false);
+    }
+
+    /**
+     * @param joinContinuations 是否把无法构成对象的行作为上一条记录的续行
+     */
+    public JsonLinesRepair(boolean joinContinuations) {
+        this(new RepairEngine(), ForkJoinPool.commonPool(), joinContinuations);
+    }
+
+    /**
+     * @param engine            修复每条记录使用的引擎
+     * @param executor          执行修复任务的线程池
+     * @param joinContinuations 是否把无法构成对象的行作为上一条记录的续行
+     */
+    public JsonLinesRepair(RepairEngine engine, Executor executor, boolean joinContinuations) {
+        this.engine = engine;
+        this.executor = executor;
+        this.joinContinuations = joinContinuations;
+    }
+
+    /**
+     * 修复从reader读取的JSON Lines，并将结果逐行写入out
+     * 读取在调用线程上进行，reader不会被关闭
+     *
+     * @param reader 输入，按 \n、\r 或 \r\n 分行
+     * @param out    输出目标，每条记录之后写入 \n
+     * @throws IOException 读取reader或写入out失败
+     */
+    public void repair(Reader reader, Appendable out) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader
+                ? (BufferedReader) reader : new BufferedReader(reader, 1 << 16);
+        Pipeline pipeline = new Pipeline(out);
+        try {
+            StringBuilder batch = new StringBuilder();
+            int batchLines = 0;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if ((batchLines >= BATCH_LINES || batch.length() >= BATCH_CHARS)
+                        && (!joinContinuations || startsObject(line, 0, line.length()))) {
+                    pipeline.submit(batch.toString());
+                    batch.setLength(0);
+                    batchLines = 0;
+                }
+                batch.append(line).append('\n');
+                batchLines++;
+            }
+            if (batch.length() > 0) {
+                pipeline.submit(batch.toString());
+            }
+            pipeline.finish();
+        } finally {
+            pipeline.cancel();
+        }
+    }
+
+    /**
+     * 修复从输入流读取的UTF-8编码的JSON Lines，并将结果以UTF-8编码逐行写入输出流
+     * 输入流和输出流都不会被关闭，返回前会刷新输出流
+     *
+     * @param in  输入
+     * @param out 输出
+     * @throws IOException 读取in或写入out失败
+     */
+    public void repair(InputStream in, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        repair(new InputStreamReader(in, StandardCharsets.UTF_8), writer);
+        writer.flush();
+    }
+
+    /**
+     * 修复UTF-8编码的JSON Lines文件，并将结果以UTF-8编码写入target（已存在时覆盖）
+     * 文件通过内存映射按区域读取，只在行结束符处切分批次，每个批次的字节由修复它的工作线程解码，
+     * 输出经过直接缓冲区写入target，因此文件的大小不受堆大小的限制
+     *
+     * @param source 输入文件
+     * @param target 输出文件
+     * @throws IOException 读写文件失败
+     */
+    public void repair(Path source, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+             ChannelWriter out = new ChannelWriter(channel)) {
+            Pipeline pipeline = new Pipeline(out);
+            try {
+                long size = in.size();
+                long start = 0;
+                while (start < size) {
+                    MappedByteBuffer region = in.map(FileChannel.MapMode.READ_ONLY, start,
+                            Math.min(MappedFileReader.REGION_BYTES, size - start));
+                    boolean last = start + region.limit() == size;
+                    int from = 0;
+                    while (from < region.limit()) {
+                        int to = nextCut(region, from + BATCH_CHARS);
+                        if (to < 0) {
+                            if (!last) {
+                                // 剩余部分从下一个区域开始
+                                break;
+                            }
+                            to = region.limit();
+                        }
+                        pipeline.submit(slice(region, from, to));
+                        from = to;
+                    }
+                    if (from == 0) {
+                        throw new IOException("A record at byte " + start + " is longer than "
+                                + MappedFileReader.REGION_BYTES + " bytes");
+                    }
+                    start += from;
+                }
+                pipeline.finish();
+            } finally {
+                pipeline.cancel();
+            }
+        }
+    }
+
+    /**
+     * 查找target之后第一个可以切分批次的位置，即一个行结束符（\n、\r 或 \r\n）之后的位置，\r\n 不会被分开
+     * 续行模式下行结束符之后的行还必须以 { 开始（之前可以有ASCII空白）
+     *
+     * @return 切分的位置；区域内没有可以确认的位置时返回-1
+     */
+    int nextCut(MappedByteBuffer region, int target) {
+        int limit = region.limit();
+        for (int i = Math.max(target - 1, 0); i < limit; i++) {
+            byte b = region.get(i);
+            if (b == '\r') {
+                if (i + 1 == limit) {
+                    // 之后可能是下一个区域开头的 \n
+                    return -1;
+                }
+                if (region.get(i + 1) == '\n') {
+                    // 在 \n 之后切分
+                    continue;
+                }
+            } else if (b != '\n') {
+                continue;
+            }
+            if (!joinContinuations) {
+                return i + 1;
+            }
+            int j = i + 1;
+            while (j < limit && isLineSpace(region.get(j))) {
+                j++;
+            }
+            if (j == limit) {
+                // 下一行的开头不在这个区域中，无法判断
+                return -1;
+            }
+            if (region.get(j) == '{') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 是否是行内的ASCII空白，与按字符判断时的Character.isWhitespace一致
+     */
+    private static boolean isLineSpace(byte b) {
+        return b >= 0 && b != '\n' && b != '\r' && Character.isWhitespace((char) b);
+    }
+
+    private static MappedByteBuffer slice(MappedByteBuffer region, int from, int to) {
+        MappedByteBuffer duplicate = (MappedByteBuffer) region.duplicate();
+        duplicate.limit(to);
+        duplicate.position(from);
+        return duplicate;
+    }
+
+    /**
+     * 修复一个批次中的所有行，每条非空的结果之后加上换行符
+     */
+    private String repairLines(String text) {
+        StringBuilder out = new StringBuilder(text.length() + 16);
+        // 续行模式下尚未结束的记录，其中的行统一以 \n 连接
+        StringBuilder record = new StringBuilder();
+        boolean hasRecord = false;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int end = i;
+            while (end < length && text.charAt(end) != '\n' && text.charAt(end) != '\r') {
+                end++;
+            }
+            if (!joinContinuations) {
+                append(out, text.substring(i, end));
+            } else if (hasRecord && !startsObject(text, i, end)) {
+                record.append('\n').append(text, i, end);
+            } else {
+                if (hasRecord) {
+                    append(out, record.toString());
+                }
+                record.setLength(0);
+                record.append(text, i, end);
+                hasRecord = true;
+            }
+            i = end + 1;
+            if (end < length && text.charAt(end) == '\r' && i < length && text.charAt(i) == '\n') {
+                i++;
+            }
+        }
+        if (hasRecord) {
+            append(out, record.toString());
+        }
+        return out.toString();
+    }
+
+    private void append(StringBuilder out, String record) {
+        String repaired = engine.repair(record);
+        if (!repaired.isEmpty()) {
+            out.append(repaired).append('\n');
+        }
+    }
+
+    /**
+     * 第一个非空白字符是否是 {
+     */
+    private static boolean startsObject(CharSequence line, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c == '{';
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 提交批次并按顺序写出结果，未写出的批次过多时等待最早的批次
+     */
+    private class Pipeline {
+
+        private final Appendable out;
+        private final int maxPending = Math.max(1, Runtime.getRuntime().availableProcessors() * MAX_PENDING_PER_CPU);
+        private final Deque<CompletableFuture<String>> pending = new ArrayDeque<>();
+
+        Pipeline(Appendable out) {
+            this.out = out;
+        }
+
+        void submit(String text) throws IOException {
+            reserve();
+            pending.add(CompletableFuture.supplyAsync(() -> repairLines(text), executor));
+        }
+
+        void submit(MappedByteBuffer bytes) throws IOException {
+            reserve();
+            pending.add(CompletableFuture.supplyAsync(
+                    () -> repairLines(StandardCharsets.UTF_8.decode(bytes).toString()), executor));
+        }
+
+        private void reserve() throws IOException {
+            if (pending.size() >= maxPending) {
+                out.append(RepairEngine.join(pending.poll()));
+            }
+        }
+
+        void finish() throws IOException {
+            while (!pending.isEmpty()) {
+                out.append(RepairEngine.join(pending.poll()));
+            }
+        }
+
+        /**
+         * 出错时不再需要尚未写出的批次
+         */
+        void cancel() {
+            for (CompletableFuture<String> future : pending) {
+                future.cancel(false);
+            }
+        }
+    }
+}
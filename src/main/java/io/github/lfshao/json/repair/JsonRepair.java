@@ -1,9 +1,20 @@
 package io.github.lfshao.json.repair;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.lfshao.json.repair.core.JsonParser;
+import io.github.lfshao.json.repair.core.JsonValidator;
+import io.github.lfshao.json.repair.core.JsonWriter;
+import io.github.lfshao.json.repair.core.ReaderCharSource;
+import io.github.lfshao.json.repair.core.StrictJsonScanner;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 /**
  * JSON修复工具的主入口类
@@ -11,43 +22,279 @@ import io.github.lfshao.json.repair.core.JsonParser;
  */
 public class JsonRepair {
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    // 静态方法共用的修复引擎
+    private static final RepairEngine ENGINE = new RepairEngine();
 
-    static {
-        objectMapper.configure(DeserializationFeature.FAIL_ON_TRAILING_TOKENS, true);
+    /**
+     * 修复格式不正确的JSON字符串
+     *
+     * @param jsonStr 需要修复的JSON字符串
+     * @return 修复后的有效JSON字符串
+     */
+    public static String repair(String jsonStr) {
+        return ENGINE.repair(jsonStr);
     }
 
     /**
      * 修复格式不正确的JSON字符串
      *
+     * @param jsonStr        需要修复的JSON字符串
+     * @param keepValidInput 为true时，符合RFC 8259的输入原样返回，不做任何格式化；
+     *                       此时空白、数字写法和重复的键都保持原样
+     * @return 修复后的有效JSON字符串
+     */
+    public static String repair(String jsonStr, boolean keepValidInput) {
+        if (keepValidInput && jsonStr != null && JsonValidator.validate(jsonStr) == JsonValidator.VALID) {
+            return jsonStr;
+        }
+        return repair(jsonStr);
+    }
+
+    /**
+     * 修复只在末尾损坏的JSON字符串，例如被截断或在结尾附近有个别错误的LLM输出
+     * 从头严格扫描输入，第一个错误之前已经确认的部分去掉空白后原样复制到结果中，
+     * 只有之后的尾部交给修复解析器，并从当时打开的容器继续解析，因此修复的开销与损坏的尾部相关，而不是与整个输入的长度相关。
+     * <p>
+     * 结果与IncrementalJsonRepair一次接收全部输入时相同，与repair(String)的区别在于：
+     * 合法的部分保持原文，例如数字的写法和字符串中的转义不会被改写，对象中重复的键也会保留。
+     * 根元素不是对象或数组，或者根元素结束之后还有其他内容时，按repair(String)处理。
+     *
      * @param jsonStr 需要修复的JSON字符串
      * @return 修复后的有效JSON字符串
      */
-    public static String repair(String jsonStr) {
+    public static String repairTail(String jsonStr) {
         if (jsonStr == null || jsonStr.isEmpty()) {
             return "";
         }
+        int start = 0;
+        while (start < jsonStr.length() && StrictJsonScanner.isWhitespace(jsonStr.charAt(start))) {
+            start++;
+        }
+        if (start == jsonStr.length() || (jsonStr.charAt(start) != '{' && jsonStr.charAt(start) != '[')) {
+            return repair(jsonStr);
+        }
+        String repaired = new IncrementalJsonRepair().feed(jsonStr).finish();
+        return repaired != null ? repaired : repair(jsonStr);
+    }
 
-        JsonParser parser = new JsonParser(jsonStr, false, false);
+    /**
+     * 修复格式不正确的JSON字符串，并将结果直接写入out
+     * 修复过程中不构建中间对象树，内存占用取决于嵌套深度，而不是文档大小
+     *
+     * @param jsonStr 需要修复的JSON字符串
+     * @param out     输出目标
+     * @throws IOException 写入out失败
+     */
+    public static void repair(String jsonStr, Appendable out) throws IOException {
+        ENGINE.repair(jsonStr, out);
+    }
 
-        // 首先尝试使用标准JSON解析器
+    /**
+     * 修复从reader读取的JSON，并将结果直接写入out
+     * 输入不超过ReaderCharSource.DEFAULT_WINDOW的一半时，读入后按repair(String, Appendable)处理；
+     * 更大的输入通过滑动窗口边读边修复，内存占用由窗口大小和嵌套深度决定，与输入大小无关。
+     * 此时向前查看的范围限制在窗口之内，并且合法的输入同样由修复解析器输出。
+     * reader不会被关闭
+     *
+     * @param reader 输入
+     * @param out    输出目标
+     * @throws IOException 读取reader或写入out失败
+     */
+    public static void repair(Reader reader, Appendable out) throws IOException {
+        int limit = ReaderCharSource.DEFAULT_WINDOW / 2;
+        BufferedReader buffered = new BufferedReader(reader, limit + 1);
+        buffered.mark(limit + 1);
+        char[] head = new char[limit + 1];
+        int length = 0;
+        int n;
+        while (length < head.length && (n = buffered.read(head, length, head.length - length)) >= 0) {
+            length += n;
+        }
+        if (length <= limit) {
+            repair(new String(head, 0, length), out);
+            return;
+        }
+        buffered.reset();
+
+        JsonParser parser = new JsonParser(new ReaderCharSource(buffered), false, false);
         try {
-            Object parsed = objectMapper.readValue(jsonStr, Object.class);
-            return objectMapper.writeValueAsString(parsed);
-        } catch (JsonProcessingException e) {
-            // 标准解析失败，使用修复解析器
-            Object parsed = parser.parse();
-
-            if (parsed == null || "".equals(parsed)) {
-                return "";
-            }
+            parser.parse(new JsonWriter(out));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 修复格式不正确的JSON字符串，并将结果以UTF-8编码直接写入out，不生成中间的String
+     * 结果与repair(String).getBytes(UTF_8)相同。out不会被刷新或关闭
+     *
+     * @param jsonStr 需要修复的JSON字符串
+     * @param out     输出目标
+     * @throws IOException 写入out失败
+     */
+    public static void repair(String jsonStr, OutputStream out) throws IOException {
+        ENGINE.repair(jsonStr, out);
+    }
+
+    /**
+     * 修复格式不正确的JSON字符串，并将结果以UTF-8编码从target的position开始写入，完成后position移到写入的内容之后
+     * target可以是直接缓冲区
+     *
+     * @param jsonStr 需要修复的JSON字符串
+     * @param target  输出目标
+     * @throws java.nio.BufferOverflowException target的剩余空间不足，此时position保持不变
+     */
+    public static void repair(String jsonStr, ByteBuffer target) {
+        ENGINE.repair(jsonStr, target);
+    }
+
+    /**
+     * 修复以UTF-8编码的JSON，结果与repair(new String(utf8, UTF_8))相同，不生成中间的String
+     *
+     * @param utf8 需要修复的JSON，以UTF-8编码
+     * @return 修复后的有效JSON字符串
+     */
+    public static String repair(byte[] utf8) {
+        return ENGINE.repair(utf8);
+    }
+
+    /**
+     * 修复utf8中position到limit之间以UTF-8编码的JSON，完成后position移到limit
+     *
+     * @param utf8 需要修复的JSON，以UTF-8编码，可以是直接缓冲区
+     * @return 修复后的有效JSON字符串
+     */
+    public static String repair(ByteBuffer utf8) {
+        return ENGINE.repair(utf8);
+    }
+
+    /**
+     * 修复以UTF-8编码的JSON，并将结果以UTF-8编码直接写入out，输入和输出都不经过String。out不会被刷新或关闭
+     *
+     * @param utf8 需要修复的JSON，以UTF-8编码
+     * @param out  输出目标
+     * @throws IOException 写入out失败
+     */
+    public static void repair(byte[] utf8, OutputStream out) throws IOException {
+        ENGINE.repair(utf8, out);
+    }
+
+    /**
+     * 修复utf8中以UTF-8编码的JSON，并将结果以UTF-8编码从target的position开始写入
+     * 完成后utf8的position移到limit，target的position移到写入的内容之后
+     *
+     * @param utf8   需要修复的JSON，以UTF-8编码，可以是直接缓冲区
+     * @param target 输出目标，可以是直接缓冲区
+     * @throws java.nio.BufferOverflowException target的剩余空间不足，此时两个缓冲区的position都保持不变
+     */
+    public static void repair(ByteBuffer utf8, ByteBuffer target) {
+        ENGINE.repair(utf8, target);
+    }
+
+    /**
+     * 修复格式不正确的JSON字符串，并将结果以事件的形式交给handler，不构建对象树
+     *
+     * @param jsonStr 需要修复的JSON字符串
+     * @param handler 事件处理器
+     */
+    public static void repair(String jsonStr, JsonRepairHandler handler) {
+        ENGINE.repair(jsonStr, handler);
+    }
+
+    /**
+     * 修复格式不正确的JSON字符串，并直接绑定为指定类型的对象，不经过修复后的JSON文本
+     * 使用Jackson完成绑定，需要classpath中有jackson-databind
+     *
+     * @param jsonStr 需要修复的JSON字符串
+     * @param type    目标类型
+     * @return 绑定后的对象
+     * @throws IOException 修复结果无法绑定到目标类型，或者没有任何内容
+     */
+    public static <T> T repair(String jsonStr, Class<T> type) throws IOException {
+        return ENGINE.repair(jsonStr, type);
+    }
 
-            try {
-                return objectMapper.writeValueAsString(parsed);
-            } catch (JsonProcessingException ex) {
-                // 如果还是无法序列化，返回原字符串
-                return jsonStr;
+    /**
+     * 修复从reader读取的JSON，并将结果以事件的形式交给handler
+     * 输入总是通过滑动窗口边读边修复，很大的顶层数组的事件在解析时立即发出，内存占用与输入大小无关；
+     * 向前查看的范围限制在窗口之内，并且合法的输入同样由修复解析器处理。reader不会被关闭
+     *
+     * @param reader  输入
+     * @param handler 事件处理器
+     * @throws IOException 读取reader失败，或者handler抛出了UncheckedIOException
+     */
+    public static void repair(Reader reader, JsonRepairHandler handler) throws IOException {
+        JsonParser parser = new JsonParser(new ReaderCharSource(reader), false, false);
+        try {
+            parser.parse(new HandlerSink(handler));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 修复从输入流读取的UTF-8编码的JSON，并将结果直接写入out
+     * 处理方式与repair(Reader, Appendable)相同，输入流不会被关闭
+     *
+     * @param in  输入
+     * @param out 输出目标
+     * @throws IOException 读取in或写入out失败
+     */
+    public static void repair(InputStream in, Appendable out) throws IOException {
+        repair(new InputStreamReader(in, StandardCharsets.UTF_8), out);
+    }
+
+    /**
+     * 修复UTF-8编码的JSON文件，并将结果以UTF-8编码写入target（已存在时覆盖）
+     * 文件通过内存映射按区域读取并解码，之后的处理方式与repair(Reader, Appendable)相同，
+     * 输出经过直接缓冲区写入target，因此文件内容不会整个读入堆中。
+     * 解析器以int表示位置，单个文档不能超过Integer.MAX_VALUE个字节；更大的JSON Lines文件请使用JsonLinesRepair
+     *
+     * @param source 输入文件
+     * @param target 输出文件
+     * @throws IOException 读写文件失败
+     */
+    public static void repair(Path source, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            if (in.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("File is larger than " + Integer.MAX_VALUE + " bytes: " + source);
+            }
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+                 ChannelWriter out = new ChannelWriter(channel)) {
+                repair(new MappedFileReader(in), out);
             }
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 并行修复一批JSON字符串，结果的顺序与输入相同，详见RepairEngine.repairAll(List)
+     *
+     * @param inputs 需要修复的JSON字符串
+     * @return 修复后的JSON字符串，与inputs一一对应
+     */
+    public static List<String> repairAll(List<String> inputs) {
+        return ENGINE.repairAll(inputs);
+    }
+
+    /**
+     * 并行修复一批JSON字符串，结果的顺序与流中元素的顺序相同，详见RepairEngine.repairAll(Stream)
+     *
+     * @param inputs 需要修复的JSON字符串
+     * @return 修复后的JSON字符串
+     */
+    public static List<String> repairAll(Stream<String> inputs) {
+        return ENGINE.repairAll(inputs);
+    }
+
+    /**
+     * 在executor中并行修复一批JSON字符串，结果的顺序与输入相同，详见RepairEngine.repairAll(List, Executor)
+     *
+     * @param inputs   需要修复的JSON字符串
+     * @param executor 执行修复任务的线程池
+     * @return 修复后的JSON字符串，与inputs一一对应
+     */
+    public static List<String> repairAll(List<String> inputs, Executor executor) {
+        return ENGINE.repairAll(inputs, executor);
+    }
+}
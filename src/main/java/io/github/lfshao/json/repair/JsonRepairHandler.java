@@ -0,0 +1,35 @@
+package io.github.lfshao.json.repair;
+
+/**
+ * 修复结果的事件处理器
+ * 修复解析器按顺序产生的事件直接交给处理器，不构建对象树，适合只需要部分字段或者要转换为自己的模型的调用方。
+ * <p>
+ * 第一个顶层元素不超过约64K个字符时会先缓存，以便和之后的顶层元素合并为数组，然后再依次回放；
+ * 更大的顶层元素（例如很大的顶层数组）的事件在解析时立即发出，内存占用与元素大小无关。
+ * <p>
+ * TreeHandler和WriterHandler分别把事件还原为对象树和JSON文本，从字符串修复时WriterHandler写出的JSON与repair(String, Appendable)相同
+ */
+public interface JsonRepairHandler {
+
+    void startObject();
+
+    void endObject();
+
+    void startArray();
+
+    void endArray();
+
+    /**
+     * 对象的键，后面紧跟着对应的值
+     *
+     * @param key 键
+     */
+    void key(String key);
+
+    /**
+     * 标量值
+     *
+     * @param value String、Number、Boolean或null
+     */
+    void value(Object value);
+}
@@ -0,0 +1,75 @@
+package io.github.lfshao.json.repair;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 通过内存映射按顺序读取UTF-8编码的文件
+ * 每次只映射文件的一个区域，读完后映射下一个区域，文件内容不经过堆上的字节缓冲区；
+ * 无效的字节序列替换为U+FFFD，与InputStreamReader相同。channel不会被关闭
+ */
+final class MappedFileReader extends Reader {
+
+    // 每次映射的最大字节数
+    static final int REGION_BYTES = 1 << 30;
+    // UTF-8编码一个字符的最大字节数
+    private static final int MAX_SEQUENCE = 4;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int regionBytes;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private MappedByteBuffer region;
+    // region[0]对应的文件位置
+    private long regionStart;
+    private boolean done;
+
+    MappedFileReader(FileChannel channel) throws IOException {
+        this(channel, REGION_BYTES);
+    }
+
+    /**
+     * @param regionBytes 每次映射的最大字节数，至少为MAX_SEQUENCE
+     */
+    MappedFileReader(FileChannel channel, int regionBytes) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.regionBytes = Math.max(regionBytes, MAX_SEQUENCE);
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+        while (!done && out.position() == off) {
+            if (region == null || region.remaining() < MAX_SEQUENCE && regionStart + region.limit() < size) {
+                // 剩余的字节可能是被区域边界截断的字符，从这里开始映射下一个区域
+                long start = region == null ? 0 : regionStart + region.position();
+                region = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(regionBytes, size - start));
+                regionStart = start;
+            }
+            boolean endOfInput = regionStart + region.limit() == size;
+            decoder.decode(region, out, endOfInput);
+            if (endOfInput && !region.hasRemaining()) {
+                decoder.flush(out);
+                done = true;
+            }
+        }
+        return out.position() == off ? -1 : out.position() - off;
+    }
+
+    @Override
+    public void close() {
+        region = null;
+    }
+}
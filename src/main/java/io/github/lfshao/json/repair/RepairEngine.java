@@ -0,0 +1,487 @@
+package io.github.lfshao.json.repair;
+
+import io.github.lfshao.json.repair.core.CharArraySource;
+import io.github.lfshao.json.repair.core.JsonParser;
+import io.github.lfshao.json.repair.core.JsonSink;
+import io.github.lfshao.json.repair.core.JsonValidator;
+import io.github.lfshao.json.repair.core.JsonWriter;
+import io.github.lfshao.json.repair.core.KeyTable;
+import io.github.lfshao.json.repair.core.StrictJsonReader;
+import io.github.lfshao.json.repair.core.TreeBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 可复用的JSON修复引擎
+ * 引擎本身不可变，可以被多个线程共享。每个线程第一次使用时创建自己的解析状态，包括输入的字符数组、上下文栈和字符串缓冲区，
+ * 之后在该线程上的修复都复用这些状态，不再为每次调用重新分配。
+ * 超过POOLED_LIMIT个字符的输入使用一次性的解析状态，避免线程长期持有大的缓冲区。
+ * <p>
+ * JsonRepair的静态方法使用一个共享的引擎，高频调用时也可以自行创建并长期持有一个引擎
+ * <p>
+ * 迭代模式下嵌套的容器保存在堆上的栈中，调用栈的深度与输入的嵌套深度无关，适合调用栈较小的线程（例如虚拟线程）
+ * 或者可能遇到恶意深层嵌套的输入；修复结果与默认的递归模式相同
+ * <p>
+ * 修复和序列化不依赖Jackson，只有绑定到Java对象的repair(String, Class)和RepairingJsonFactory需要classpath中有jackson-databind
+ */
+public final class RepairEngine {
+
+    // 复用解析状态的最大输入长度（字符数）
+    static final int POOLED_LIMIT = 1 << 16;
+    // repairAll使用Executor时每个CPU分配的批次数，批次多一些可以平衡长短不一的输入
+    private static final int BATCHES_PER_CPU = 4;
+
+    private final boolean iterative;
+    private final KeyTable keyTable;
+    private final ThreadLocal<Workspace> workspaces;
+
+    /**
+     * 创建使用递归模式的引擎
+     */
+    public RepairEngine() {
+        this(false);
+    }
+
+    /**
+     * @param iterative 是否迭代地解析嵌套的容器
+     */
+    public RepairEngine(boolean iterative) {
+        this(iterative, null);
+    }
+
+    /**
+     * @param iterative 是否迭代地解析嵌套的容器
+     * @param keyTable  对象键的驻留表，引擎的所有线程共享，为null时不驻留
+     */
+    public RepairEngine(boolean iterative, KeyTable keyTable) {
+        this.iterative = iterative;
+        this.keyTable = keyTable;
+        this.workspaces = ThreadLocal.withInitial(() -> new Workspace("", iterative, keyTable));
+    }
+
+    public boolean isIterative() {
+        return iterative;
+    }
+
+    public KeyTable getKeyTable() {
+        return keyTable;
+    }
+
+    /**
+     * 修复格式不正确的JSON字符串，返回修复后的对象树，不经过序列化
+     * 对象为Map，数组为List，标量为String、Number、Boolean或null；没有任何内容时返回空字符串。
+     * 合法的输入同样由修复解析器解析，设置了驻留表时对象树中相同的键共享同一个实例
+     *
+     * @param jsonStr 需要修复的JSON字符串
+     * @return 修复后的对象树
+     */
+    public Object parse(String jsonStr) {
+        if (jsonStr == null || jsonStr.isEmpty()) {
+            return "";
+        }
+        Workspace workspace = acquire(jsonStr);
+        try {
+            return workspace.parser.parse();
+        } finally {
+            release(workspace);
+        }
+    }
+
+    /**
+     * 修复格式不正确的JSON字符串，结果与JsonRepair.repair(String)相同
+     *
+     * @param jsonStr 需要修复的JSON字符串
+     * @return 修复后的有效JSON字符串
+     */
+    public String repair(String jsonStr) {
+        if (jsonStr == null || jsonStr.isEmpty()) {
+            return "";
+        }
+
+        // 合法的JSON逐个token复制，不合法的直接修复
+        if (JsonValidator.validate(jsonStr) == JsonValidator.VALID) {
+            StringBuilder sb = new StringBuilder(jsonStr.length());
+            if (StrictJsonReader.read(jsonStr, new JsonWriter(sb), true)) {
+                return sb.toString();
+            }
+            // 包含重复的键，通过对象树保留最后一个值
+            sb.setLength(0);
+            replayValid(jsonStr, new JsonWriter(sb), true);
+            return sb.toString();
+        }
+
+        Workspace workspace = acquire(jsonStr);
+        Object parsed;
+        try {
+            parsed = workspace.parser.parse();
+        } finally {
+            release(workspace);
+        }
+
+        if (parsed == null || "".equals(parsed)) {
+            return "";
+        }
+
+        StringBuilder sb = new StringBuilder(jsonStr.length());
+        TreeBuilder.replay(parsed, new JsonWriter(sb));
+        return sb.toString();
+    }
+
+    /**
+     * 修复格式不正确的JSON字符串，并将结果直接写入out，结果与JsonRepair.repair(String, Appendable)相同
+     *
+     * @param jsonStr 需要修复的JSON字符串
+     * @param out     输出目标
+     * @throws IOException 写入out失败
+     */
+    public void repair(String jsonStr, Appendable out) throws IOException {
+        if (jsonStr == null || jsonStr.isEmpty()) {
+            return;
+        }
+
+        try {
+            // 合法JSON直接逐个token复制
+            if (JsonValidator.validate(jsonStr) == JsonValidator.VALID) {
+                replayValid(jsonStr, new JsonWriter(out), StrictJsonReader.hasDuplicateKeys(jsonStr));
+                return;
+            }
+            parse(jsonStr, new JsonWriter(out));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 修复格式不正确的JSON字符串，并将结果以UTF-8编码直接写入out，不生成中间的String
+     * 结果与repair(String).getBytes(UTF_8)相同。out不会被刷新或关闭
+     *
+     * @param jsonStr 需要修复的JSON字符串
+     * @param out     输出目标
+     * @throws IOException 写入out失败
+     */
+    public void repair(String jsonStr, OutputStream out) throws IOException {
+        Utf8Output utf8 = new Utf8Output(out);
+        repair(jsonStr, utf8);
+        utf8.finish();
+    }
+
+    /**
+     * 修复格式不正确的JSON字符串，并将结果以UTF-8编码从target的position开始写入，完成后position移到写入的内容之后
+     * target可以是直接缓冲区；堆缓冲区会直接写入它的底层数组
+     *
+     * @param jsonStr 需要修复的JSON字符串
+     * @param target  输出目标
+     * @throws BufferOverflowException target的剩余空间不足，此时position保持不变
+     */
+    public void repair(String jsonStr, ByteBuffer target) {
+        int position = target.position();
+        try {
+            Utf8Output utf8 = new Utf8Output(target);
+            repair(jsonStr, utf8);
+            utf8.finish();
+        } catch (BufferOverflowException e) {
+            ((Buffer) target).position(position);
+            throw e;
+        } catch (IOException e) {
+            // 写入ByteBuffer不会发生
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 修复以UTF-8编码的JSON，结果与repair(new String(utf8, UTF_8))相同
+     * 字节直接解码到当前线程复用的字符数组中，不生成中间的String
+     *
+     * @param utf8 需要修复的JSON，以UTF-8编码
+     * @return 修复后的有效JSON字符串
+     */
+    public String repair(byte[] utf8) {
+        if (utf8 == null) {
+            return "";
+        }
+        return repair(ByteBuffer.wrap(utf8));
+    }
+
+    /**
+     * 修复utf8中position到limit之间以UTF-8编码的JSON，完成后position移到limit
+     * 结果与先把剩余的字节解码为String再修复相同
+     *
+     * @param utf8 需要修复的JSON，以UTF-8编码，可以是直接缓冲区
+     * @return 修复后的有效JSON字符串
+     */
+    public String repair(ByteBuffer utf8) {
+        StringBuilder sb = new StringBuilder(utf8.remaining());
+        repairDecoded(utf8, new JsonWriter(sb));
+        return sb.toString();
+    }
+
+    /**
+     * 修复以UTF-8编码的JSON，并将结果以UTF-8编码直接写入out，输入和输出都不经过String
+     * 结果与repair(new String(utf8, UTF_8)).getBytes(UTF_8)相同。out不会被刷新或关闭
+     *
+     * @param utf8 需要修复的JSON，以UTF-8编码
+     * @param out  输出目标
+     * @throws IOException 写入out失败
+     */
+    public void repair(byte[] utf8, OutputStream out) throws IOException {
+        if (utf8 == null) {
+            return;
+        }
+        Utf8Output output = new Utf8Output(out);
+        try {
+            repairDecoded(ByteBuffer.wrap(utf8), new JsonWriter(output));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        output.finish();
+    }
+
+    /**
+     * 修复utf8中position到limit之间以UTF-8编码的JSON，并将结果以UTF-8编码从target的position开始写入
+     * 完成后utf8的position移到limit，target的position移到写入的内容之后
+     *
+     * @param utf8   需要修复的JSON，以UTF-8编码，可以是直接缓冲区
+     * @param target 输出目标，可以是直接缓冲区
+     * @throws BufferOverflowException target的剩余空间不足，此时两个缓冲区的position都保持不变
+     */
+    public void repair(ByteBuffer utf8, ByteBuffer target) {
+        int inputPosition = utf8.position();
+        int position = target.position();
+        try {
+            Utf8Output output = new Utf8Output(target);
+            repairDecoded(utf8, new JsonWriter(output));
+            output.finish();
+        } catch (BufferOverflowException e) {
+            ((Buffer) utf8).position(inputPosition);
+            ((Buffer) target).position(position);
+            throw e;
+        } catch (IOException e) {
+            // 写入ByteBuffer不会发生
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 把utf8的剩余内容解码到当前线程的解析状态中修复，并将结果以事件的形式交给sink，完成后utf8的position移到limit
+     * 合法的输入同样直接在解码后的字符数组上逐个token复制
+     */
+    private void repairDecoded(ByteBuffer utf8, JsonSink sink) {
+        if (!utf8.hasRemaining()) {
+            return;
+        }
+        Workspace workspace = acquire(utf8);
+        try {
+            CharSequence json = workspace.source.contents();
+            if (JsonValidator.validate(json) == JsonValidator.VALID) {
+                replayValid(json, sink, StrictJsonReader.hasDuplicateKeys(json));
+            } else {
+                workspace.parser.parse(sink);
+            }
+        } finally {
+            release(workspace);
+        }
+        ((Buffer) utf8).position(utf8.limit());
+    }
+
+    /**
+     * 修复格式不正确的JSON字符串，并将结果以事件的形式交给handler，不构建对象树
+     * 事件序列与repair(String, Appendable)写出的JSON一致：合法的输入逐个token转换为事件
+     *
+     * @param jsonStr 需要修复的JSON字符串
+     * @param handler 事件处理器
+     */
+    public void repair(String jsonStr, JsonRepairHandler handler) {
+        if (jsonStr == null || jsonStr.isEmpty()) {
+            return;
+        }
+        JsonSink sink = new HandlerSink(handler);
+        if (JsonValidator.validate(jsonStr) == JsonValidator.VALID) {
+            replayValid(jsonStr, sink, StrictJsonReader.hasDuplicateKeys(jsonStr));
+        } else {
+            parse(jsonStr, sink);
+        }
+    }
+
+    /**
+     * 把合法的输入转换为事件，包含重复的键时通过对象树保留最后一个值
+     */
+    private static void replayValid(CharSequence jsonStr, JsonSink sink, boolean duplicateKeys) {
+        if (!duplicateKeys) {
+            StrictJsonReader.read(jsonStr, sink, false);
+            return;
+        }
+        TreeBuilder tree = new TreeBuilder();
+        StrictJsonReader.read(jsonStr, tree, false);
+        TreeBuilder.replay(tree.getRoot(), sink);
+    }
+
+    /**
+     * 用当前线程的解析状态修复输入，并将结果以事件的形式交给sink
+     */
+    void parse(String jsonStr, JsonSink sink) {
+        Workspace workspace = acquire(jsonStr);
+        try {
+            workspace.parser.parse(sink);
+        } finally {
+            release(workspace);
+        }
+    }
+
+    /**
+     * 修复格式不正确的JSON字符串，并直接绑定为指定类型的对象
+     * 使用Jackson完成绑定，需要classpath中有jackson-databind
+     *
+     * @param jsonStr 需要修复的JSON字符串
+     * @param type    目标类型
+     * @return 绑定后的对象
+     * @throws IOException 修复结果无法绑定到目标类型，或者没有任何内容
+     */
+    public <T> T repair(String jsonStr, Class<T> type) throws IOException {
+        return JacksonSupport.readValue(this, jsonStr, type);
+    }
+
+    /**
+     * 并行修复一批JSON字符串，结果的顺序与输入相同
+     * 在调用方所在的ForkJoinPool中执行，不在ForkJoinPool中调用时使用ForkJoinPool.commonPool()；
+     * 每个工作线程复用自己的解析状态，线程之间不共享可变状态
+     *
+     * @param inputs 需要修复的JSON字符串
+     * @return 修复后的JSON字符串，与inputs一一对应
+     */
+    public List<String> repairAll(List<String> inputs) {
+        return repairAll(inputs.stream());
+    }
+
+    /**
+     * 并行修复一批JSON字符串，执行方式与repairAll(List)相同
+     * 结果的顺序与流中元素的顺序相同，无序的流除外
+     *
+     * @param inputs 需要修复的JSON字符串
+     * @return 修复后的JSON字符串
+     */
+    public List<String> repairAll(Stream<String> inputs) {
+        return inputs.parallel().map(this::repair).collect(Collectors.toList());
+    }
+
+    /**
+     * 在executor中并行修复一批JSON字符串，结果的顺序与输入相同
+     * 输入按顺序分成若干连续的批次，每个批次作为一个任务提交，所有批次完成后返回
+     *
+     * @param inputs   需要修复的JSON字符串
+     * @param executor 执行修复任务的线程池
+     * @return 修复后的JSON字符串，与inputs一一对应
+     */
+    public List<String> repairAll(List<String> inputs, Executor executor) {
+        int size = inputs.size();
+        if (size == 0) {
+            return new ArrayList<>();
+        }
+        String[] results = new String[size];
+        int batches = Math.min(size, Runtime.getRuntime().availableProcessors() * BATCHES_PER_CPU);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[batches];
+        for (int b = 0; b < batches; b++) {
+            int from = (int) ((long) size * b / batches);
+            int to = (int) ((long) size * (b + 1) / batches);
+            futures[b] = CompletableFuture.runAsync(() -> {
+                for (int i = from; i < to; i++) {
+                    results[i] = repair(inputs.get(i));
+                }
+            }, executor);
+        }
+        join(CompletableFuture.allOf(futures));
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    /**
+     * 等待任务完成，任务失败时抛出其中的原始异常
+     */
+    static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 获取当前线程的解析状态并装入输入
+     * 输入过长，或者当前线程的解析状态正在使用（例如out在写入时又调用了本引擎）时，返回一次性的解析状态
+     */
+    private Workspace acquire(String jsonStr) {
+        if (jsonStr.length() <= POOLED_LIMIT) {
+            Workspace workspace = workspaces.get();
+            if (!workspace.busy) {
+                workspace.busy = true;
+                workspace.source.reset(jsonStr);
+                workspace.parser.reset();
+                return workspace;
+            }
+        }
+        return new Workspace(jsonStr, iterative, keyTable);
+    }
+
+    /**
+     * 获取解析状态并装入解码后的utf8，选择方式与acquire(String)相同；字节数不超过POOLED_LIMIT时字符数也不会超过
+     */
+    private Workspace acquire(ByteBuffer utf8) {
+        Workspace workspace = null;
+        if (utf8.remaining() <= POOLED_LIMIT) {
+            workspace = workspaces.get();
+            if (workspace.busy) {
+                workspace = null;
+            } else {
+                workspace.busy = true;
+                workspace.parser.reset();
+            }
+        }
+        if (workspace == null) {
+            workspace = new Workspace("", iterative, keyTable);
+        }
+        workspace.source.reset(utf8);
+        return workspace;
+    }
+
+    private static void release(Workspace workspace) {
+        if (workspace.busy) {
+            // 不再引用本次的结果
+            workspace.parser.reset();
+            workspace.busy = false;
+        }
+    }
+
+    /**
+     * 一个线程的解析状态
+     */
+    private static class Workspace {
+
+        final CharArraySource source;
+        final JsonParser parser;
+        boolean busy;
+
+        Workspace(String jsonStr, boolean iterative, KeyTable keyTable) {
+            this.source = new CharArraySource(jsonStr);
+            this.parser = new JsonParser(source, false, false);
+            this.parser.setIterative(iterative);
+            this.parser.setKeyTable(keyTable);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package io.github.lfshao.json.repair;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+
+/**
+ * 创建读取修复结果的Jackson解析器，解析器可以交给任意ObjectMapper的readValue(JsonParser, ...)绑定到Java对象
+ * 合法的输入在严格校验之后直接由Jackson解析；不合法的输入修复为Jackson的token缓冲区，不经过序列化和再次解析。
+ * <p>
+ * 需要classpath中有jackson-databind。与Jackson相关的API都放在这个类中，JsonRepair和RepairEngine的其他方法不会加载Jackson
+ */
+public final class RepairingJsonFactory {
+
+    private final RepairEngine engine;
+
+    /**
+     * 创建使用默认引擎的工厂
+     */
+    public RepairingJsonFactory() {
+        this(new RepairEngine());
+    }
+
+    /**
+     * @param engine 修复不合法输入时使用的引擎
+     */
+    public RepairingJsonFactory(RepairEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * 创建读取修复结果的解析器，没有任何内容时解析器不包含token
+     *
+     * @param jsonStr 需要修复的JSON字符串
+     * @return 从修复后的第一个token开始读取的解析器
+     * @throws IOException 创建Jackson解析器失败
+     */
+    public JsonParser createParser(String jsonStr) throws IOException {
+        return JacksonSupport.createParser(engine, jsonStr);
+    }
+}
@@ -0,0 +1,111 @@
+package io.github.lfshao.json.repair;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * 把事件记录为Jackson的token，之后可以作为JsonParser读出，用于不经过文本直接绑定到Java对象
+ */
+final class TokenBufferHandler implements JsonRepairHandler {
+
+    private final TokenBuffer buffer;
+
+    TokenBufferHandler(ObjectCodec codec) {
+        this.buffer = new TokenBuffer(codec, false);
+    }
+
+    /**
+     * @return 从第一个记录的token开始读取的解析器
+     */
+    JsonParser asParser() {
+        return buffer.asParser();
+    }
+
+    @Override
+    public void startObject() {
+        try {
+            buffer.writeStartObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void endObject() {
+        try {
+            buffer.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void startArray() {
+        try {
+            buffer.writeStartArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void endArray() {
+        try {
+            buffer.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void key(String key) {
+        try {
+            buffer.writeFieldName(key);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void value(Object value) {
+        try {
+            writeScalar(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeScalar(Object value) throws IOException {
+        if (value == null) {
+            buffer.writeNull();
+        } else if (value instanceof String) {
+            buffer.writeString((String) value);
+        } else if (value instanceof Boolean) {
+            buffer.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            buffer.writeNumber((Integer) value);
+        } else if (value instanceof Long) {
+            buffer.writeNumber((Long) value);
+        } else if (value instanceof BigInteger) {
+            buffer.writeNumber((BigInteger) value);
+        } else if (value instanceof BigDecimal) {
+            buffer.writeNumber((BigDecimal) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                // 与JsonWriter一致，写为字符串
+                buffer.writeString(String.valueOf(value));
+            } else {
+                buffer.writeNumber(d);
+            }
+        } else {
+            buffer.writeString(value.toString());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.lfshao.json.repair;
+
+import io.github.lfshao.json.repair.core.TreeBuilder;
+
+/**
+ * 把事件还原为对象树的处理器
+ * 对象为LinkedHashMap，数组为ArrayList，标量为String、Number、Boolean或null
+ */
+public final class TreeHandler implements JsonRepairHandler {
+
+    private final TreeBuilder builder = new TreeBuilder();
+    private boolean received;
+
+    @Override
+    public void startObject() {
+        received = true;
+        builder.startObject();
+    }
+
+    @Override
+    public void endObject() {
+        builder.endObject();
+    }
+
+    @Override
+    public void startArray() {
+        received = true;
+        builder.startArray();
+    }
+
+    @Override
+    public void endArray() {
+        builder.endArray();
+    }
+
+    @Override
+    public void key(String key) {
+        builder.key(key);
+    }
+
+    @Override
+    public void value(Object value) {
+        received = true;
+        builder.value(value);
+    }
+
+    /**
+     * 获取构建出的对象树
+     *
+     * @return 对象树，没有收到任何事件时返回空字符串
+     */
+    public Object getResult() {
+        return received ? builder.getRoot() : "";
+    }
+}
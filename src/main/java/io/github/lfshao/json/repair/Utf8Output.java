@@ -0,0 +1,163 @@
+package io.github.lfshao.json.repair;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * 以UTF-8编码直接输出字节的Appendable
+ * ASCII字符逐个写为一个字节，其余字符按码点编码，跨越两次写入的代理对会被拼接；
+ * 不成对的代理字符写为 ?，与String.getBytes(UTF_8)相同。
+ * 目标是OutputStream或直接缓冲区时先写入内部的字节数组再批量写出；目标是堆缓冲区时直接写入它的底层数组
+ */
+final class Utf8Output implements Appendable {
+
+    static final int BUFFER_SIZE = 1 << 13;
+
+    private final OutputStream out;
+    private final ByteBuffer target;
+    // 写入的字节数组：内部缓冲区或者堆缓冲区的底层数组
+    private final byte[] bytes;
+    private final int offset;
+    private final int limit;
+    private int count;
+    // 等待低位代理的高位代理，没有时为0
+    private char highSurrogate;
+
+    Utf8Output(OutputStream out) {
+        this.out = out;
+        this.target = null;
+        this.bytes = new byte[BUFFER_SIZE];
+        this.offset = 0;
+        this.limit = BUFFER_SIZE;
+    }
+
+    /**
+     * @param target 从position开始写入，finish之后position移到写入的内容之后；剩余空间不足时抛出BufferOverflowException
+     */
+    Utf8Output(ByteBuffer target) {
+        this.out = null;
+        this.target = target;
+        if (target.hasArray()) {
+            this.bytes = target.array();
+            this.offset = target.arrayOffset();
+            this.count = offset + target.position();
+            this.limit = offset + target.limit();
+        } else {
+            this.bytes = new byte[BUFFER_SIZE];
+            this.offset = 0;
+            this.limit = BUFFER_SIZE;
+        }
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+        return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+        for (int i = start; i < end; i++) {
+            char c = csq.charAt(i);
+            if (c < 0x80 && highSurrogate == 0) {
+                if (count == limit) {
+                    drain();
+                }
+                bytes[count++] = (byte) c;
+            } else {
+                encode(c);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+        if (c < 0x80 && highSurrogate == 0) {
+            if (count == limit) {
+                drain();
+            }
+            bytes[count++] = (byte) c;
+        } else {
+            encode(c);
+        }
+        return this;
+    }
+
+    /**
+     * 写出剩余的内容；目标是ByteBuffer时更新它的position
+     */
+    void finish() throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            write1('?');
+        }
+        if (target != null && target.hasArray()) {
+            // Java 8的ByteBuffer没有position(int)的重载，通过Buffer调用
+            ((Buffer) target).position(count - offset);
+        } else {
+            drain();
+        }
+    }
+
+    private void encode(char c) throws IOException {
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                ensure(4);
+                bytes[count++] = (byte) (0xF0 | codePoint >> 18);
+                bytes[count++] = (byte) (0x80 | (codePoint >> 12 & 0x3F));
+                bytes[count++] = (byte) (0x80 | (codePoint >> 6 & 0x3F));
+                bytes[count++] = (byte) (0x80 | (codePoint & 0x3F));
+                return;
+            }
+            write1('?');
+        }
+        if (c < 0x80) {
+            write1(c);
+        } else if (c < 0x800) {
+            ensure(2);
+            bytes[count++] = (byte) (0xC0 | c >> 6);
+            bytes[count++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            write1('?');
+        } else {
+            ensure(3);
+            bytes[count++] = (byte) (0xE0 | c >> 12);
+            bytes[count++] = (byte) (0x80 | (c >> 6 & 0x3F));
+            bytes[count++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    private void write1(char c) throws IOException {
+        ensure(1);
+        bytes[count++] = (byte) c;
+    }
+
+    private void ensure(int n) throws IOException {
+        if (limit - count < n) {
+            drain();
+        }
+    }
+
+    /**
+     * 写出内部缓冲区中的字节，腾出空间
+     */
+    private void drain() throws IOException {
+        if (target == null) {
+            out.write(bytes, 0, count);
+        } else if (target.hasArray()) {
+            // 直接写在堆缓冲区中，没有可以腾出的空间
+            throw new BufferOverflowException();
+        } else {
+            target.put(bytes, 0, count);
+        }
+        count = 0;
+    }
+}
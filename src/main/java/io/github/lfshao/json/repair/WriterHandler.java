@@ -0,0 +1,46 @@
+package io.github.lfshao.json.repair;
+
+import io.github.lfshao.json.repair.core.JsonWriter;
+
+/**
+ * 把事件写为紧凑格式JSON文本的处理器
+ * 写入out失败时抛出UncheckedIOException
+ */
+public final class WriterHandler implements JsonRepairHandler {
+
+    private final JsonWriter writer;
+
+    public WriterHandler(Appendable out) {
+        this.writer = new JsonWriter(out);
+    }
+
+    @Override
+    public void startObject() {
+        writer.startObject();
+    }
+
+    @Override
+    public void endObject() {
+        writer.endObject();
+    }
+
+    @Override
+    public void startArray() {
+        writer.startArray();
+    }
+
+    @Override
+    public void endArray() {
+        writer.endArray();
+    }
+
+    @Override
+    public void key(String key) {
+        writer.key(key);
+    }
+
+    @Override
+    public void value(Object value) {
+        writer.value(value);
+    }
+}
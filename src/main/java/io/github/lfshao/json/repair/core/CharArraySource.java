@@ -0,0 +1,284 @@
+package io.github.lfshao.json.repair.core;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 基于字符数组的输入
+ * 插入的字符不会修改原数组，而是记录在一个按位置排序的插入表中，读取时把位置换算到原数组上，
+ * 因此插入的开销只与插入的次数有关，与输入的长度无关，结构字符索引也不需要重建。
+ */
+public class CharArraySource implements CharSource {
+
+    private static final int[] NO_POSITIONS = new int[0];
+    private static final char[] NO_CHARS = new char[0];
+
+    private char[] chars;
+    private int length;
+    // 插入字符在当前（包含插入字符的）坐标下的位置，升序，以及对应的字符
+    private int[] insertedAt = NO_POSITIONS;
+    private char[] inserted = NO_CHARS;
+    private int insertCount;
+    // 最近读取的区间 (segmentStart, segmentEnd) 内没有插入字符，位置减去segmentOffset即为原数组中的位置
+    private int segmentStart = -1;
+    private int segmentEnd = Integer.MAX_VALUE;
+    private int segmentOffset;
+    // 结构字符索引，第一次查找时构建
+    private StructuralIndex index;
+    // 插入了被索引的字符后不再使用索引
+    private boolean indexDisabled;
+
+    public CharArraySource(String str) {
+        this.chars = str.toCharArray();
+        this.length = chars.length;
+    }
+
+    /**
+     * 改为读取str，容量足够时复用之前的字符数组，之前插入的字符和结构字符索引都会被丢弃
+     *
+     * @param str 新的输入
+     */
+    public void reset(String str) {
+        length = str.length();
+        if (chars.length < length) {
+            chars = new char[length];
+        }
+        str.getChars(0, length, chars, 0);
+        clear();
+    }
+
+    /**
+     * 改为读取utf8中position到limit之间以UTF-8编码的内容，直接解码到复用的字符数组中，不生成中间的String，
+     * 也不移动utf8的position。解码结果与new String(bytes, UTF_8)相同，不合法的字节序列替换为U+FFFD
+     *
+     * @param utf8 新的输入
+     */
+    public void reset(ByteBuffer utf8) {
+        int remaining = utf8.remaining();
+        // 每个字节最多解码为一个字符
+        if (chars.length < remaining) {
+            chars = new char[remaining];
+        }
+        length = decode(utf8, chars);
+        clear();
+    }
+
+    /**
+     * 不包含插入字符的原始内容，在下一次reset之前有效
+     */
+    public CharSequence contents() {
+        return CharBuffer.wrap(chars, 0, length);
+    }
+
+    private void clear() {
+        insertCount = 0;
+        segmentStart = -1;
+        segmentEnd = Integer.MAX_VALUE;
+        segmentOffset = 0;
+        index = null;
+        indexDisabled = false;
+    }
+
+    /**
+     * 当前字符数组的容量
+     */
+    public int capacity() {
+        return chars.length;
+    }
+
+    @Override
+    public int charAt(int position) {
+        if (position > segmentStart && position < segmentEnd) {
+            int physical = position - segmentOffset;
+            return physical < length ? chars[physical] : EOF;
+        }
+        int j = Arrays.binarySearch(insertedAt, 0, insertCount, position);
+        if (j >= 0) {
+            return inserted[j];
+        }
+        j = -j - 1;
+        segmentStart = j > 0 ? insertedAt[j - 1] : -1;
+        segmentEnd = j < insertCount ? insertedAt[j] : Integer.MAX_VALUE;
+        segmentOffset = j;
+        int physical = position - j;
+        return physical >= 0 && physical < length ? chars[physical] : EOF;
+    }
+
+    @Override
+    public void insert(int position, char c) {
+        int j = lowerBound(position);
+        if (insertCount == insertedAt.length) {
+            insertedAt = Arrays.copyOf(insertedAt, Math.max(16, insertCount * 2));
+            inserted = Arrays.copyOf(inserted, insertedAt.length);
+        }
+        System.arraycopy(insertedAt, j, insertedAt, j + 1, insertCount - j);
+        System.arraycopy(inserted, j, inserted, j + 1, insertCount - j);
+        insertCount++;
+        insertedAt[j] = position;
+        inserted[j] = c;
+        // 之后的插入字符整体后移
+        for (int i = j + 1; i < insertCount; i++) {
+            insertedAt[i]++;
+        }
+        segmentStart = -1;
+        segmentEnd = -1;
+
+        if (StructuralIndex.isIndexed(c)) {
+            indexDisabled = true;
+        } else if (index != null) {
+            fixEscape(j);
+        }
+    }
+
+    @Override
+    public int nextUnescaped(int first, int second, int from) {
+        if (indexDisabled || !StructuralIndex.isIndexed(first) || !StructuralIndex.isIndexed(second)) {
+            return -1;
+        }
+        return toLogical(index().next(first, second, toPhysical(from)));
+    }
+
+    @Override
+    public int skipUnescapedPairs(int quote, int from) {
+        if (indexDisabled) {
+            return -1;
+        }
+        return toLogical(index().skipPairs(quote, toPhysical(from)));
+    }
+
+    /**
+     * 把utf8的剩余内容解码到dst中，返回字符数
+     * 堆缓冲区中的ASCII和完整合法的多字节序列直接逐字节解码；遇到不合法或者不完整的序列后，
+     * 剩余部分（以及直接缓冲区的全部内容）交给JDK的解码器，保证替换字符与String的解码相同
+     */
+    private static int decode(ByteBuffer utf8, char[] dst) {
+        int n = 0;
+        int from = utf8.position();
+        if (utf8.hasArray()) {
+            byte[] bytes = utf8.array();
+            int offset = utf8.arrayOffset();
+            int i = offset + utf8.position();
+            int end = offset + utf8.limit();
+            while (i < end) {
+                int b = bytes[i];
+                if (b >= 0) {
+                    dst[n++] = (char) b;
+                    i++;
+                    continue;
+                }
+                int lead = b & 0xFF;
+                if (lead >= 0xC2 && lead <= 0xDF && i + 1 < end) {
+                    int b1 = bytes[i + 1];
+                    if ((b1 & 0xC0) == 0x80) {
+                        dst[n++] = (char) ((lead & 0x1F) << 6 | b1 & 0x3F);
+                        i += 2;
+                        continue;
+                    }
+                } else if (lead >= 0xE0 && lead <= 0xEF && i + 2 < end) {
+                    int b1 = bytes[i + 1] & 0xFF;
+                    int b2 = bytes[i + 2];
+                    // 排除过长的编码和代理字符
+                    int min = lead == 0xE0 ? 0xA0 : 0x80;
+                    int max = lead == 0xED ? 0x9F : 0xBF;
+                    if (b1 >= min && b1 <= max && (b2 & 0xC0) == 0x80) {
+                        dst[n++] = (char) ((lead & 0x0F) << 12 | (b1 & 0x3F) << 6 | b2 & 0x3F);
+                        i += 3;
+                        continue;
+                    }
+                } else if (lead >= 0xF0 && lead <= 0xF4 && i + 3 < end) {
+                    int b1 = bytes[i + 1] & 0xFF;
+                    int b2 = bytes[i + 2];
+                    int b3 = bytes[i + 3];
+                    // 排除过长的编码和超过U+10FFFF的码点
+                    int min = lead == 0xF0 ? 0x90 : 0x80;
+                    int max = lead == 0xF4 ? 0x8F : 0xBF;
+                    if (b1 >= min && b1 <= max && (b2 & 0xC0) == 0x80 && (b3 & 0xC0) == 0x80) {
+                        int codePoint = (lead & 0x07) << 18 | (b1 & 0x3F) << 12 | (b2 & 0x3F) << 6 | b3 & 0x3F;
+                        dst[n++] = Character.highSurrogate(codePoint);
+                        dst[n++] = Character.lowSurrogate(codePoint);
+                        i += 4;
+                        continue;
+                    }
+                }
+                break;
+            }
+            if (i == end) {
+                return n;
+            }
+            from = i - offset;
+        }
+        // 之前的内容都是完整的序列，从这里开始解码与整体解码的结果相同
+        ByteBuffer rest = utf8.duplicate();
+        ((Buffer) rest).position(from);
+        CharBuffer out = CharBuffer.wrap(dst, n, dst.length - n);
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        decoder.decode(rest, out, true);
+        decoder.flush(out);
+        return out.position();
+    }
+
+    private StructuralIndex index() {
+        if (index == null) {
+            index = new StructuralIndex(chars, length);
+            for (int j = 0; j < insertCount; j++) {
+                fixEscape(j);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 插入的字符成为之后一个字符的前一个字符，需要更新该字符是否被转义
+     */
+    private void fixEscape(int j) {
+        boolean followedByInserted = j + 1 < insertCount && insertedAt[j + 1] == insertedAt[j] + 1;
+        int physical = insertedAt[j] - j;
+        if (!followedByInserted && physical < length) {
+            index.setEscaped(physical, inserted[j] == '\\');
+        }
+    }
+
+    /**
+     * 插入字符中位置小于position的数量
+     */
+    private int lowerBound(int position) {
+        int j = Arrays.binarySearch(insertedAt, 0, insertCount, position);
+        if (j >= 0) {
+            // 位置相同的插入字符只有一个，它之前的都小于position
+            return j;
+        }
+        return -j - 1;
+    }
+
+    /**
+     * 当前坐标转换为原数组中的位置，插入字符对应它之后的原字符
+     */
+    private int toPhysical(int position) {
+        return position - lowerBound(position);
+    }
+
+    /**
+     * 原数组中的位置转换为当前坐标
+     */
+    private int toLogical(int physical) {
+        // 插入字符j位于原字符insertedAt[j] - j之前，这个值随j单调不减
+        int low = 0;
+        int high = insertCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (insertedAt[mid] - mid <= physical) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return physical + low;
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.lfshao.json.repair.core;
+
+/**
+ * 解析器的输入
+ * 按绝对位置读取字符，超出输入范围时返回EOF
+ */
+public interface CharSource {
+
+    /**
+     * 输入结束
+     */
+    int EOF = -1;
+
+    /**
+     * 获取指定位置的字符
+     *
+     * @param position 绝对位置
+     * @return 字符，超出输入范围时返回EOF
+     */
+    int charAt(int position);
+
+    /**
+     * 在指定位置插入一个字符，之后的内容整体后移
+     *
+     * @param position 绝对位置
+     * @param c        字符
+     */
+    void insert(int position, char c);
+
+    /**
+     * 相对当前解析位置最多可以向前查看的字符数，超出部分视为输入结束
+     */
+    default int getLookahead() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * 查找from开始第一个未转义（前一个字符不是反斜杠）的first或second
+     *
+     * @return 找到的位置，没有找到时返回输入结束的位置；返回-1表示不支持这种查找，由调用方逐个字符查找
+     */
+    default int nextUnescaped(int first, int second, int from) {
+        return -1;
+    }
+
+    /**
+     * 从位置from的引号开始，在该引号和 ] 组成的未转义字符序列中每次跳过两个，直到落在 ] 上或者到达输入结束
+     *
+     * @return 最终的位置；返回-1表示不支持这种查找，由调用方逐个字符查找
+     */
+    default int skipUnescapedPairs(int quote, int from) {
+        return -1;
+    }
+}
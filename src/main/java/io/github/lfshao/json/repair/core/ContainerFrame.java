@@ -0,0 +1,102 @@
+package io.github.lfshao.json.repair.core;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 一个正在解析的容器的状态
+ * 由JsonParser按嵌套深度复用，容器解析器在返回NestedContainer之前把之后继续解析需要的状态保存在这里
+ */
+public final class ContainerFrame {
+
+    // 超过这个数量的键时改用哈希集合
+    private static final int LINEAR_KEYS = 8;
+
+    // 是否是对象
+    boolean object;
+    // 是否是JsonParser.resume恢复的容器，它的父容器在它结束后不需要处理子元素
+    boolean resumed;
+    // 与当前输出分开解析时，之前的发射器以及构建结果的对象树
+    JsonEmitter savedEmitter;
+    TreeBuilder tree;
+
+    // 对象中已经出现过的键，用于在数组中查找重复的键：较少时保存在复用的数组中线性查找，较多时改用哈希集合
+    private final String[] keys = new String[LINEAR_KEYS];
+    private int keyCount;
+    private Set<String> keySet;
+    // 正在解析其值的键
+    private String key;
+    // 发现重复的键时回退到的位置
+    private int rollbackIndex;
+    // 正在解析要合并到上一个成员中的数组
+    private boolean merging;
+
+    void reset(boolean object) {
+        this.object = object;
+        this.resumed = false;
+        this.savedEmitter = null;
+        this.tree = null;
+        Arrays.fill(keys, 0, keyCount, null);
+        this.keyCount = 0;
+        this.keySet = null;
+        this.key = null;
+        this.rollbackIndex = 0;
+        this.merging = false;
+    }
+
+    /**
+     * 记录对象中出现过的键
+     */
+    public void addKey(String key) {
+        if (keySet != null) {
+            keySet.add(key);
+        } else if (keyCount < LINEAR_KEYS) {
+            keys[keyCount++] = key;
+        } else {
+            keySet = new HashSet<>(Arrays.asList(keys));
+            keySet.add(key);
+            Arrays.fill(keys, null);
+            keyCount = 0;
+        }
+    }
+
+    /**
+     * 对象中是否已经出现过key
+     */
+    public boolean containsKey(String key) {
+        if (keySet != null) {
+            return keySet.contains(key);
+        }
+        for (int i = 0; i < keyCount; i++) {
+            if (keys[i].equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public int getRollbackIndex() {
+        return rollbackIndex;
+    }
+
+    public void setRollbackIndex(int rollbackIndex) {
+        this.rollbackIndex = rollbackIndex;
+    }
+
+    public boolean isMerging() {
+        return merging;
+    }
+
+    public void setMerging(boolean merging) {
+        this.merging = merging;
+    }
+}
@@ -0,0 +1,10 @@
+package io.github.lfshao.json.repair.core;
+
+/**
+ * 容器解析结果
+ * 对象和数组的内容已经通过JsonEmitter以事件的形式输出，解析方法只返回该标记
+ */
+public enum EmittedContainer {
+    EMPTY,
+    NON_EMPTY
+}
@@ -1,22 +1,29 @@
 package io.github.lfshao.json.repair.core;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * JSON解析上下文管理器
  * 用于跟踪当前解析位置的上下文信息
+ * <p>
+ * 上下文栈保存在byte数组中，并且为每种上下文值记录它在栈中出现的次数，
+ * 因此set、reset、getCurrent和contains都是O(1)的，也不会分配内存（栈扩容除外）
  */
 public class JsonContext {
 
-    private final List<ContextValues> context;
-    private ContextValues current;
-    private boolean empty;
+    private static final ContextValues[] VALUES = ContextValues.values();
+
+    // 栈中每一项是ContextValues的序号
+    private byte[] stack;
+    private int size;
+    // 每种上下文值在栈中出现的次数，按序号索引
+    private final int[] counts;
 
     public JsonContext() {
-        this.context = new ArrayList<>();
-        this.current = null;
-        this.empty = true;
+        this.stack = new byte[16];
+        this.counts = new int[VALUES.length];
     }
 
     /**
@@ -25,43 +32,51 @@ public class JsonContext {
      * @param value 要添加的上下文值
      */
     public void set(ContextValues value) {
-        this.context.add(value);
-        this.current = value;
-        this.empty = false;
+        if (size == stack.length) {
+            stack = Arrays.copyOf(stack, size * 2);
+        }
+        stack[size++] = (byte) value.ordinal();
+        counts[value.ordinal()]++;
     }
 
     /**
-     * 移除最近的上下文值
+     * 移除最近的上下文值，栈为空时不做任何事
      */
     public void reset() {
-        try {
-            this.context.remove(this.context.size() - 1);
-            if (!this.context.isEmpty()) {
-                this.current = this.context.get(this.context.size() - 1);
-            } else {
-                this.current = null;
-                this.empty = true;
-            }
-        } catch (IndexOutOfBoundsException e) {
-            this.current = null;
-            this.empty = true;
+        if (size > 0) {
+            counts[stack[--size]]--;
         }
     }
 
+    /**
+     * 移除所有上下文值
+     */
+    public void clear() {
+        size = 0;
+        Arrays.fill(counts, 0);
+    }
+
     public ContextValues getCurrent() {
-        return current;
+        return size > 0 ? VALUES[stack[size - 1]] : null;
     }
 
     public boolean isEmpty() {
-        return empty;
+        return size == 0;
     }
 
+    /**
+     * 获取上下文栈的副本，从外到内，每次调用都会复制
+     */
     public List<ContextValues> getContext() {
-        return new ArrayList<>(context);
+        List<ContextValues> context = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            context.add(VALUES[stack[i]]);
+        }
+        return context;
     }
 
     public boolean contains(ContextValues value) {
-        return context.contains(value);
+        return counts[value.ordinal()] > 0;
     }
 
     public enum ContextValues {
@@ -69,4 +84,4 @@ public class JsonContext {
         OBJECT_VALUE,
         ARRAY
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,208 @@
+package io.github.lfshao.json.repair.core;
+
+import java.util.Arrays;
+
+/**
+ * JSON事件发射器
+ * 位于解析器和JsonSink之间，负责处理原本依赖对象树才能完成的修复规则：
+ * - 数组中的空对象、空数组会被丢弃，所以数组元素的开始事件会延迟到出现第一个子元素时才发出
+ * - 对象成员的值是数组时，结束事件会延迟发出，以便后面紧跟的数组可以合并进来
+ * 内存占用只与嵌套深度有关
+ */
+public class JsonEmitter {
+
+    private static final byte OBJECT = 1;
+    private static final byte ARRAY = 2;
+
+    private final JsonSink sink;
+    // 容器栈
+    private byte[] types = new byte[16];
+    private boolean[] hasChildren = new boolean[16];
+    private int depth;
+    // 栈底开始已经向sink发出开始事件的容器数量，未发出的容器总是位于栈顶
+    private int openedDepth;
+    // 栈顶数组已经结束，但结束事件还未发出
+    private boolean arrayCloseDeferred;
+    // emitTree时把对象树的事件转发给自身
+    private final JsonSink treeSink = new JsonSink() {
+        @Override
+        public void startObject() {
+            JsonEmitter.this.startObject();
+        }
+
+        @Override
+        public void endObject() {
+            JsonEmitter.this.endObject();
+        }
+
+        @Override
+        public void startArray() {
+            JsonEmitter.this.startArray();
+        }
+
+        @Override
+        public void endArray() {
+            JsonEmitter.this.endArray();
+        }
+
+        @Override
+        public void key(String key) {
+            JsonEmitter.this.key(key);
+        }
+
+        @Override
+        public void value(Object value) {
+            JsonEmitter.this.value(value);
+        }
+    };
+
+    public JsonEmitter(JsonSink sink) {
+        this.sink = sink;
+    }
+
+    public void startObject() {
+        start(OBJECT);
+    }
+
+    public void startArray() {
+        start(ARRAY);
+    }
+
+    /**
+     * 结束当前对象
+     *
+     * @return 对象是否包含成员
+     */
+    public EmittedContainer endObject() {
+        return end();
+    }
+
+    /**
+     * 结束当前数组
+     *
+     * @return 数组是否包含元素
+     */
+    public EmittedContainer endArray() {
+        return end();
+    }
+
+    public void key(String key) {
+        beforeChild();
+        sink.key(key);
+    }
+
+    public void value(Object value) {
+        beforeChild();
+        sink.value(value);
+    }
+
+    /**
+     * 上一个对象成员的值是否是数组，并且之后还没有输出其他内容
+     */
+    public boolean isArrayCloseDeferred() {
+        return arrayCloseDeferred;
+    }
+
+    /**
+     * 重新打开上一个对象成员的数组值，后续的值会追加到该数组中
+     */
+    public void resumeArray() {
+        arrayCloseDeferred = false;
+    }
+
+    /**
+     * 压入一个开始事件已经输出过的容器，用于从中间状态恢复解析
+     *
+     * @param object      是否是对象
+     * @param hasChildren 容器中是否已经有元素
+     */
+    public void resumeContainer(boolean object, boolean hasChildren) {
+        push(object ? OBJECT : ARRAY);
+        this.hasChildren[depth - 1] = hasChildren;
+        openedDepth = depth;
+    }
+
+    /**
+     * 将已经构建好的对象树以事件的形式输出
+     *
+     * @param value Map、List或标量值
+     */
+    public void emitTree(Object value) {
+        TreeBuilder.replay(value, treeSink);
+    }
+
+    private void start(byte type) {
+        flushDeferredClose();
+        boolean droppable = depth > 0 && types[depth - 1] == ARRAY;
+        push(type);
+        if (!droppable) {
+            openPending();
+        }
+    }
+
+    private void push(byte type) {
+        if (depth == types.length) {
+            types = Arrays.copyOf(types, depth * 2);
+            hasChildren = Arrays.copyOf(hasChildren, depth * 2);
+        }
+        types[depth] = type;
+        hasChildren[depth] = false;
+        depth++;
+    }
+
+    private EmittedContainer end() {
+        flushDeferredClose();
+        int top = depth - 1;
+        if (openedDepth <= top) {
+            // 数组中的空容器，直接丢弃
+            depth--;
+            return EmittedContainer.EMPTY;
+        }
+        EmittedContainer result = hasChildren[top] ? EmittedContainer.NON_EMPTY : EmittedContainer.EMPTY;
+        if (types[top] == ARRAY && top > 0 && types[top - 1] == OBJECT) {
+            arrayCloseDeferred = true;
+        } else {
+            close();
+        }
+        return result;
+    }
+
+    private void beforeChild() {
+        flushDeferredClose();
+        openPending();
+        if (depth > 0) {
+            hasChildren[depth - 1] = true;
+        }
+    }
+
+    private void openPending() {
+        for (int i = openedDepth; i < depth; i++) {
+            if (i > 0) {
+                hasChildren[i - 1] = true;
+            }
+            if (types[i] == OBJECT) {
+                sink.startObject();
+            } else {
+                sink.startArray();
+            }
+        }
+        openedDepth = depth;
+    }
+
+    private void flushDeferredClose() {
+        if (arrayCloseDeferred) {
+            arrayCloseDeferred = false;
+            close();
+        }
+    }
+
+    private void close() {
+        depth--;
+        openedDepth = depth;
+        if (types[depth] == OBJECT) {
+            sink.endObject();
+        } else {
+            sink.endArray();
+        }
+    }
+}
@@ -5,7 +5,6 @@ import io.github.lfshao.json.repair.parser.impl.*;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -14,8 +13,25 @@ import java.util.List;
  */
 public class JsonParser {
 
-    // 字符串分隔符常量
-    public static final List<Character> STRING_DELIMITERS = Arrays.asList('"', '\'', '“', '”');
+    // 输入结束时charAt返回的值
+    public static final int EOF = CharSource.EOF;
+    // 解析器注册表（按优先级排序），子解析器不保存状态，所有JsonParser共享
+    private static final JsonElementParser[] PARSERS = {
+            ObjectParser.INSTANCE,      // {
+            ArrayParser.INSTANCE,       // [
+            CommentParser.INSTANCE,     // # 或 /
+            StringParser.INSTANCE,      // 字符串和字母
+            NumberParser.INSTANCE       // 数字
+    };
+    // 分派表中表示没有解析器能处理、直接跳过的字符
+    private static final byte SKIP = -1;
+    // ASCII字符对应的解析器在PARSERS中的序号，分别用于上下文为空（根元素之前）和非空时
+    private static final byte[] ROOT_ACTIONS = dispatchTable(new JsonContext());
+    private static final byte[] NESTED_ACTIONS = dispatchTable(nestedContext());
+    // reset时保留的字符串缓冲区的最大容量，更大的缓冲区会被丢弃
+    private static final int RETAINED_BUFFER_LIMIT = 1 << 16;
+    // reset时保留的容器状态的最大数量
+    private static final int RETAINED_FRAME_LIMIT = 1 << 10;
     // 解析上下文
     private final JsonContext context;
     // 是否启用日志记录
@@ -24,44 +40,61 @@ public class JsonParser {
     private final List<LogEntry> logger;
     // 流稳定模式
     private final boolean streamStable;
-    // 解析器注册表
-    private final List<JsonElementParser> parsers;
-    // 子解析器实例（用于内部调用）
-    private final ArrayParser arrayParser;
-    private final ObjectParser objectParser;
-    private final StringParser stringParser;
-    private final NumberParser numberParser;
-    private final BooleanNullParser booleanNullParser;
-    private final CommentParser commentParser;
-    // 解析的字符串
-    private String jsonStr;
+    // 事件发射器，解析出的对象和数组通过它输出
+    private JsonEmitter emitter;
+    // 解析的输入
+    private final CharSource source;
+    // 相对当前索引最多可以向前查看的字符数
+    private final int lookahead;
     // 当前索引位置
     private int index;
+    // 子解析器共用的字符串缓冲区
+    private StringBuilder buffer = new StringBuilder();
+    // 是否在堆上的容器栈中迭代地解析嵌套的容器
+    private boolean iterative;
+    // 对象键的驻留表，为null时不驻留
+    private KeyTable keyTable;
+    // 正在解析的容器，从外到内，按深度复用
+    private ContainerFrame[] frames = new ContainerFrame[16];
+    private int frameCount;
 
     public JsonParser(String jsonStr, boolean logging, boolean streamStable) {
-        this.jsonStr = jsonStr != null ? jsonStr : "";
+        this(new CharArraySource(jsonStr != null ? jsonStr : ""), logging, streamStable);
+    }
+
+    public JsonParser(CharSource source, boolean logging, boolean streamStable) {
+        this.source = source;
+        this.lookahead = source.getLookahead();
         this.index = 0;
         this.context = new JsonContext();
         this.logging = logging;
         this.logger = logging ? new ArrayList<>() : null;
         this.streamStable = streamStable;
+        this.emitter = new JsonEmitter(new TreeBuilder());
+    }
 
-        // 初始化子解析器
-        this.arrayParser = new ArrayParser(this);
-        this.objectParser = new ObjectParser(this);
-        this.stringParser = new StringParser(this);
-        this.numberParser = new NumberParser(this);
-        this.booleanNullParser = new BooleanNullParser(this);
-        this.commentParser = new CommentParser(this);
-
-        // 初始化解析器注册表（按优先级排序）
-        this.parsers = Arrays.asList(
-                this.objectParser,      // {
-                this.arrayParser,       // [
-                this.commentParser,     // # 或 /
-                this.stringParser,      // 字符串和字母
-                this.numberParser       // 数字
-        );
+    /**
+     * 回到初始状态，以便从头解析source中的新内容，source本身需由调用方重置
+     * 上一次解析的结果不再被引用，之后需要通过parse或resume重新开始
+     */
+    public void reset() {
+        index = 0;
+        context.clear();
+        if (logger != null) {
+            logger.clear();
+        }
+        emitter = null;
+        if (buffer.capacity() > RETAINED_BUFFER_LIMIT) {
+            buffer = new StringBuilder();
+        }
+        if (frames.length > RETAINED_FRAME_LIMIT) {
+            frames = new ContainerFrame[16];
+        } else {
+            for (int i = 0; i < frameCount; i++) {
+                frames[i].reset(false);
+            }
+        }
+        frameCount = 0;
     }
 
     /**
@@ -70,21 +103,33 @@ public class JsonParser {
      * @return 解析结果
      */
     public Object parse() {
-        Object json = parseJson();
+        RootCollector roots = new RootCollector(this, null, Long.MAX_VALUE);
+        parseRoots(roots);
+        return roots.getResult();
+    }
+
+    /**
+     * 开始解析JSON，并将结果以事件的形式直接输出到sink，不构建完整的对象树
+     *
+     * @param sink 事件接收器
+     */
+    public void parse(JsonSink sink) {
+        RootCollector roots = new RootCollector(this, sink, RootCollector.BUFFER_LIMIT);
+        parseRoots(roots);
+        roots.finish();
+    }
+
+    private void parseRoots(RootCollector roots) {
+        this.emitter = new JsonEmitter(roots);
+        emitRoot(parseJson());
 
-        if (index < jsonStr.length()) {
+        if (charAt() != EOF) {
             log("The parser returned early, checking if there's more json elements");
-            List<Object> jsonList = new ArrayList<>();
-            jsonList.add(json);
 
-            while (index < jsonStr.length()) {
+            while (charAt() != EOF) {
                 Object j = parseJson();
                 if (j != null && !"".equals(j)) {
-                    if (!jsonList.isEmpty() && ObjectComparer.isSameObject(jsonList.get(jsonList.size() - 1), j)) {
-                        // 用新的替换最后一个条目，因为新的似乎是更新
-                        jsonList.remove(jsonList.size() - 1);
-                    }
-                    jsonList.add(j);
+                    emitRoot(j);
                 } else {
                     // 这是一个失败，移动索引
                     index++;
@@ -92,15 +137,158 @@ public class JsonParser {
             }
 
             // 如果没有找到额外的内容，不返回数组
-            if (jsonList.size() == 1) {
+            if (roots.size() == 1) {
                 log("There were no more elements, returning the element without the array");
-                json = jsonList.get(0);
+            }
+        }
+    }
+
+    private void emitRoot(Object json) {
+        // 对象和数组已经通过事件输出，这里只需要处理标量
+        if (!(json instanceof EmittedContainer) && !"".equals(json)) {
+            emitter.value(json);
+        }
+    }
+
+    /**
+     * 在一组已经打开的容器中继续解析，用于从某个已知的中间状态恢复解析
+     * 容器的开始事件以及之前的内容应已由调用方输出，sink只会收到之后的事件，
+     * 所有容器在解析结束时都会被关闭，之后的内容不会被解析
+     *
+     * @param objects    已打开的容器，从外到内，true表示对象，false表示数组
+     * @param depth      已打开的容器数量，至少为1
+     * @param afterValue 最内层容器中是否已经有元素（对象中刚结束一个成员，或数组中已有元素）
+     * @param sink       事件接收器
+     */
+    public void resume(boolean[] objects, int depth, boolean afterValue, JsonSink sink) {
+        this.emitter = new JsonEmitter(sink);
+        for (int i = 0; i < depth; i++) {
+            emitter.resumeContainer(objects[i], i < depth - 1 || afterValue);
+        }
+        int base = frameCount;
+        ContainerFrame innermost = null;
+        for (int level = 0; level < depth; level++) {
+            boolean last = level == depth - 1;
+            if (objects[level]) {
+                if (!last || afterValue) {
+                    context.set(JsonContext.ContextValues.OBJECT_VALUE);
+                }
             } else {
-                json = jsonList;
+                context.set(JsonContext.ContextValues.ARRAY);
+            }
+            innermost = pushFrame(objects[level]);
+            innermost.resumed = true;
+        }
+        Object result = objects[depth - 1]
+                ? ObjectParser.INSTANCE.resumeObject(this, innermost, afterValue)
+                : ArrayParser.INSTANCE.resumeArray(this);
+        runFrames(base, result);
+    }
+
+    /**
+     * 解析一个对象或数组，开始字符（如果有）已被跳过
+     * 递归模式下嵌套的容器通过parseValue递归调用本方法；迭代模式下嵌套的容器在这里通过堆上的容器栈解析，
+     * 调用栈的深度与嵌套深度无关
+     *
+     * @param object 是否是对象
+     * @return 容器是否包含元素
+     */
+    public EmittedContainer parseContainer(boolean object) {
+        int base = frameCount;
+        return runFrames(base, begin(object ? NestedContainer.OBJECT : NestedContainer.ARRAY));
+    }
+
+    private EmittedContainer runFrames(int base, Object result) {
+        while (true) {
+            if (result instanceof NestedContainer) {
+                result = begin((NestedContainer) result);
+                continue;
             }
+            // 栈顶的容器已经结束
+            ContainerFrame done = frames[--frameCount];
+            Object value = done.resumed ? null : result;
+            if (done.savedEmitter != null) {
+                emitter = done.savedEmitter;
+                value = done.tree.getRoot();
+            }
+            done.reset(false);
+            if (frameCount == base) {
+                return (EmittedContainer) result;
+            }
+            ContainerFrame parent = frames[frameCount - 1];
+            result = parent.object
+                    ? ObjectParser.INSTANCE.resume(this, parent, value)
+                    : ArrayParser.INSTANCE.resume(this, value);
+        }
+    }
+
+    private Object begin(NestedContainer nested) {
+        ContainerFrame frame = pushFrame(nested == NestedContainer.OBJECT);
+        if (nested == NestedContainer.DETACHED_ARRAY) {
+            frame.savedEmitter = emitter;
+            frame.tree = new TreeBuilder();
+            emitter = new JsonEmitter(frame.tree);
         }
+        return frame.object ? ObjectParser.INSTANCE.begin(this, frame) : ArrayParser.INSTANCE.begin(this);
+    }
+
+    private ContainerFrame pushFrame(boolean object) {
+        if (frameCount == frames.length) {
+            frames = Arrays.copyOf(frames, frameCount * 2);
+        }
+        ContainerFrame frame = frames[frameCount];
+        if (frame == null) {
+            frame = new ContainerFrame();
+            frames[frameCount] = frame;
+        }
+        frameCount++;
+        frame.reset(object);
+        return frame;
+    }
 
-        return json;
+    /**
+     * 解析容器中的一个值，与parseJson相同
+     * 迭代模式下遇到对象或数组时只跳过开始字符并返回NestedContainer，调用方保存状态后将其返回给parseContainer
+     *
+     * @return 解析的值或NestedContainer
+     */
+    public Object parseValue() {
+        return parseJson(true);
+    }
+
+    /**
+     * 在容器中解析一个没有开始字符的对象或数组
+     * 迭代模式下返回NestedContainer，调用方保存状态后将其返回给parseContainer
+     *
+     * @param object 是否是对象
+     * @return 解析结果或NestedContainer
+     */
+    public Object parseNested(boolean object) {
+        if (iterative) {
+            return object ? NestedContainer.OBJECT : NestedContainer.ARRAY;
+        }
+        return parseContainer(object);
+    }
+
+    /**
+     * 使用独立的对象树解析一个数组，开始字符已被跳过，期间产生的事件不会进入当前的输出
+     * 迭代模式下返回NestedContainer，解析得到的对象树会交给调用方的resume方法
+     *
+     * @return 构建出的对象树或NestedContainer
+     */
+    public Object parseDetachedArray() {
+        if (iterative) {
+            return NestedContainer.DETACHED_ARRAY;
+        }
+        JsonEmitter saved = emitter;
+        TreeBuilder tree = new TreeBuilder();
+        emitter = new JsonEmitter(tree);
+        try {
+            parseContainer(false);
+        } finally {
+            emitter = saved;
+        }
+        return tree.getRoot();
     }
 
     /**
@@ -109,46 +297,127 @@ public class JsonParser {
      * @return 解析的JSON元素
      */
     public Object parseJson() {
+        return parseJson(false);
+    }
+
+    private Object parseJson(boolean nested) {
+        // 解析器不会在这里改变上下文，整个循环中使用同一张分派表
+        byte[] actions = context.isEmpty() ? ROOT_ACTIONS : NESTED_ACTIONS;
         while (true) {
-            Character ch = getCharAt();
+            int ch = charAt();
 
-            // false表示我们已经到达提供的字符串的末尾
-            if (ch == null) {
+            // EOF表示我们已经到达提供的字符串的末尾
+            if (ch == EOF) {
                 return "";
             }
 
-            // 使用责任链模式查找合适的解析器
-            for (JsonElementParser parser : parsers) {
-                if (parser.accept(ch, context)) {
-                    // 对于对象和数组，需要先跳过开始字符
-                    if (parser instanceof ObjectParser || parser instanceof ArrayParser) {
-                        index++;
-                    }
-                    return parser.parse();
-                }
+            int action = ch < actions.length ? actions[ch] : dispatch(ch, context);
+            if (action == SKIP) {
+                // 如果没有解析器能处理，就忽略当前字符以及之后同样无法处理的字符
+                index = skipUnaccepted(actions, index + 1);
+                continue;
+            }
+            JsonElementParser parser = PARSERS[action];
+            // 对于对象和数组，需要先跳过开始字符
+            if (parser == ObjectParser.INSTANCE || parser == ArrayParser.INSTANCE) {
+                index++;
+                boolean object = parser == ObjectParser.INSTANCE;
+                return nested ? parseNested(object) : parseContainer(object);
+            }
+            return parser.parse(this);
+        }
+    }
+
+    /**
+     * 从position开始跳过所有没有解析器能处理的字符
+     *
+     * @return 第一个能处理的字符或输入结束的位置
+     */
+    private int skipUnaccepted(byte[] actions, int position) {
+        while (true) {
+            int ch = source.charAt(position);
+            if (ch == EOF) {
+                return position;
             }
+            int action = ch < actions.length ? actions[ch] : dispatch(ch, context);
+            if (action != SKIP) {
+                return position;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * 按优先级依次询问解析器，用于非ASCII字符以及构建分派表
+     *
+     * @return 第一个能处理该字符的解析器在PARSERS中的序号，没有时返回SKIP
+     */
+    private static byte dispatch(int ch, JsonContext context) {
+        for (int i = 0; i < PARSERS.length; i++) {
+            if (PARSERS[i].accept(ch, context)) {
+                return (byte) i;
+            }
+        }
+        return SKIP;
+    }
 
-            // 如果没有解析器能处理，就忽略当前字符并继续
-            index++;
+    /**
+     * 预先计算ASCII字符的分派表，内置的解析器对ASCII字符的判断只取决于上下文是否为空
+     */
+    private static byte[] dispatchTable(JsonContext context) {
+        byte[] actions = new byte[128];
+        for (int ch = 0; ch < actions.length; ch++) {
+            actions[ch] = dispatch(ch, context);
         }
+        return actions;
+    }
+
+    private static JsonContext nestedContext() {
+        JsonContext context = new JsonContext();
+        context.set(JsonContext.ContextValues.OBJECT_VALUE);
+        return context;
     }
 
     /**
      * 获取指定偏移位置的字符
      *
      * @param count 偏移量
-     * @return 字符，如果超出范围返回null
+     * @return 字符，如果超出范围返回EOF
      */
-    public Character getCharAt(int count) {
-        try {
-            return jsonStr.charAt(index + count);
-        } catch (IndexOutOfBoundsException e) {
-            return null;
+    public int charAt(int count) {
+        int position = index + count;
+        if (count >= lookahead) {
+            return EOF;
         }
+        return source.charAt(position);
+    }
+
+    public int charAt() {
+        return source.charAt(index);
     }
 
-    public Character getCharAt() {
-        return getCharAt(0);
+    /**
+     * 是否是字符串分隔符：双引号、单引号或中文引号
+     */
+    public static boolean isStringDelimiter(int ch) {
+        return ch == '"' || ch == '\'' || ch == '“' || ch == '”';
+    }
+
+    /**
+     * 是否是空白字符，EOF不是空白字符
+     */
+    public static boolean isWhitespace(int ch) {
+        return ch != EOF && Character.isWhitespace(ch);
+    }
+
+    /**
+     * 在指定偏移位置插入一个字符，之后的内容整体后移
+     *
+     * @param count 偏移量
+     * @param c     字符
+     */
+    public void insertAt(int count, char c) {
+        source.insert(index + count, c);
     }
 
     /**
@@ -159,22 +428,14 @@ public class JsonParser {
      * @return 跳过的字符数
      */
     public int skipWhitespacesAt(int idx, boolean moveMainIndex) {
-        try {
-            char ch = jsonStr.charAt(index + idx);
-            while (Character.isWhitespace(ch)) {
-                if (moveMainIndex) {
-                    index++;
-                } else {
-                    idx++;
-                }
-                try {
-                    ch = jsonStr.charAt(index + idx);
-                } catch (IndexOutOfBoundsException e) {
-                    return idx;
-                }
+        int ch = charAt(idx);
+        while (isWhitespace(ch)) {
+            if (moveMainIndex) {
+                index++;
+            } else {
+                idx++;
             }
-        } catch (IndexOutOfBoundsException e) {
-            return idx;
+            ch = charAt(idx);
         }
         return idx;
     }
@@ -193,38 +454,73 @@ public class JsonParser {
      * @param idx       起始偏移
      * @return 找到字符的位置偏移
      */
-    public int skipToCharacter(char character, int idx) {
-        return skipToCharacter(Collections.singletonList(character), idx);
+    public int skipToCharacter(int character, int idx) {
+        return skipToCharacter(character, character, idx);
     }
 
     /**
-     * 跳到指定字符列表中的任一字符
+     * 跳到两个指定字符中的任一字符
      *
-     * @param characters 目标字符列表
-     * @param idx        起始偏移
+     * @param first  目标字符
+     * @param second 目标字符
+     * @param idx    起始偏移
      * @return 找到字符的位置偏移
      */
-    public int skipToCharacter(List<Character> characters, int idx) {
-        try {
-            char ch = jsonStr.charAt(index + idx);
-            while (!characters.contains(ch)) {
-                idx++;
-                try {
-                    ch = jsonStr.charAt(index + idx);
-                } catch (IndexOutOfBoundsException e) {
-                    return idx;
-                }
+    public int skipToCharacter(int first, int second, int idx) {
+        if (idx > 0 && lookahead == Integer.MAX_VALUE) {
+            int position = source.nextUnescaped(first, second, index + idx);
+            if (position >= 0) {
+                return position - index;
+            }
+        }
+        while (true) {
+            int ch = charAt(idx);
+            if (ch == EOF) {
+                return idx;
+            }
+            if ((ch == first || ch == second) && (idx <= 0 || charAt(idx - 1) != '\\')) {
+                return idx;
             }
-            if (idx > 0 && jsonStr.charAt(index + idx - 1) == '\\') {
-                // 这实际上是转义的，继续
-                return skipToCharacter(characters, idx + 1);
+            // 转义的字符不算，继续
+            idx++;
+        }
+    }
+
+    /**
+     * 从偏移idx处的引号开始，在该引号和 ] 组成的序列中每次跳过两个，直到落在 ] 上或者到达输入结束
+     * 用于判断数组中的字符串里引号是否成对出现
+     *
+     * @param quote 引号
+     * @param idx   引号的位置偏移，必须大于0
+     * @return 最终的位置偏移
+     */
+    public int skipPairsToArrayEnd(int quote, int idx) {
+        if (lookahead == Integer.MAX_VALUE) {
+            int position = source.skipUnescapedPairs(quote, index + idx);
+            if (position >= 0) {
+                return position - index;
             }
-        } catch (IndexOutOfBoundsException e) {
-            return idx;
+        }
+        int ch = charAt(idx);
+        while (ch == quote) {
+            idx = skipToCharacter(quote, ']', idx + 1);
+            idx = skipToCharacter(quote, ']', idx + 1);
+            ch = charAt(idx);
         }
         return idx;
     }
 
+    /**
+     * 获取清空后的字符串缓冲区
+     * 子解析器用它累积字符串或数字的内容，缓冲区在下一次调用本方法之前有效，调用方需在此之前取出内容
+     *
+     * @return 共用的缓冲区
+     */
+    public StringBuilder borrowBuffer() {
+        buffer.setLength(0);
+        return buffer;
+    }
+
     /**
      * 记录日志
      *
@@ -234,21 +530,19 @@ public class JsonParser {
         if (logging && logger != null) {
             int window = 10;
             int start = Math.max(index - window, 0);
-            int end = Math.min(index + window, jsonStr.length());
-            String contextStr = jsonStr.substring(start, end);
-            logger.add(new LogEntry(text, contextStr));
+            StringBuilder contextStr = new StringBuilder(window * 2);
+            for (int i = start - index; i < window; i++) {
+                int ch = charAt(i);
+                if (ch == EOF) {
+                    break;
+                }
+                contextStr.append((char) ch);
+            }
+            logger.add(new LogEntry(text, contextStr.toString()));
         }
     }
 
     // Getters
-    public String getJsonStr() {
-        return jsonStr;
-    }
-
-    public void setJsonStr(String jsonStr) {
-        this.jsonStr = jsonStr;
-    }
-
     public int getIndex() {
         return index;
     }
@@ -261,6 +555,10 @@ public class JsonParser {
         return context;
     }
 
+    public JsonEmitter getEmitter() {
+        return emitter;
+    }
+
     public boolean isLogging() {
         return logging;
     }
@@ -269,6 +567,33 @@ public class JsonParser {
         return streamStable;
     }
 
+    public boolean isIterative() {
+        return iterative;
+    }
+
+    /**
+     * 设置是否迭代地解析嵌套的容器
+     * 迭代模式下嵌套的容器保存在堆上的栈中，调用栈的深度与嵌套深度无关，解析结果与递归模式相同
+     *
+     * @param iterative 是否使用迭代模式
+     */
+    public void setIterative(boolean iterative) {
+        this.iterative = iterative;
+    }
+
+    public KeyTable getKeyTable() {
+        return keyTable;
+    }
+
+    /**
+     * 设置对象键的驻留表，解析出的键通过它复用已有的实例，可以由多个解析器共享
+     *
+     * @param keyTable 驻留表，为null时每个键都是新的字符串
+     */
+    public void setKeyTable(KeyTable keyTable) {
+        this.keyTable = keyTable;
+    }
+
 
     /**
      * 日志条目类
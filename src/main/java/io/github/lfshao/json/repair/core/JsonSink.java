@@ -0,0 +1,30 @@
+package io.github.lfshao.json.repair.core;
+
+/**
+ * JSON事件接收器
+ * 解析器按顺序产生的结构化事件会发送到这里，由具体实现决定构建对象树还是直接输出文本
+ */
+public interface JsonSink {
+
+    void startObject();
+
+    void endObject();
+
+    void startArray();
+
+    void endArray();
+
+    /**
+     * 对象的键，后面紧跟着对应的值
+     *
+     * @param key 键
+     */
+    void key(String key);
+
+    /**
+     * 标量值
+     *
+     * @param value String、Number、Boolean或null
+     */
+    void value(Object value);
+}
@@ -0,0 +1,27 @@
+package io.github.lfshao.json.repair.core;
+
+/**
+ * 严格的JSON校验器
+ * 检查输入是否是单个合法的JSON文本，只返回结果，不构建任何对象，也不抛出异常。
+ * 语法规则由StrictJsonScanner定义，这里使用它不分配内存的一次性扫描
+ */
+public final class JsonValidator {
+
+    /**
+     * 输入合法时的返回值
+     */
+    public static final int VALID = -1;
+
+    private JsonValidator() {
+    }
+
+    /**
+     * 检查输入是否是单个合法的JSON文本，前后允许空白
+     *
+     * @param json 输入
+     * @return 合法时返回VALID，否则返回第一个错误的位置；输入提前结束时返回输入的长度
+     */
+    public static int validate(CharSequence json) {
+        return StrictJsonScanner.scanText(json);
+    }
+}
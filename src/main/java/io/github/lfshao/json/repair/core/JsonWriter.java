@@ -0,0 +1,217 @@
+package io.github.lfshao.json.repair.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * JSON文本输出器
+ * 将事件直接写为紧凑格式的JSON文本，转义规则和数字格式与Jackson的默认输出保持一致
+ */
+public class JsonWriter implements JsonSink {
+
+    private static final char[] HEX_CHARS = "0123456789ABCDEF".toCharArray();
+
+    private final Appendable out;
+    // 每一层容器是否已经输出过元素
+    private boolean[] hasElements = new boolean[16];
+    private int depth;
+    private boolean afterKey;
+
+    public JsonWriter(Appendable out) {
+        this.out = out;
+    }
+
+    @Override
+    public void startObject() {
+        beforeValue();
+        push();
+        write('{');
+    }
+
+    @Override
+    public void endObject() {
+        depth--;
+        write('}');
+    }
+
+    @Override
+    public void startArray() {
+        beforeValue();
+        push();
+        write('[');
+    }
+
+    @Override
+    public void endArray() {
+        depth--;
+        write(']');
+    }
+
+    @Override
+    public void key(String key) {
+        beforeValue();
+        try {
+            writeString(out, key);
+            out.append(':');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        afterKey = true;
+    }
+
+    @Override
+    public void value(Object value) {
+        beforeValue();
+        try {
+            writeScalar(out, value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 写出已经是最终格式的键，原样复制，用于从合法的输入中复制不含转义的键
+     *
+     * @param json  包含该键的文本
+     * @param start 开始的引号的位置
+     * @param end   结束的引号之后的位置
+     */
+    public void rawKey(CharSequence json, int start, int end) {
+        beforeValue();
+        try {
+            out.append(json, start, end).append(':');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        afterKey = true;
+    }
+
+    /**
+     * 写出已经是最终格式的标量，原样复制，用于从合法的输入中复制不含转义的字符串和整数
+     *
+     * @param json  包含该标量的文本
+     * @param start 开始位置
+     * @param end   结束位置（不包含）
+     */
+    public void rawValue(CharSequence json, int start, int end) {
+        beforeValue();
+        try {
+            out.append(json, start, end);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 进入一个开始符号已经写出的容器，用于在已有的输出之后继续写入
+     *
+     * @param hasElements 容器中是否已经写出过元素
+     */
+    public void resumeContainer(boolean hasElements) {
+        push();
+        this.hasElements[depth - 1] = hasElements;
+    }
+
+    /**
+     * 输出标量值
+     *
+     * @param out   目标
+     * @param value String、Number、Boolean或null
+     */
+    public static void writeScalar(Appendable out, Object value) throws IOException {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof String) {
+            writeString(out, (String) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                // 与Jackson的WRITE_NAN_AS_STRINGS一致
+                writeString(out, String.valueOf(value));
+            } else {
+                out.append(value.toString());
+            }
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.append(value.toString());
+        } else {
+            writeString(out, value.toString());
+        }
+    }
+
+    /**
+     * 输出带引号并转义后的字符串
+     *
+     * @param out 目标
+     * @param str 字符串
+     */
+    public static void writeString(Appendable out, String str) throws IOException {
+        out.append('"');
+        int start = 0;
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            out.append(str, start, i).append(escape(c));
+            start = i + 1;
+        }
+        out.append(str, start, str.length());
+        out.append('"');
+    }
+
+    /**
+     * 获取需要转义的字符（引号、反斜杠和控制字符）在JSON字符串中的写法
+     *
+     * @param c 字符
+     * @return 转义序列
+     */
+    public static String escape(char c) {
+        switch (c) {
+            case '"':
+                return "\\\"";
+            case '\\':
+                return "\\\\";
+            case '\b':
+                return "\\b";
+            case '\t':
+                return "\\t";
+            case '\n':
+                return "\\n";
+            case '\f':
+                return "\\f";
+            case '\r':
+                return "\\r";
+            default:
+                return new String(new char[]{'\\', 'u', '0', '0', HEX_CHARS[c >> 4], HEX_CHARS[c & 0xF]});
+        }
+    }
+
+    private void beforeValue() {
+        if (afterKey) {
+            afterKey = false;
+            return;
+        }
+        if (depth > 0) {
+            if (hasElements[depth - 1]) {
+                write(',');
+            }
+            hasElements[depth - 1] = true;
+        }
+    }
+
+    private void push() {
+        if (depth == hasElements.length) {
+            hasElements = Arrays.copyOf(hasElements, depth * 2);
+        }
+        hasElements[depth++] = false;
+    }
+
+    private void write(char c) {
+        try {
+            out.append(c);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.lfshao.json.repair.core;
+
+/**
+ * 对象键的驻留表
+ * 解析出的键直接与字符串缓冲区中的字符比较，已经出现过的键返回同一个String实例，不再为其分配新的字符串，
+ * 大量结构相同的记录（例如一批JSON Lines）修复后的对象树因此共享键的实例。
+ * <p>
+ * 表的大小固定，每个槽位只保存一个键，冲突时新的键覆盖旧的键，因此内存占用有上限；超过MAX_KEY_LENGTH的键不会驻留。
+ * 可以被多个线程共享：槽位的读写没有加锁，String不可变，竞争时最多导致一次未命中
+ */
+public final class KeyTable {
+
+    // 驻留的键的最大长度（字符数）
+    public static final int MAX_KEY_LENGTH = 64;
+
+    private final String[] slots;
+    private final int mask;
+
+    /**
+     * @param capacity 槽位数，向上取整为2的幂
+     */
+    public KeyTable(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new String[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * 返回与chars内容相同的字符串，表中已有时返回表中的实例
+     *
+     * @param chars 键的字符
+     * @return 内容相同的字符串
+     */
+    public String intern(CharSequence chars) {
+        int length = chars.length();
+        if (length > MAX_KEY_LENGTH) {
+            return chars.toString();
+        }
+        // 与String.hashCode相同，命中时可以直接使用String缓存的哈希
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + chars.charAt(i);
+        }
+        int slot = (h ^ h >>> 16) & mask;
+        String key = slots[slot];
+        if (key != null && key.hashCode() == h && key.contentEquals(chars)) {
+            return key;
+        }
+        key = chars.toString();
+        slots[slot] = key;
+        return key;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
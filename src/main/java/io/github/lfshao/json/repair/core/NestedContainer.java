@@ -0,0 +1,15 @@
+package io.github.lfshao.json.repair.core;
+
+/**
+ * 迭代模式下容器解析器遇到嵌套的容器时返回的标记
+ * 容器解析器把自己的状态保存在ContainerFrame中后返回该标记，由JsonParser.parseContainer解析嵌套的容器，
+ * 之后再调用容器解析器的resume方法继续
+ */
+public enum NestedContainer {
+    // 嵌套的对象，开始字符已被跳过（如果有）
+    OBJECT,
+    // 嵌套的数组，开始字符已被跳过
+    ARRAY,
+    // 与当前输出分开解析的数组，解析结果以对象树的形式交给resume，用于合并相邻的数组
+    DETACHED_ARRAY
+}
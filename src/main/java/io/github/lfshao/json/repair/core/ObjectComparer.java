@@ -1,5 +1,6 @@
 package io.github.lfshao.json.repair.core;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -11,64 +12,69 @@ import java.util.Set;
 public class ObjectComparer {
 
     /**
-     * 递归比较两个对象，确保：
+     * 比较两个对象，确保：
      * - 它们的类型匹配
      * - 它们的键/结构匹配
+     * 使用显式的栈遍历，嵌套很深的对象也不会耗尽调用栈
      *
      * @param obj1 第一个对象
      * @param obj2 第二个对象
      * @return 如果对象结构相同返回true，否则返回false
      */
     public static boolean isSameObject(Object obj1, Object obj2) {
-        // 如果类型不匹配，立即返回false
-        if (obj1 == null && obj2 == null) {
-            return true;
-        }
-        if (obj1 == null || obj2 == null) {
-            return false;
-        }
-        if (!obj1.getClass().equals(obj2.getClass())) {
-            return false;
-        }
-
-        if (obj1 instanceof Map) {
-            Map<?, ?> map1 = (Map<?, ?>) obj1;
-            Map<?, ?> map2 = (Map<?, ?>) obj2;
+        // 待比较的值，成对存放
+        List<Object> pending = new ArrayList<>();
+        pending.add(obj1);
+        pending.add(obj2);
+        while (!pending.isEmpty()) {
+            Object second = pending.remove(pending.size() - 1);
+            Object first = pending.remove(pending.size() - 1);
 
-            // 检查两个都是Map且长度相同
-            if (map1.size() != map2.size()) {
+            // 如果类型不匹配，立即返回false
+            if (first == null && second == null) {
+                continue;
+            }
+            if (first == null || second == null) {
+                return false;
+            }
+            if (!first.getClass().equals(second.getClass())) {
                 return false;
             }
 
-            for (Object key : map1.keySet()) {
-                if (!map2.containsKey(key)) {
-                    return false;
-                }
-                // 递归比较每个值
-                if (!isSameObject(map1.get(key), map2.get(key))) {
+            if (first instanceof Map) {
+                Map<?, ?> map1 = (Map<?, ?>) first;
+                Map<?, ?> map2 = (Map<?, ?>) second;
+
+                // 检查两个都是Map且长度相同
+                if (map1.size() != map2.size()) {
                     return false;
                 }
-            }
-            return true;
-        } else if (obj1 instanceof List) {
-            List<?> list1 = (List<?>) obj1;
-            List<?> list2 = (List<?>) obj2;
 
-            // 检查两个都是List且长度相同
-            if (list1.size() != list2.size()) {
-                return false;
-            }
+                for (Object key : map1.keySet()) {
+                    if (!map2.containsKey(key)) {
+                        return false;
+                    }
+                    // 之后比较每个值
+                    pending.add(map1.get(key));
+                    pending.add(map2.get(key));
+                }
+            } else if (first instanceof List) {
+                List<?> list1 = (List<?>) first;
+                List<?> list2 = (List<?>) second;
 
-            // 递归比较每个元素
-            for (int i = 0; i < list1.size(); i++) {
-                if (!isSameObject(list1.get(i), list2.get(i))) {
+                // 检查两个都是List且长度相同
+                if (list1.size() != list2.size()) {
                     return false;
                 }
+
+                // 之后比较每个元素
+                for (int i = 0; i < list1.size(); i++) {
+                    pending.add(list1.get(i));
+                    pending.add(list2.get(i));
+                }
             }
-            return true;
+            // 对于原子值：类型已经匹配
         }
-
-        // 对于原子值：类型已经匹配，返回true
         return true;
     }
 
@@ -80,7 +86,9 @@ public class ObjectComparer {
      * @return 如果是严格的空值返回true
      */
     public static boolean isStrictlyEmpty(Object value) {
-        if (value instanceof String) {
+        if (value == EmittedContainer.EMPTY) {
+            return true;
+        } else if (value instanceof String) {
             return ((String) value).isEmpty();
         } else if (value instanceof List) {
             return ((List<?>) value).isEmpty();
@@ -0,0 +1,135 @@
+package io.github.lfshao.json.repair.core;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * 基于Reader的输入
+ * 只在内存中保留一个固定大小的滑动窗口：当前位置之前的一小段用于回退，之后的一段用于向前查看，
+ * 更早的内容在读取新内容时被丢弃，因此内存占用与输入的大小无关。
+ * <p>
+ * 向前查看的范围限制为窗口的一半，超出的部分在解析器看来相当于输入结束；
+ * 回退超出保留范围时抛出IllegalStateException
+ */
+public class ReaderCharSource implements CharSource {
+
+    // 默认窗口大小（字符数）
+    public static final int DEFAULT_WINDOW = 1 << 20;
+
+    private final Reader reader;
+    // 向前查看的范围
+    private final int lookahead;
+    // 当前位置之前保留的范围
+    private final int lookbehind;
+    private char[] buffer;
+    // buffer[0]对应的绝对位置
+    private long base;
+    // buffer中有效的字符数
+    private int filled;
+    private boolean eof;
+
+    public ReaderCharSource(Reader reader) {
+        this(reader, DEFAULT_WINDOW);
+    }
+
+    /**
+     * @param reader 输入
+     * @param window 窗口大小（字符数），至少为64
+     */
+    public ReaderCharSource(Reader reader, int window) {
+        if (window < 64) {
+            throw new IllegalArgumentException("window: " + window);
+        }
+        this.reader = reader;
+        this.buffer = new char[window];
+        this.lookahead = window / 2;
+        this.lookbehind = window / 8;
+    }
+
+    @Override
+    public int charAt(int position) {
+        if (position < 0) {
+            return EOF;
+        }
+        int offset = offset(position);
+        if (offset >= filled) {
+            if (eof) {
+                return EOF;
+            }
+            fill(position);
+            offset = offset(position);
+            if (offset >= filled) {
+                return EOF;
+            }
+        }
+        return buffer[offset];
+    }
+
+    @Override
+    public void insert(int position, char c) {
+        // 确保插入位置之前的内容已经读入
+        charAt(position - 1);
+        if (filled == buffer.length) {
+            discard(position - lookbehind);
+            if (filled == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length + lookbehind);
+            }
+        }
+        int offset = offset(position);
+        System.arraycopy(buffer, offset, buffer, offset + 1, filled - offset);
+        buffer[offset] = c;
+        filled++;
+    }
+
+    @Override
+    public int getLookahead() {
+        return lookahead;
+    }
+
+    private int offset(int position) {
+        long offset = position - base;
+        if (offset < 0) {
+            throw new IllegalStateException("Position " + position + " is no longer in the window");
+        }
+        return (int) Math.min(offset, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 读取新内容直到包含position或输入结束
+     * 解析器访问的位置不会超过当前位置加上向前查看的范围，据此丢弃当前位置回退范围之前的内容
+     */
+    private void fill(int position) {
+        discard(position - lookahead - lookbehind);
+        try {
+            while (!eof && filled < buffer.length) {
+                int n = reader.read(buffer, filled, buffer.length - filled);
+                if (n < 0) {
+                    eof = true;
+                } else {
+                    filled += n;
+                    if (position - base < filled) {
+                        break;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (position - base >= filled && !eof) {
+            // 窗口已满但仍然没有读到position，说明调用方超出了向前查看的范围
+            throw new IllegalStateException("Position " + position + " is beyond the window");
+        }
+    }
+
+    private void discard(long newBase) {
+        int count = (int) Math.min(newBase - base, filled);
+        if (count <= 0) {
+            return;
+        }
+        System.arraycopy(buffer, count, buffer, 0, filled - count);
+        filled -= count;
+        base += count;
+    }
+}
@@ -0,0 +1,158 @@
+package io.github.lfshao.json.repair.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 顶层元素收集器
+ * 负责多JSON合并的规则：输入中出现多个顶层元素时合并为数组，结构相同的相邻元素只保留后一个。
+ * <p>
+ * 输出到下游sink时，第一个顶层元素在预算内会先缓存为对象树，以便之后还能包装成数组；
+ * 超出预算后改为直接转发事件，此时后续的顶层元素无法再合并，会被忽略。
+ */
+class RootCollector implements JsonSink {
+
+    // 输出到下游时缓存第一个顶层元素的预算（约等于字符数）
+    static final long BUFFER_LIMIT = 1 << 16;
+
+    private final JsonParser parser;
+    private final JsonSink downstream;
+    private final long budget;
+    private final List<Object> roots = new ArrayList<>();
+    private TreeBuilder current;
+    private int depth;
+    private long used;
+    // 第一个顶层元素已经直接转发给下游
+    private boolean streaming;
+    // 直接转发之后出现的顶层元素，只能忽略
+    private boolean discarding;
+
+    RootCollector(JsonParser parser, JsonSink downstream, long budget) {
+        this.parser = parser;
+        this.downstream = downstream;
+        this.budget = budget;
+    }
+
+    @Override
+    public void startObject() {
+        beforeEvent(true, 1);
+        if (!discarding) {
+            target().startObject();
+        }
+        depth++;
+    }
+
+    @Override
+    public void endObject() {
+        depth--;
+        if (!discarding) {
+            target().endObject();
+        }
+        afterEvent();
+    }
+
+    @Override
+    public void startArray() {
+        beforeEvent(true, 1);
+        if (!discarding) {
+            target().startArray();
+        }
+        depth++;
+    }
+
+    @Override
+    public void endArray() {
+        depth--;
+        if (!discarding) {
+            target().endArray();
+        }
+        afterEvent();
+    }
+
+    @Override
+    public void key(String key) {
+        beforeEvent(false, 1 + key.length());
+        if (!discarding) {
+            target().key(key);
+        }
+    }
+
+    @Override
+    public void value(Object value) {
+        beforeEvent(true, value instanceof String ? 1 + ((String) value).length() : 1);
+        if (!discarding) {
+            target().value(value);
+        }
+        afterEvent();
+    }
+
+    /**
+     * 已收集的顶层元素数量
+     */
+    int size() {
+        return streaming ? 1 : roots.size();
+    }
+
+    /**
+     * 获取合并后的结果（对象树模式）
+     *
+     * @return 没有元素时返回空字符串，只有一个元素时返回该元素，否则返回元素列表
+     */
+    Object getResult() {
+        if (roots.isEmpty()) {
+            return "";
+        }
+        return roots.size() == 1 ? roots.get(0) : roots;
+    }
+
+    /**
+     * 解析结束，将缓存的结果输出到下游
+     */
+    void finish() {
+        if (downstream == null || streaming || roots.isEmpty()) {
+            return;
+        }
+        TreeBuilder.replay(getResult(), downstream);
+    }
+
+    private JsonSink target() {
+        return streaming ? downstream : current;
+    }
+
+    private void beforeEvent(boolean isValue, int cost) {
+        if (depth == 0 && isValue) {
+            if (streaming) {
+                parser.log("Found another json element after the first one was already written out, ignoring it");
+                discarding = true;
+            } else {
+                current = new TreeBuilder();
+                used = 0;
+            }
+        }
+        if (!streaming && downstream != null && roots.isEmpty()) {
+            used += cost;
+            if (used > budget) {
+                // 第一个元素太大，改为直接输出
+                current.replayOpen(downstream);
+                current = null;
+                streaming = true;
+            }
+        }
+    }
+
+    private void afterEvent() {
+        if (depth != 0) {
+            return;
+        }
+        if (streaming) {
+            return;
+        }
+        Object json = current.getRoot();
+        current = null;
+        if (!roots.isEmpty() && ObjectComparer.isSameObject(roots.get(roots.size() - 1), json)) {
+            // 用新的替换最后一个条目，因为新的似乎是更新
+            roots.remove(roots.size() - 1);
+        }
+        roots.add(json);
+    }
+}
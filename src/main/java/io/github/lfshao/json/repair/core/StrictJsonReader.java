@@ -0,0 +1,371 @@
+package io.github.lfshao.json.repair.core;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * 合法JSON的事件读取器
+ * 把已经通过JsonValidator检查的输入逐个token转换为事件，不构建对象树，也不做任何修复。
+ * 这里不检查语法，只按合法输入的结构切分token；语法规则只由StrictJsonScanner定义。
+ * 数字的类型与常见的JSON解析器一致：整数使用Integer、Long、BigInteger中能容纳它的最小类型，小数和带指数的数字使用Double。
+ * 容器栈保存在堆上，嵌套深度不受调用栈的限制。
+ * sink是JsonWriter时，不含转义的字符串和整数的写法与JsonWriter的输出相同，直接复制原文，不创建中间对象
+ */
+public final class StrictJsonReader {
+
+    private StrictJsonReader() {
+    }
+
+    /**
+     * 检查合法的输入中是否可能有对象包含重复的键，不解析值
+     * 比较的是解码后的键的哈希，哈希冲突时也视为重复，调用方按重复的键处理（例如通过对象树保留最后一个值）结果仍然正确
+     *
+     * @param json 已经确认合法的JSON
+     * @return 可能有重复的键时返回true
+     */
+    public static boolean hasDuplicateKeys(CharSequence json) {
+        return !read(json, null, true);
+    }
+
+    /**
+     * 把合法的输入转换为事件发送给sink
+     *
+     * @param json             已经确认合法的JSON
+     * @param sink             事件的接收者，为null时只检查重复的键
+     * @param rejectDuplicates 为true时在对象中遇到可能重复的键立即停止，此时sink已经收到了这个键之前的事件
+     * @return 读取完整个输入时返回true，因为重复的键停止时返回false
+     */
+    public static boolean read(CharSequence json, JsonSink sink, boolean rejectDuplicates) {
+        int length = json.length();
+        // 每层容器是否是对象
+        boolean[] objects = new boolean[16];
+        KeyHashes keys = rejectDuplicates ? new KeyHashes() : null;
+        int depth = 0;
+        // 下一个字符串是否是键
+        boolean keyNext = false;
+        StringBuilder buffer = null;
+        JsonWriter writer = sink instanceof JsonWriter ? (JsonWriter) sink : null;
+        int i = 0;
+        while (i < length) {
+            char c = json.charAt(i);
+            switch (c) {
+                case '{':
+                case '[':
+                    if (depth == objects.length) {
+                        objects = Arrays.copyOf(objects, depth * 2);
+                    }
+                    if (keys != null) {
+                        keys.push();
+                    }
+                    keyNext = c == '{';
+                    objects[depth++] = keyNext;
+                    if (sink != null) {
+                        if (keyNext) {
+                            sink.startObject();
+                        } else {
+                            sink.startArray();
+                        }
+                    }
+                    i++;
+                    break;
+                case '}':
+                case ']':
+                    depth--;
+                    if (keys != null) {
+                        keys.pop();
+                    }
+                    if (sink != null) {
+                        if (c == '}') {
+                            sink.endObject();
+                        } else {
+                            sink.endArray();
+                        }
+                    }
+                    keyNext = false;
+                    i++;
+                    break;
+                case ',':
+                    keyNext = objects[depth - 1];
+                    i++;
+                    break;
+                case ':':
+                case ' ':
+                case '\t':
+                case '\n':
+                case '\r':
+                    i++;
+                    break;
+                case '"': {
+                    int end = i + 1;
+                    boolean escaped = false;
+                    while (true) {
+                        char ch = json.charAt(end);
+                        if (ch == '"') {
+                            break;
+                        }
+                        if (ch == '\\') {
+                            escaped = true;
+                            end++;
+                        }
+                        end++;
+                    }
+                    if (keyNext && keys != null && !keys.add(hash(json, i + 1, end))) {
+                        return false;
+                    }
+                    if (writer != null && !escaped) {
+                        // 合法的字符串中没有控制字符，不含转义时不需要重新转义
+                        if (keyNext) {
+                            writer.rawKey(json, i, end + 1);
+                        } else {
+                            writer.rawValue(json, i, end + 1);
+                        }
+                    } else if (sink != null) {
+                        String text;
+                        if (escaped) {
+                            if (buffer == null) {
+                                buffer = new StringBuilder();
+                            }
+                            text = unescape(json, i + 1, end, buffer);
+                        } else {
+                            text = json.subSequence(i + 1, end).toString();
+                        }
+                        if (keyNext) {
+                            sink.key(text);
+                        } else {
+                            sink.value(text);
+                        }
+                    }
+                    keyNext = false;
+                    i = end + 1;
+                    break;
+                }
+                case 't':
+                    if (sink != null) {
+                        sink.value(Boolean.TRUE);
+                    }
+                    i += 4;
+                    break;
+                case 'f':
+                    if (sink != null) {
+                        sink.value(Boolean.FALSE);
+                    }
+                    i += 5;
+                    break;
+                case 'n':
+                    if (sink != null) {
+                        sink.value(null);
+                    }
+                    i += 4;
+                    break;
+                default: {
+                    // 数字
+                    int end = i;
+                    boolean decimal = false;
+                    while (end < length) {
+                        char ch = json.charAt(end);
+                        if (ch == '.' || ch == 'e' || ch == 'E') {
+                            decimal = true;
+                        } else if ((ch < '0' || ch > '9') && ch != '-' && ch != '+') {
+                            break;
+                        }
+                        end++;
+                    }
+                    if (writer != null && !decimal && !(end - i == 2 && json.charAt(i) == '-' && json.charAt(i + 1) == '0')) {
+                        // 合法的整数没有多余的前导零，除了-0以外写法与解析后再输出相同
+                        writer.rawValue(json, i, end);
+                    } else if (sink != null) {
+                        String text = json.subSequence(i, end).toString();
+                        sink.value(decimal ? Double.valueOf(text) : parseInteger(text));
+                    }
+                    i = end;
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 计算start到end之间字符串内容解码后的哈希，与String.hashCode相同
+     */
+    private static int hash(CharSequence json, int start, int end) {
+        int h = 0;
+        int i = start;
+        while (i < end) {
+            char c = json.charAt(i++);
+            if (c == '\\') {
+                c = json.charAt(i++);
+                switch (c) {
+                    case 'b':
+                        c = '\b';
+                        break;
+                    case 'f':
+                        c = '\f';
+                        break;
+                    case 'n':
+                        c = '\n';
+                        break;
+                    case 'r':
+                        c = '\r';
+                        break;
+                    case 't':
+                        c = '\t';
+                        break;
+                    case 'u':
+                        c = (char) Integer.parseInt(json.subSequence(i, i + 4).toString(), 16);
+                        i += 4;
+                        break;
+                    default:
+                        break;
+                }
+            }
+            h = 31 * h + c;
+        }
+        return h;
+    }
+
+    private static Number parseInteger(String text) {
+        int digits = text.charAt(0) == '-' ? text.length() - 1 : text.length();
+        if (digits <= 18) {
+            long value = Long.parseLong(text);
+            return value == (int) value ? (Number) (int) value : (Number) value;
+        }
+        BigInteger value = new BigInteger(text);
+        return value.bitLength() < 64 ? (Number) value.longValue() : value;
+    }
+
+    /**
+     * 解码start到end之间带转义的字符串内容
+     */
+    private static String unescape(CharSequence json, int start, int end, StringBuilder buffer) {
+        buffer.setLength(0);
+        int i = start;
+        while (i < end) {
+            char c = json.charAt(i++);
+            if (c != '\\') {
+                buffer.append(c);
+                continue;
+            }
+            char escape = json.charAt(i++);
+            switch (escape) {
+                case 'b':
+                    buffer.append('\b');
+                    break;
+                case 'f':
+                    buffer.append('\f');
+                    break;
+                case 'n':
+                    buffer.append('\n');
+                    break;
+                case 'r':
+                    buffer.append('\r');
+                    break;
+                case 't':
+                    buffer.append('\t');
+                    break;
+                case 'u':
+                    buffer.append((char) Integer.parseInt(json.subSequence(i, i + 4).toString(), 16));
+                    i += 4;
+                    break;
+                default:
+                    // " \ /
+                    buffer.append(escape);
+                    break;
+            }
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * 每层容器中已经出现的键的哈希
+     * 所有层共用一个数组，每层占用从自己开始位置到末尾的部分；键较多的对象改用该层自己的开放寻址哈希表
+     */
+    private static final class KeyHashes {
+
+        // 超过这个数量的键时改用哈希表
+        private static final int LINEAR_KEYS = 8;
+
+        private int[] hashes = new int[64];
+        private int count;
+        private int[] starts = new int[16];
+        private int[][] tables = new int[16][];
+        private int[] tableSizes = new int[16];
+        private int depth;
+
+        void push() {
+            if (depth == starts.length) {
+                starts = Arrays.copyOf(starts, depth * 2);
+                tables = Arrays.copyOf(tables, depth * 2);
+                tableSizes = Arrays.copyOf(tableSizes, depth * 2);
+            }
+            starts[depth] = count;
+            tables[depth] = null;
+            depth++;
+        }
+
+        void pop() {
+            depth--;
+            count = starts[depth];
+            tables[depth] = null;
+        }
+
+        /**
+         * @return 当前对象中已经有相同哈希的键时返回false
+         */
+        boolean add(int hash) {
+            int level = depth - 1;
+            // 0表示哈希表中的空位
+            hash = hash == 0 ? 1 : hash;
+            if (tables[level] == null) {
+                int start = starts[level];
+                for (int k = start; k < count; k++) {
+                    if (hashes[k] == hash) {
+                        return false;
+                    }
+                }
+                if (count - start < LINEAR_KEYS) {
+                    if (count == hashes.length) {
+                        hashes = Arrays.copyOf(hashes, count * 2);
+                    }
+                    hashes[count++] = hash;
+                    return true;
+                }
+                // 把已有的键移到哈希表中
+                int[] table = new int[LINEAR_KEYS * 4];
+                for (int k = start; k < count; k++) {
+                    insert(table, hashes[k]);
+                }
+                tables[level] = table;
+                tableSizes[level] = count - start;
+                count = start;
+            }
+            int[] table = tables[level];
+            if (!insert(table, hash)) {
+                return false;
+            }
+            if (++tableSizes[level] * 2 > table.length) {
+                int[] larger = new int[table.length * 2];
+                for (int h : table) {
+                    if (h != 0) {
+                        insert(larger, h);
+                    }
+                }
+                tables[level] = larger;
+            }
+            return true;
+        }
+
+        private static boolean insert(int[] table, int hash) {
+            int mask = table.length - 1;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (table[slot] != 0) {
+                if (table[slot] == hash) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = hash;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,506 @@
+package io.github.lfshao.json.repair.core;
+
+import java.util.Arrays;
+
+/**
+ * 严格的JSON扫描器
+ * 按RFC 8259逐个字符检查输入，只维护容器栈和当前状态，可以在任意位置暂停并在追加输入后继续
+ */
+public class StrictJsonScanner {
+
+    // 等待顶层元素
+    public static final int BEFORE_ROOT = 0;
+    // 顶层元素已经结束，只允许空白
+    public static final int AFTER_ROOT = 1;
+    // 数组刚开始，等待元素或 ]
+    public static final int ARRAY_FIRST = 2;
+    // 数组中的逗号之后，等待元素
+    public static final int ARRAY_VALUE = 3;
+    // 数组元素之后，等待 , 或 ]
+    public static final int ARRAY_NEXT = 4;
+    // 对象刚开始，等待键或 }
+    public static final int OBJECT_FIRST = 5;
+    // 对象中的逗号之后，等待键
+    public static final int OBJECT_KEY = 6;
+    // 键之后，等待 :
+    public static final int OBJECT_COLON = 7;
+    // 冒号之后，等待值
+    public static final int OBJECT_VALUE = 8;
+    // 成员之后，等待 , 或 }
+    public static final int OBJECT_NEXT = 9;
+    // 字符串内部
+    public static final int STRING = 10;
+    // 字符串中的 \ 之后
+    public static final int STRING_ESCAPE = 11;
+    // 字符串中的 \\u 之后，等待十六进制数字
+    public static final int STRING_UNICODE = 12;
+    // 数字内部
+    public static final int NUMBER = 13;
+    // true、false、null内部
+    public static final int LITERAL = 14;
+    // 输入不合法
+    public static final int ERROR = 15;
+
+    // 可以开始一个值的状态
+    private static final int VALUE_START = 1 << BEFORE_ROOT | 1 << ARRAY_FIRST | 1 << ARRAY_VALUE | 1 << OBJECT_VALUE;
+
+    // 数字的内部状态
+    private static final int NUMBER_MINUS = 0;
+    private static final int NUMBER_ZERO = 1;
+    private static final int NUMBER_INT = 2;
+    private static final int NUMBER_DOT = 3;
+    private static final int NUMBER_FRACTION = 4;
+    private static final int NUMBER_EXPONENT = 5;
+    private static final int NUMBER_EXPONENT_SIGN = 6;
+    private static final int NUMBER_EXPONENT_DIGITS = 7;
+
+    // 容器栈，每层一位，1表示对象；前64层放在objects中，更深的放在deeper中
+    private long objects;
+    private long[] deeper;
+    private int depth;
+    private int state = BEFORE_ROOT;
+    private boolean keyString;
+    private int unicodeRemaining;
+    private int numberState;
+    private String literal;
+    private int literalIndex;
+
+    /**
+     * 依次扫描json中from到to之间的字符，可以分多次扫描一段连续的输入，每次从上一次结束的位置继续
+     * 字符串中的普通字符不改变状态，在内层循环中直接跳过
+     *
+     * @param json 输入
+     * @param from 开始位置
+     * @param to   结束位置（不包含）
+     * @return 全部合法时返回to，否则返回第一个不合法字符的位置，此时扫描器进入ERROR状态
+     */
+    public int scan(CharSequence json, int from, int to) {
+        return scan(this, json, from, to);
+    }
+
+    /**
+     * 一次检查完整的输入是否是单个合法的JSON文本，前后允许空白
+     * 不创建扫描器，嵌套不超过64层时不分配内存
+     *
+     * @param json 输入
+     * @return 合法时返回-1，否则返回第一个不合法字符的位置；输入提前结束时返回输入的长度
+     */
+    public static int scanText(CharSequence json) {
+        return scan(null, json, 0, json.length());
+    }
+
+    /**
+     * 状态放在局部变量中；scanner为null时从初始状态开始扫描完整的输入，否则从scanner的状态继续，结束时写回
+     */
+    private static int scan(StrictJsonScanner scanner, CharSequence json, int from, int to) {
+        int state = BEFORE_ROOT;
+        long objects = 0;
+        long[] deeper = null;
+        int depth = 0;
+        boolean keyString = false;
+        int unicodeRemaining = 0;
+        int numberState = 0;
+        String literal = null;
+        int literalIndex = 0;
+        if (scanner != null) {
+            state = scanner.state;
+            objects = scanner.objects;
+            deeper = scanner.deeper;
+            depth = scanner.depth;
+            keyString = scanner.keyString;
+            unicodeRemaining = scanner.unicodeRemaining;
+            numberState = scanner.numberState;
+            literal = scanner.literal;
+            literalIndex = scanner.literalIndex;
+        }
+
+        int i = from;
+        int error = -1;
+        scan:
+        while (i < to) {
+            char c = json.charAt(i);
+            switch (state) {
+                case STRING:
+                    i = skipPlainChars(json, i, to);
+                    if (i == to) {
+                        break scan;
+                    }
+                    c = json.charAt(i);
+                    if (c == '"') {
+                        state = keyString ? OBJECT_COLON : afterValue(objects, deeper, depth);
+                    } else if (c == '\\') {
+                        state = STRING_ESCAPE;
+                    } else {
+                        error = i;
+                        break scan;
+                    }
+                    break;
+                case STRING_ESCAPE:
+                    if (c == 'u') {
+                        unicodeRemaining = 4;
+                        state = STRING_UNICODE;
+                    } else if (c == '"' || c == '\\' || c == '/' || c == 'b' || c == 'f' || c == 'n' || c == 'r' || c == 't') {
+                        state = STRING;
+                    } else {
+                        error = i;
+                        break scan;
+                    }
+                    break;
+                case STRING_UNICODE:
+                    if (!isHexDigit(c)) {
+                        error = i;
+                        break scan;
+                    }
+                    if (--unicodeRemaining == 0) {
+                        state = STRING;
+                    }
+                    break;
+                case NUMBER: {
+                    if (c >= '0' && c <= '9' && (numberState == NUMBER_INT || numberState == NUMBER_FRACTION
+                            || numberState == NUMBER_EXPONENT_DIGITS)) {
+                        // 连续的数字不改变状态
+                        do {
+                            if (++i == to) {
+                                break scan;
+                            }
+                            c = json.charAt(i);
+                        } while (c >= '0' && c <= '9');
+                    }
+                    int next = nextNumberState(numberState, c);
+                    if (next >= 0) {
+                        numberState = next;
+                        break;
+                    }
+                    if (!isNumberComplete(numberState)) {
+                        error = i;
+                        break scan;
+                    }
+                    // 数字在这个字符之前结束，按结构字符重新处理这个字符
+                    state = afterValue(objects, deeper, depth);
+                    continue;
+                }
+                case LITERAL:
+                    if (c != literal.charAt(literalIndex)) {
+                        error = i;
+                        break scan;
+                    }
+                    if (++literalIndex == literal.length()) {
+                        state = afterValue(objects, deeper, depth);
+                    }
+                    break;
+                case ERROR:
+                    error = i;
+                    break scan;
+                default:
+                    // 结构状态，连续的结构字符和完整的字符串、字面量都在这个循环中处理，不回到外层的状态分派
+                    while (true) {
+                        if (!isWhitespace(c)) {
+                            boolean valueStart = (VALUE_START & (1 << state)) != 0;
+                            switch (c) {
+                                case '"':
+                                    if (!valueStart && state != OBJECT_FIRST && state != OBJECT_KEY) {
+                                        error = i;
+                                        break scan;
+                                    }
+                                    keyString = !valueStart;
+                                    state = STRING;
+                                    int end = skipPlainChars(json, i + 1, to);
+                                    if (end < to && json.charAt(end) == '"') {
+                                        state = keyString ? OBJECT_COLON : afterValue(objects, deeper, depth);
+                                        i = end;
+                                    } else {
+                                        // 字符串没有在这里结束时，由STRING状态从end处继续
+                                        i = end - 1;
+                                    }
+                                    break;
+                                case ':':
+                                    if (state != OBJECT_COLON) {
+                                        error = i;
+                                        break scan;
+                                    }
+                                    state = OBJECT_VALUE;
+                                    break;
+                                case ',':
+                                    if (state != ARRAY_NEXT && state != OBJECT_NEXT) {
+                                        error = i;
+                                        break scan;
+                                    }
+                                    state = state == ARRAY_NEXT ? ARRAY_VALUE : OBJECT_KEY;
+                                    break;
+                                case '{':
+                                case '[':
+                                    if (!valueStart) {
+                                        error = i;
+                                        break scan;
+                                    }
+                                    boolean object = c == '{';
+                                    if (depth < 64) {
+                                        objects = object ? objects | 1L << depth : objects & ~(1L << depth);
+                                    } else {
+                                        deeper = push(deeper, depth, object);
+                                    }
+                                    depth++;
+                                    state = object ? OBJECT_FIRST : ARRAY_FIRST;
+                                    break;
+                                case '}':
+                                case ']':
+                                    if (c == ']' ? state != ARRAY_FIRST && state != ARRAY_NEXT
+                                            : state != OBJECT_FIRST && state != OBJECT_NEXT) {
+                                        error = i;
+                                        break scan;
+                                    }
+                                    depth--;
+                                    state = afterValue(objects, deeper, depth);
+                                    break;
+                                case 't':
+                                case 'f':
+                                case 'n':
+                                    if (!valueStart) {
+                                        error = i;
+                                        break scan;
+                                    }
+                                    literal = c == 't' ? "true" : c == 'f' ? "false" : "null";
+                                    literalIndex = matchLiteral(json, i, to, literal);
+                                    // 不匹配或者输入不完整时，由LITERAL状态从第一个不匹配的字符继续
+                                    state = literalIndex == literal.length() ? afterValue(objects, deeper, depth) : LITERAL;
+                                    i += literalIndex - 1;
+                                    break;
+                                default:
+                                    if (!valueStart || (c != '-' && (c < '0' || c > '9'))) {
+                                        error = i;
+                                        break scan;
+                                    }
+                                    numberState = c == '-' ? NUMBER_MINUS : c == '0' ? NUMBER_ZERO : NUMBER_INT;
+                                    int next;
+                                    while (++i < to && (next = nextNumberState(numberState, json.charAt(i))) >= 0) {
+                                        numberState = next;
+                                    }
+                                    if (i == to) {
+                                        // 输入不完整，追加输入后由NUMBER状态继续
+                                        state = NUMBER;
+                                        break scan;
+                                    }
+                                    if (!isNumberComplete(numberState)) {
+                                        error = i;
+                                        break scan;
+                                    }
+                                    // 数字之后的字符按结构字符处理
+                                    state = afterValue(objects, deeper, depth);
+                                    c = json.charAt(i);
+                                    continue;
+                            }
+                            if (state > OBJECT_NEXT) {
+                                break;
+                            }
+                        }
+                        if (++i == to) {
+                            break scan;
+                        }
+                        c = json.charAt(i);
+                    }
+                    break;
+            }
+            i++;
+        }
+
+        if (scanner == null) {
+            if (error >= 0) {
+                return error;
+            }
+            if (state == NUMBER && isNumberComplete(numberState)) {
+                state = afterValue(objects, deeper, depth);
+            }
+            return state == AFTER_ROOT ? -1 : to;
+        }
+        scanner.objects = objects;
+        scanner.deeper = deeper;
+        scanner.depth = depth;
+        scanner.keyString = keyString;
+        scanner.unicodeRemaining = unicodeRemaining;
+        scanner.numberState = numberState;
+        scanner.literal = literal;
+        scanner.literalIndex = literalIndex;
+        if (error >= 0) {
+            scanner.state = ERROR;
+            return error;
+        }
+        scanner.state = state;
+        return to;
+    }
+
+    /**
+     * 输入结束
+     *
+     * @return 输入是否是一个完整的JSON文本
+     */
+    public boolean finish() {
+        if (state == NUMBER && isNumberComplete(numberState)) {
+            state = afterValue(objects, deeper, depth);
+        }
+        return state == AFTER_ROOT;
+    }
+
+    /**
+     * 当前状态
+     */
+    public int getState() {
+        return state;
+    }
+
+    /**
+     * 当前是否在字符串内部（包括转义序列中）
+     */
+    public boolean isInString() {
+        return state == STRING || state == STRING_ESCAPE || state == STRING_UNICODE;
+    }
+
+    /**
+     * 当前的字符串是否是对象的键
+     */
+    public boolean isKeyString() {
+        return keyString;
+    }
+
+    /**
+     * 当前打开的容器数量
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * 指定层级的容器是否是对象
+     *
+     * @param level 层级，0表示最外层
+     */
+    public boolean isObject(int level) {
+        return isObject(objects, deeper, level);
+    }
+
+    /**
+     * 重置为初始状态
+     */
+    public void reset() {
+        depth = 0;
+        state = BEFORE_ROOT;
+    }
+
+    /**
+     * 是否是JSON允许的空白字符
+     */
+    public static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    /**
+     * 跳过字符串中不需要转义的字符
+     *
+     * @return 第一个引号、反斜杠或控制字符的位置，都没有时返回to
+     */
+    private static int skipPlainChars(CharSequence json, int i, int to) {
+        while (i < to) {
+            char c = json.charAt(i);
+            if (c == '"' || c == '\\' || c < 0x20) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 从字面量的第一个字符开始比较
+     *
+     * @return 连续匹配的字符数，完整匹配时等于字面量的长度
+     */
+    private static int matchLiteral(CharSequence json, int i, int to, String literal) {
+        int k = 1;
+        while (k < literal.length() && i + k < to && json.charAt(i + k) == literal.charAt(k)) {
+            k++;
+        }
+        return k;
+    }
+
+    private static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    /**
+     * 一个值结束之后的状态
+     */
+    private static int afterValue(long objects, long[] deeper, int depth) {
+        if (depth == 0) {
+            return AFTER_ROOT;
+        }
+        return isObject(objects, deeper, depth - 1) ? OBJECT_NEXT : ARRAY_NEXT;
+    }
+
+    private static boolean isObject(long objects, long[] deeper, int level) {
+        if (level < 64) {
+            return (objects >>> level & 1) != 0;
+        }
+        return (deeper[(level - 64) >>> 6] >>> level & 1) != 0;
+    }
+
+    /**
+     * 记录第64层及更深的容器，需要时扩容
+     *
+     * @return 记录之后的数组
+     */
+    private static long[] push(long[] deeper, int level, boolean object) {
+        int word = (level - 64) >>> 6;
+        if (deeper == null) {
+            deeper = new long[4];
+        } else if (word == deeper.length) {
+            deeper = Arrays.copyOf(deeper, word * 2);
+        }
+        deeper[word] = object ? deeper[word] | 1L << level : deeper[word] & ~(1L << level);
+        return deeper;
+    }
+
+    /**
+     * 数字中的下一个字符：-? (0 | [1-9][0-9]*) (. [0-9]+)? ([eE] [+-]? [0-9]+)?
+     *
+     * @return 接受这个字符之后数字的内部状态，字符不属于这个数字时返回-1
+     */
+    private static int nextNumberState(int numberState, char c) {
+        boolean digit = c >= '0' && c <= '9';
+        switch (numberState) {
+            case NUMBER_MINUS:
+                return digit ? (c == '0' ? NUMBER_ZERO : NUMBER_INT) : -1;
+            case NUMBER_INT:
+                return digit ? NUMBER_INT : afterInteger(c);
+            case NUMBER_ZERO:
+                return afterInteger(c);
+            case NUMBER_DOT:
+            case NUMBER_FRACTION:
+                if (digit) {
+                    return NUMBER_FRACTION;
+                }
+                return numberState == NUMBER_FRACTION && (c == 'e' || c == 'E') ? NUMBER_EXPONENT : -1;
+            case NUMBER_EXPONENT:
+                if (c == '+' || c == '-') {
+                    return NUMBER_EXPONENT_SIGN;
+                }
+                return digit ? NUMBER_EXPONENT_DIGITS : -1;
+            default:
+                // NUMBER_EXPONENT_SIGN、NUMBER_EXPONENT_DIGITS
+                return digit ? NUMBER_EXPONENT_DIGITS : -1;
+        }
+    }
+
+    /**
+     * 整数部分之后只能是小数点或指数
+     */
+    private static int afterInteger(char c) {
+        if (c == '.') {
+            return NUMBER_DOT;
+        }
+        return c == 'e' || c == 'E' ? NUMBER_EXPONENT : -1;
+    }
+
+    private static boolean isNumberComplete(int numberState) {
+        return numberState == NUMBER_ZERO || numberState == NUMBER_INT
+                || numberState == NUMBER_FRACTION || numberState == NUMBER_EXPONENT_DIGITS;
+    }
+}
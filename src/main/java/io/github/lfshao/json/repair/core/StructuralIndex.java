@@ -0,0 +1,175 @@
+package io.github.lfshao.json.repair.core;
+
+import java.util.Arrays;
+
+/**
+ * 结构字符索引
+ * 一次遍历输入，按字符分别记录引号（" ' “ ”）、: , } ] 的位置，之后查找下一个结构字符只需要二分查找，
+ * 与距离无关。前一个字符是反斜杠的位置视为转义，不会被记录，与JsonParser.skipToCharacter的规则一致。
+ */
+class StructuralIndex {
+
+    // 被索引的字符种类数，编号见kind
+    private static final int KINDS = 8;
+    private static final int BRACKET = 7;
+
+    // 每种字符未转义出现的位置，升序
+    private final int[][] positions = new int[KINDS][];
+    private final int[] counts = new int[KINDS];
+    private final char[] chars;
+    private final int length;
+    // 引号与 ] 合并后的位置序列及其配对跳转表，按引号种类延迟构建
+    private final int[][] merged = new int[4][];
+    private final int[][] evenBracket = new int[4][];
+
+    StructuralIndex(char[] chars, int length) {
+        this.chars = chars;
+        this.length = length;
+        // 第一遍统计数量，第二遍记录位置，避免数组扩容
+        for (int p = 0; p < length; p++) {
+            int k = kind(chars[p]);
+            if (k >= 0 && (p == 0 || chars[p - 1] != '\\')) {
+                counts[k]++;
+            }
+        }
+        for (int k = 0; k < KINDS; k++) {
+            positions[k] = new int[counts[k]];
+            counts[k] = 0;
+        }
+        for (int p = 0; p < length; p++) {
+            int k = kind(chars[p]);
+            if (k >= 0 && (p == 0 || chars[p - 1] != '\\')) {
+                positions[k][counts[k]++] = p;
+            }
+        }
+    }
+
+    /**
+     * 字符是否被索引
+     */
+    static boolean isIndexed(int ch) {
+        return kind(ch) >= 0;
+    }
+
+    /**
+     * 查找from开始第一个未转义的first或second
+     *
+     * @return 找到的位置，没有找到时返回输入的长度
+     */
+    int next(int first, int second, int from) {
+        if (from >= length) {
+            return from;
+        }
+        int a = next(kind(first), from);
+        return first == second ? a : Math.min(a, next(kind(second), from));
+    }
+
+    /**
+     * 从位置from的引号开始，在引号和 ] 组成的序列中每次跳过两个，直到落在 ] 上或者超出输入
+     *
+     * @param quote 引号
+     * @param from  引号的位置，必须是一个未转义的quote
+     * @return 最终落在的 ] 的位置，超出输入时返回输入的长度
+     */
+    int skipPairs(int quote, int from) {
+        int k = kind(quote);
+        if (merged[k] == null) {
+            buildPairs(k);
+        }
+        int[] sequence = merged[k];
+        int j = Arrays.binarySearch(sequence, from);
+        if (j < 0 || j + 2 >= sequence.length) {
+            return length;
+        }
+        int target = evenBracket[k][j + 2];
+        return target < sequence.length ? sequence[target] : length;
+    }
+
+    /**
+     * 更新指定位置的字符是否被转义，用于在它之前插入了字符的情况
+     *
+     * @param position 原数组中的位置
+     * @param escaped  是否被转义
+     */
+    void setEscaped(int position, boolean escaped) {
+        int k = kind(chars[position]);
+        if (k < 0) {
+            return;
+        }
+        int j = Arrays.binarySearch(positions[k], 0, counts[k], position);
+        if (escaped == (j < 0)) {
+            return;
+        }
+        if (escaped) {
+            System.arraycopy(positions[k], j + 1, positions[k], j, counts[k] - j - 1);
+            counts[k]--;
+        } else {
+            j = -j - 1;
+            if (counts[k] == positions[k].length) {
+                positions[k] = Arrays.copyOf(positions[k], counts[k] + 16);
+            }
+            System.arraycopy(positions[k], j, positions[k], j + 1, counts[k] - j);
+            positions[k][j] = position;
+            counts[k]++;
+        }
+        Arrays.fill(merged, null);
+        Arrays.fill(evenBracket, null);
+    }
+
+    private int next(int k, int from) {
+        int j = Arrays.binarySearch(positions[k], 0, counts[k], from);
+        if (j < 0) {
+            j = -j - 1;
+        }
+        return j < counts[k] ? positions[k][j] : length;
+    }
+
+    private void buildPairs(int k) {
+        int[] quotes = positions[k];
+        int[] brackets = positions[BRACKET];
+        int qn = counts[k];
+        int bn = counts[BRACKET];
+        int[] sequence = new int[qn + bn];
+        boolean[] isBracket = new boolean[qn + bn];
+        int q = 0;
+        int b = 0;
+        for (int j = 0; j < sequence.length; j++) {
+            if (b == bn || (q < qn && quotes[q] < brackets[b])) {
+                sequence[j] = quotes[q++];
+            } else {
+                sequence[j] = brackets[b++];
+                isBracket[j] = true;
+            }
+        }
+        // 同奇偶的下一个 ] 在序列中的下标，没有时为序列长度
+        int[] next = new int[sequence.length];
+        for (int j = sequence.length - 1; j >= 0; j--) {
+            next[j] = isBracket[j] ? j : (j + 2 < sequence.length ? next[j + 2] : sequence.length);
+        }
+        merged[k] = sequence;
+        evenBracket[k] = next;
+    }
+
+    private static int kind(int ch) {
+        switch (ch) {
+            case '"':
+                return 0;
+            case '\'':
+                return 1;
+            case '“':
+                return 2;
+            case '”':
+                return 3;
+            case ':':
+                return 4;
+            case ',':
+                return 5;
+            case '}':
+                return 6;
+            case ']':
+                return 7;
+            default:
+                return -1;
+        }
+    }
+}
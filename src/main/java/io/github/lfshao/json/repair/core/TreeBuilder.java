@@ -0,0 +1,185 @@
+package io.github.lfshao.json.repair.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 对象树构建器
+ * 将事件还原为LinkedHashMap/ArrayList组成的对象树
+ */
+public class TreeBuilder implements JsonSink {
+
+    // 当前打开的容器
+    private final List<Object> stack = new ArrayList<>();
+    // 容器在父对象中对应的键，父容器是数组时为null
+    private final List<String> stackKeys = new ArrayList<>();
+    private String pendingKey;
+    private Object root;
+
+    @Override
+    public void startObject() {
+        push(new LinkedHashMap<String, Object>());
+    }
+
+    @Override
+    public void endObject() {
+        pop();
+    }
+
+    @Override
+    public void startArray() {
+        push(new ArrayList<>());
+    }
+
+    @Override
+    public void endArray() {
+        pop();
+    }
+
+    @Override
+    public void key(String key) {
+        this.pendingKey = key;
+    }
+
+    @Override
+    public void value(Object value) {
+        add(value);
+    }
+
+    /**
+     * 获取构建完成的根节点
+     */
+    public Object getRoot() {
+        return root;
+    }
+
+    /**
+     * 当前是否有尚未结束的容器
+     */
+    public boolean isOpen() {
+        return !stack.isEmpty();
+    }
+
+    /**
+     * 将尚未构建完成的对象树输出到sink：已完成的部分完整输出，打开的容器只输出开始事件
+     * 之后的事件可以直接发送给sink继续
+     *
+     * @param sink 目标
+     */
+    @SuppressWarnings("unchecked")
+    public void replayOpen(JsonSink sink) {
+        for (int level = 0; level < stack.size(); level++) {
+            Object container = stack.get(level);
+            Object openChild = level + 1 < stack.size() ? stack.get(level + 1) : null;
+            if (container instanceof Map) {
+                sink.startObject();
+                for (Map.Entry<String, Object> entry : ((Map<String, Object>) container).entrySet()) {
+                    if (openChild == null || entry.getValue() != openChild) {
+                        sink.key(entry.getKey());
+                        replay(entry.getValue(), sink);
+                    }
+                }
+                if (openChild != null) {
+                    sink.key(stackKeys.get(level + 1));
+                } else if (pendingKey != null) {
+                    sink.key(pendingKey);
+                }
+            } else {
+                sink.startArray();
+                List<Object> list = (List<Object>) container;
+                int completed = openChild != null ? list.size() - 1 : list.size();
+                for (int i = 0; i < completed; i++) {
+                    replay(list.get(i), sink);
+                }
+            }
+        }
+    }
+
+    /**
+     * 将对象树以事件的形式输出到sink
+     * 使用显式的栈遍历，嵌套很深的对象树也不会耗尽调用栈
+     *
+     * @param value Map、List或标量值
+     * @param sink  目标
+     */
+    public static void replay(Object value, JsonSink sink) {
+        // 打开的容器中尚未输出的子元素，对象对应entry的迭代器
+        List<Iterator<?>> open = new ArrayList<>();
+        boolean[] objects = new boolean[16];
+        Object next = value;
+        while (true) {
+            if (next instanceof Map || next instanceof List) {
+                boolean object = next instanceof Map;
+                if (open.size() == objects.length) {
+                    objects = Arrays.copyOf(objects, objects.length * 2);
+                }
+                objects[open.size()] = object;
+                if (object) {
+                    sink.startObject();
+                    open.add(((Map<?, ?>) next).entrySet().iterator());
+                } else {
+                    sink.startArray();
+                    open.add(((List<?>) next).iterator());
+                }
+            } else {
+                sink.value(next);
+            }
+            // 找到下一个要输出的值，途中结束已经输出完的容器
+            while (true) {
+                if (open.isEmpty()) {
+                    return;
+                }
+                int top = open.size() - 1;
+                Iterator<?> iterator = open.get(top);
+                if (iterator.hasNext()) {
+                    Object item = iterator.next();
+                    if (objects[top]) {
+                        Map.Entry<?, ?> entry = (Map.Entry<?, ?>) item;
+                        sink.key(String.valueOf(entry.getKey()));
+                        next = entry.getValue();
+                    } else {
+                        next = item;
+                    }
+                    break;
+                }
+                open.remove(top);
+                if (objects[top]) {
+                    sink.endObject();
+                } else {
+                    sink.endArray();
+                }
+            }
+        }
+    }
+
+    private void push(Object container) {
+        String key = pendingKey;
+        add(container);
+        stack.add(container);
+        stackKeys.add(key);
+    }
+
+    private void pop() {
+        stack.remove(stack.size() - 1);
+        stackKeys.remove(stackKeys.size() - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void add(Object value) {
+        if (stack.isEmpty()) {
+            root = value;
+            return;
+        }
+        Object top = stack.get(stack.size() - 1);
+        if (top instanceof Map) {
+            ((Map<String, Object>) top).put(pendingKey, value);
+            pendingKey = null;
+        } else {
+            ((List<Object>) top).add(value);
+        }
+    }
+}
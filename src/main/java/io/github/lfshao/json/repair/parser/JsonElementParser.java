@@ -1,26 +1,30 @@
 package io.github.lfshao.json.repair.parser;
 
 import io.github.lfshao.json.repair.core.JsonContext;
+import io.github.lfshao.json.repair.core.JsonParser;
 
 /**
  * JSON元素解析器接口
  * 所有具体的解析器都应该实现此接口
+ * 解析器本身不保存状态，解析状态都在传入的JsonParser中，因此同一个实例可以被多个线程共享
  */
 public interface JsonElementParser {
 
     /**
      * 解析JSON元素
      *
+     * @param parser 保存解析状态的主解析器
      * @return 解析后的对象
      */
-    Object parse();
+    Object parse(JsonParser parser);
 
     /**
      * 检查当前字符是否可以被此解析器处理
+     * JsonParser会预先对所有ASCII字符调用一次并缓存结果，因此对ASCII字符的判断只能取决于字符以及上下文是否为空
      *
-     * @param ch      当前字符（可能为null表示字符串结束）
+     * @param ch      当前字符，不会是JsonParser.EOF
      * @param context 解析上下文
      * @return 如果可以处理返回true
      */
-    boolean accept(Character ch, JsonContext context);
+    boolean accept(int ch, JsonContext context);
 } 
\ No newline at end of file
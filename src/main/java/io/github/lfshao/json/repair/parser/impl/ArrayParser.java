@@ -1,85 +1,125 @@
 package io.github.lfshao.json.repair.parser.impl;
 
+import io.github.lfshao.json.repair.core.EmittedContainer;
 import io.github.lfshao.json.repair.core.JsonContext;
 import io.github.lfshao.json.repair.core.JsonContext.ContextValues;
 import io.github.lfshao.json.repair.core.JsonParser;
+import io.github.lfshao.json.repair.core.NestedContainer;
 import io.github.lfshao.json.repair.core.ObjectComparer;
 import io.github.lfshao.json.repair.parser.JsonElementParser;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * 数组解析器
  */
 public class ArrayParser implements JsonElementParser {
 
-    private final JsonParser parser;
+    public static final ArrayParser INSTANCE = new ArrayParser();
 
-    public ArrayParser(JsonParser parser) {
-        this.parser = parser;
+    private ArrayParser() {
     }
 
     @Override
-    public Object parse() {
-        return parseArray();
+    public Object parse(JsonParser parser) {
+        return parseArray(parser);
     }
 
     @Override
-    public boolean accept(Character ch, JsonContext context) {
-        return ch != null && ch == '[';
+    public boolean accept(int ch, JsonContext context) {
+        return ch == '[';
+    }
+
+    public EmittedContainer parseArray(JsonParser parser) {
+        return parser.parseContainer(false);
     }
 
-    public List<Object> parseArray() {
-        List<Object> arr = new ArrayList<>();
+    /**
+     * 开始解析数组，开始字符已被跳过
+     *
+     * @return 数组结束时返回EmittedContainer；迭代模式下遇到嵌套的容器时返回NestedContainer，
+     * 由JsonParser.parseContainer解析该容器后调用resume继续
+     */
+    public Object begin(JsonParser parser) {
         parser.getContext().set(ContextValues.ARRAY);
+        parser.getEmitter().startArray();
+        return parseElements(parser, parser.charAt());
+    }
+
+    /**
+     * 在已经打开的数组中继续解析，数组的开始事件已由调用方处理
+     */
+    public Object resumeArray(JsonParser parser) {
+        return parseElements(parser, skipSeparators(parser));
+    }
+
+    /**
+     * 嵌套的容器解析完成后继续解析数组
+     *
+     * @param value 嵌套容器的解析结果；为null时表示刚恢复的子容器已经结束，不需要处理
+     */
+    public Object resume(JsonParser parser, Object value) {
+        if (value != null) {
+            addElement(parser, value);
+        }
+        return parseElements(parser, skipSeparators(parser));
+    }
 
-        Character ch = parser.getCharAt();
-        while (ch != null && ch != ']' && ch != '}') {
+    private Object parseElements(JsonParser parser, int ch) {
+        while (ch != JsonParser.EOF && ch != ']' && ch != '}') {
             parser.skipWhitespacesAt();
             Object value = "";
 
-            if (ch != null && JsonParser.STRING_DELIMITERS.contains(ch)) {
+            if (JsonParser.isStringDelimiter(ch)) {
                 // Sometimes it can happen that LLMs forget to start an object and then you think it's a string in an array
                 // So we are going to check if this string is followed by a : or not
                 // And either parse the string or parse the object
                 int i = 1;
                 i = parser.skipToCharacter(ch, i);
                 i = parser.skipWhitespacesAt(i + 1, false);
-                Character nextChar = parser.getCharAt(i);
-                if (nextChar != null && nextChar == ':') {
-                    value = new ObjectParser(parser).parseObject();
+                if (parser.charAt(i) == ':') {
+                    value = parser.parseNested(true);
                 } else {
-                    value = new StringParser(parser).parseString();
+                    value = StringParser.INSTANCE.parseString(parser);
                 }
             } else {
-                value = parser.parseJson();
+                value = parser.parseValue();
             }
-
-            // It is possible that parseJson() returns nothing valid, so we increase by 1
-            if (ObjectComparer.isStrictlyEmpty(value)) {
-                parser.setIndex(parser.getIndex() + 1);
-            } else if ("...".equals(value) && parser.getCharAt(-1) != null && parser.getCharAt(-1) == '.') {
-                parser.log("While parsing an array, found a stray '...'; ignoring it");
-            } else {
-                arr.add(value);
+            if (value instanceof NestedContainer) {
+                return value;
             }
 
-            // skip over whitespace after a value but before closing ]
-            ch = parser.getCharAt();
-            while (ch != null && ch != ']' && (Character.isWhitespace(ch) || ch == ',')) {
-                parser.setIndex(parser.getIndex() + 1);
-                ch = parser.getCharAt();
-            }
+            addElement(parser, value);
+            ch = skipSeparators(parser);
         }
 
         // Especially at the end of an LLM generated json you might miss the last "]"
-        if (ch != null && ch != ']') {
+        if (ch != JsonParser.EOF && ch != ']') {
             parser.log("While parsing an array we missed the closing ], ignoring it");
         }
 
         parser.setIndex(parser.getIndex() + 1);
         parser.getContext().reset();
-        return arr;
+        return parser.getEmitter().endArray();
+    }
+
+    private static void addElement(JsonParser parser, Object value) {
+        // It is possible that parseJson() returns nothing valid, so we increase by 1
+        // Empty objects and arrays have already been dropped by the emitter
+        if (ObjectComparer.isStrictlyEmpty(value)) {
+            parser.setIndex(parser.getIndex() + 1);
+        } else if ("...".equals(value) && parser.charAt(-1) == '.') {
+            parser.log("While parsing an array, found a stray '...'; ignoring it");
+        } else if (!(value instanceof EmittedContainer)) {
+            parser.getEmitter().value(value);
+        }
+    }
+
+    private int skipSeparators(JsonParser parser) {
+        // skip over whitespace after a value but before closing ]
+        int ch = parser.charAt();
+        while (ch != ']' && (JsonParser.isWhitespace(ch) || ch == ',')) {
+            parser.setIndex(parser.getIndex() + 1);
+            ch = parser.charAt();
+        }
+        return ch;
     }
 } 
\ No newline at end of file
@@ -9,51 +9,48 @@ import io.github.lfshao.json.repair.parser.JsonElementParser;
  */
 public class BooleanNullParser implements JsonElementParser {
 
-    private final JsonParser parser;
+    public static final BooleanNullParser INSTANCE = new BooleanNullParser();
 
-    public BooleanNullParser(JsonParser parser) {
-        this.parser = parser;
+    private BooleanNullParser() {
     }
 
     @Override
-    public Object parse() {
-        return parseBooleanOrNull();
+    public Object parse(JsonParser parser) {
+        return parseBooleanOrNull(parser);
     }
 
     @Override
-    public boolean accept(Character ch, JsonContext context) {
+    public boolean accept(int ch, JsonContext context) {
         // BooleanNullParser通常由StringParser内部调用，不直接由主解析器调用
         return false;
     }
 
-    public Object parseBooleanOrNull() {
+    public Object parseBooleanOrNull(JsonParser parser) {
         // <boolean> is one of the literal strings 'true', 'false', or 'null' (unquoted)
         int startingIndex = parser.getIndex();
-        Character ch = parser.getCharAt();
-        String charLower = ch != null ? ch.toString().toLowerCase() : "";
+        int ch = parser.charAt();
 
         String targetWord = null;
         Object returnValue = null;
 
-        if ("t".equals(charLower)) {
+        if (ch == 't' || ch == 'T') {
             targetWord = "true";
             returnValue = true;
-        } else if ("f".equals(charLower)) {
+        } else if (ch == 'f' || ch == 'F') {
             targetWord = "false";
             returnValue = false;
-        } else if ("n".equals(charLower)) {
+        } else if (ch == 'n' || ch == 'N') {
             targetWord = "null";
             returnValue = null;
         }
 
         if (targetWord != null) {
             int i = 0;
-            while (ch != null && i < targetWord.length() &&
-                    charLower.equals(String.valueOf(targetWord.charAt(i)))) {
+            while (ch != JsonParser.EOF && i < targetWord.length() &&
+                    Character.toLowerCase(ch) == targetWord.charAt(i)) {
                 i++;
                 parser.setIndex(parser.getIndex() + 1);
-                ch = parser.getCharAt();
-                charLower = ch != null ? ch.toString().toLowerCase() : "";
+                ch = parser.charAt();
             }
             if (i == targetWord.length()) {
                 return returnValue;
@@ -64,4 +61,4 @@ public class BooleanNullParser implements JsonElementParser {
         parser.setIndex(startingIndex);
         return "";
     }
-} 
\ No newline at end of file
+}
@@ -5,32 +5,27 @@ import io.github.lfshao.json.repair.core.JsonContext.ContextValues;
 import io.github.lfshao.json.repair.core.JsonParser;
 import io.github.lfshao.json.repair.parser.JsonElementParser;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-
 /**
  * 注释解析器
  */
 public class CommentParser implements JsonElementParser {
 
-    private final JsonParser parser;
+    public static final CommentParser INSTANCE = new CommentParser();
 
-    public CommentParser(JsonParser parser) {
-        this.parser = parser;
+    private CommentParser() {
     }
 
     @Override
-    public Object parse() {
-        return parseComment();
+    public Object parse(JsonParser parser) {
+        return parseComment(parser);
     }
 
     @Override
-    public boolean accept(Character ch, JsonContext context) {
-        return ch != null && (ch == '#' || ch == '/');
+    public boolean accept(int ch, JsonContext context) {
+        return ch == '#' || ch == '/';
     }
 
-    public Object parseComment() {
+    public Object parseComment(JsonParser parser) {
         // Parse code-like comments:
         // - "# comment": A line comment that continues until a newline.
         // - "// comment": A line comment that continues until a newline.
@@ -38,61 +33,56 @@ public class CommentParser implements JsonElementParser {
         // The comment is skipped over and an empty string is returned so that comments do not interfere
         // with the actual JSON elements.
 
-        Character ch = parser.getCharAt();
-        List<Character> terminationCharacters = new ArrayList<>(Arrays.asList('\n', '\r'));
-
-        if (parser.getContext().contains(ContextValues.ARRAY)) {
-            terminationCharacters.add(']');
-        }
-        if (parser.getContext().contains(ContextValues.OBJECT_VALUE)) {
-            terminationCharacters.add('}');
-        }
-        if (parser.getContext().contains(ContextValues.OBJECT_KEY)) {
-            terminationCharacters.add(':');
-        }
+        int ch = parser.charAt();
+        // Besides newlines, the closing character of any enclosing container also terminates a line comment
+        boolean inArray = parser.getContext().contains(ContextValues.ARRAY);
+        boolean inObjectValue = parser.getContext().contains(ContextValues.OBJECT_VALUE);
+        boolean inObjectKey = parser.getContext().contains(ContextValues.OBJECT_KEY);
 
         // Line comment starting with #
-        if (ch != null && ch == '#') {
-            StringBuilder comment = new StringBuilder();
-            while (ch != null && !terminationCharacters.contains(ch)) {
-                comment.append(ch);
-                parser.setIndex(parser.getIndex() + 1);
-                ch = parser.getCharAt();
+        if (ch == '#') {
+            StringBuilder comment = newComment(parser, "");
+            skipLineComment(parser, comment, inArray, inObjectValue, inObjectKey);
+            if (comment != null) {
+                parser.log("Found line comment: " + comment + ", ignoring");
             }
-            parser.log("Found line comment: " + comment + ", ignoring");
         }
         // Comments starting with '/'
-        else if (ch != null && ch == '/') {
-            Character nextChar = parser.getCharAt(1);
+        else if (ch == '/') {
+            int nextChar = parser.charAt(1);
             // Handle line comment starting with //
-            if (nextChar != null && nextChar == '/') {
-                StringBuilder comment = new StringBuilder("//");
+            if (nextChar == '/') {
+                StringBuilder comment = newComment(parser, "//");
                 parser.setIndex(parser.getIndex() + 2); // Skip both slashes.
-                ch = parser.getCharAt();
-                while (ch != null && !terminationCharacters.contains(ch)) {
-                    comment.append(ch);
-                    parser.setIndex(parser.getIndex() + 1);
-                    ch = parser.getCharAt();
+                skipLineComment(parser, comment, inArray, inObjectValue, inObjectKey);
+                if (comment != null) {
+                    parser.log("Found line comment: " + comment + ", ignoring");
                 }
-                parser.log("Found line comment: " + comment + ", ignoring");
             }
             // Handle block comment starting with /*
-            else if (nextChar != null && nextChar == '*') {
-                StringBuilder comment = new StringBuilder("/*");
+            else if (nextChar == '*') {
+                StringBuilder comment = newComment(parser, "/*");
                 parser.setIndex(parser.getIndex() + 2); // Skip '/*'
+                // The '*' of the opening delimiter counts, so "/*/" is a complete comment
+                int previous = '*';
                 while (true) {
-                    ch = parser.getCharAt();
-                    if (ch == null) {
+                    ch = parser.charAt();
+                    if (ch == JsonParser.EOF) {
                         parser.log("Reached end-of-string while parsing block comment; unclosed block comment.");
                         break;
                     }
-                    comment.append(ch);
+                    if (comment != null) {
+                        comment.append((char) ch);
+                    }
                     parser.setIndex(parser.getIndex() + 1);
-                    if (comment.toString().endsWith("*/")) {
+                    if (previous == '*' && ch == '/') {
                         break;
                     }
+                    previous = ch;
+                }
+                if (comment != null) {
+                    parser.log("Found block comment: " + comment + ", ignoring");
                 }
-                parser.log("Found block comment: " + comment + ", ignoring");
             } else {
                 // Skip standalone '/' characters that are not part of a comment
                 // to avoid getting stuck in an infinite loop
@@ -106,4 +96,27 @@ public class CommentParser implements JsonElementParser {
             return "";
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 只有记录日志时才需要注释的内容，否则返回null
+     */
+    private StringBuilder newComment(JsonParser parser, String prefix) {
+        return parser.isLogging() ? new StringBuilder(prefix) : null;
+    }
+
+    private void skipLineComment(JsonParser parser, StringBuilder comment, boolean inArray, boolean inObjectValue, boolean inObjectKey) {
+        int ch = parser.charAt();
+        while (!isLineCommentEnd(ch, inArray, inObjectValue, inObjectKey)) {
+            if (comment != null) {
+                comment.append((char) ch);
+            }
+            parser.setIndex(parser.getIndex() + 1);
+            ch = parser.charAt();
+        }
+    }
+
+    private static boolean isLineCommentEnd(int ch, boolean inArray, boolean inObjectValue, boolean inObjectKey) {
+        return ch == JsonParser.EOF || ch == '\n' || ch == '\r'
+                || (inArray && ch == ']') || (inObjectValue && ch == '}') || (inObjectKey && ch == ':');
+    }
+}
@@ -6,48 +6,37 @@ import io.github.lfshao.json.repair.core.JsonParser;
 import io.github.lfshao.json.repair.parser.JsonElementParser;
 
 import java.math.BigInteger;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * 数字解析器
  */
 public class NumberParser implements JsonElementParser {
 
-    private static final Set<Character> NUMBER_CHARS = new HashSet<>();
+    public static final NumberParser INSTANCE = new NumberParser();
 
-    static {
-        for (char c : "0123456789-.eE/,".toCharArray()) {
-            NUMBER_CHARS.add(c);
-        }
-    }
-
-    private final JsonParser parser;
-
-    public NumberParser(JsonParser parser) {
-        this.parser = parser;
+    private NumberParser() {
     }
 
     @Override
-    public Object parse() {
-        return parseNumber();
+    public Object parse(JsonParser parser) {
+        return parseNumber(parser);
     }
 
     @Override
-    public boolean accept(Character ch, JsonContext context) {
-        return !context.isEmpty() && ch != null && (Character.isDigit(ch) || ch == '-' || ch == '.');
+    public boolean accept(int ch, JsonContext context) {
+        return !context.isEmpty() && (Character.isDigit(ch) || ch == '-' || ch == '.');
     }
 
-    public Object parseNumber() {
+    public Object parseNumber(JsonParser parser) {
         // <number> is a valid real number expressed in one of a number of given formats
-        StringBuilder numberStr = new StringBuilder();
-        Character ch = parser.getCharAt();
+        StringBuilder numberStr = parser.borrowBuffer();
+        int ch = parser.charAt();
         boolean isArray = parser.getContext().getCurrent() == ContextValues.ARRAY;
 
-        while (ch != null && NUMBER_CHARS.contains(ch) && (!isArray || ch != ',')) {
-            numberStr.append(ch);
+        while (isNumberChar(ch) && (!isArray || ch != ',')) {
+            numberStr.append((char) ch);
             parser.setIndex(parser.getIndex() + 1);
-            ch = parser.getCharAt();
+            ch = parser.charAt();
         }
 
         if (numberStr.length() > 0 &&
@@ -59,10 +48,10 @@ public class NumberParser implements JsonElementParser {
             // The number ends with a non valid character for a number/currency, rolling back one
             numberStr.setLength(numberStr.length() - 1);
             parser.setIndex(parser.getIndex() - 1);
-        } else if (ch != null && Character.isLetter(ch)) {
+        } else if (Character.isLetter(ch)) {
             // this was a string instead, sorry
             parser.setIndex(parser.getIndex() - numberStr.length());
-            return new StringParser(parser).parseString();
+            return StringParser.INSTANCE.parseString(parser);
         }
 
         try {
@@ -89,4 +78,8 @@ public class NumberParser implements JsonElementParser {
             return numberStr.toString();
         }
     }
-} 
\ No newline at end of file
+
+    private static boolean isNumberChar(int ch) {
+        return (ch >= '0' && ch <= '9') || ch == '-' || ch == '.' || ch == 'e' || ch == 'E' || ch == '/' || ch == ',';
+    }
+}
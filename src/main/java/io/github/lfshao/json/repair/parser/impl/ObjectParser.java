@@ -1,123 +1,128 @@
 package io.github.lfshao.json.repair.parser.impl;
 
+import io.github.lfshao.json.repair.core.ContainerFrame;
+import io.github.lfshao.json.repair.core.EmittedContainer;
 import io.github.lfshao.json.repair.core.JsonContext;
 import io.github.lfshao.json.repair.core.JsonContext.ContextValues;
+import io.github.lfshao.json.repair.core.JsonEmitter;
 import io.github.lfshao.json.repair.core.JsonParser;
+import io.github.lfshao.json.repair.core.NestedContainer;
 import io.github.lfshao.json.repair.parser.JsonElementParser;
 
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 对象解析器
  */
 public class ObjectParser implements JsonElementParser {
 
-    private final JsonParser parser;
+    public static final ObjectParser INSTANCE = new ObjectParser();
 
-    public ObjectParser(JsonParser parser) {
-        this.parser = parser;
+    private ObjectParser() {
     }
 
     @Override
-    public Object parse() {
-        return parseObject();
+    public Object parse(JsonParser parser) {
+        return parseObject(parser);
     }
 
     @Override
-    public boolean accept(Character ch, JsonContext context) {
-        return ch != null && ch == '{';
+    public boolean accept(int ch, JsonContext context) {
+        return ch == '{';
     }
 
-    @SuppressWarnings("unchecked")
-    public Map<String, Object> parseObject() {
+    public EmittedContainer parseObject(JsonParser parser) {
         // <object> ::= '{' [ <member> *(', ' <member>) ] '}' ; A sequence of 'members'
-        Map<String, Object> obj = new LinkedHashMap<>();
-
-        for (Character ch = parser.getCharAt(); (ch != null ? ch : '}') != '}'; ch = parser.getCharAt()) {
-
-            // This is what we expect to find:
-            // <member> ::= <string> ': ' <json>
-
-            // Skip filler whitespaces
-            parser.skipWhitespacesAt();
-
-            // Sometimes LLMs do weird things, if we find a ":" so early, we'll change it to "," and move on
-            ch = parser.getCharAt();
-            if (ch != null && ch.equals(':')) {
-                parser.log("While parsing an object we found a : before a key, ignoring");
-                parser.setIndex(parser.getIndex() + 1);
-            }
+        return parser.parseContainer(true);
+    }
 
-            // We are now searching for they string key
-            // Context is used in the string parser to manage the lack of quotes
-            parser.getContext().set(ContextValues.OBJECT_KEY);
+    /**
+     * 开始解析对象，开始字符已被跳过
+     *
+     * @return 对象结束时返回EmittedContainer；迭代模式下遇到嵌套的容器时返回NestedContainer，
+     * 由JsonParser.parseContainer解析该容器后调用resume继续
+     */
+    public Object begin(JsonParser parser, ContainerFrame frame) {
+        parser.getEmitter().startObject();
+        return parseMembers(parser, frame, false);
+    }
 
-            // Save this index in case we need find a duplicate key
-            int rollbackIndex = parser.getIndex();
+    /**
+     * 在已经打开的对象中继续解析，对象的开始事件已由调用方处理
+     *
+     * @param afterValue 是否刚解析完一个成员的值，此时上下文栈顶应为OBJECT_VALUE
+     */
+    public Object resumeObject(JsonParser parser, ContainerFrame frame, boolean afterValue) {
+        if (afterValue) {
+            return resume(parser, frame, null);
+        }
+        return parseMembers(parser, frame, false);
+    }
 
-            // <member> starts with a <string>
-            String key = "";
-            while (parser.getCharAt() != null) {
-                // The rollback index needs to be updated here in case the key is empty
-                rollbackIndex = parser.getIndex();
-                if (parser.getCharAt() != null && parser.getCharAt() == '[' && key.isEmpty()) {
-                    // Is this an array?
-                    // Need to check if the previous parsed value contained in obj is an array and in that case parse and merge the two
-                    String prevKey = null;
-                    if (!obj.isEmpty()) {
-                        // Get the last key
-                        List<String> keys = new ArrayList<>(obj.keySet());
-                        prevKey = keys.get(keys.size() - 1);
-                    }
+    /**
+     * 嵌套的容器解析完成后继续解析对象
+     *
+     * @param value 嵌套容器的解析结果；为null时表示刚恢复的子容器已经结束，只需要结束当前成员
+     */
+    @SuppressWarnings("unchecked")
+    public Object resume(JsonParser parser, ContainerFrame frame, Object value) {
+        if (frame.isMerging()) {
+            frame.setMerging(false);
+            mergeArray(parser, (List<Object>) value);
+            return parseMembers(parser, frame, true);
+        }
+        if (value != null) {
+            frame.addKey(frame.getKey());
+        }
+        finishMember(parser);
+        return parseMembers(parser, frame, false);
+    }
 
-                    if (prevKey != null && obj.get(prevKey) instanceof List) {
-                        // If the previous key's value is an array, parse the new array and merge
-                        parser.setIndex(parser.getIndex() + 1);
-                        List<Object> newArray = new ArrayParser(parser).parseArray();
-                        if (newArray != null) {
-                            // Merge and flatten the arrays
-                            Object prevValue = obj.get(prevKey);
-                            if (prevValue instanceof List) {
-                                List<Object> prevList = (List<Object>) prevValue;
-                                if (newArray.size() == 1 && newArray.get(0) instanceof List) {
-                                    prevList.addAll((List<Object>) newArray.get(0));
-                                } else {
-                                    prevList.addAll(newArray);
-                                }
-                            }
-                            parser.skipWhitespacesAt();
-                            if (parser.getCharAt() != null && parser.getCharAt() == ',') {
-                                parser.setIndex(parser.getIndex() + 1);
-                            }
-                            parser.skipWhitespacesAt();
-                            continue;
-                        }
-                    }
+    /**
+     * @param inKey 是否从查找键的循环中继续，即刚合并完一个数组
+     */
+    private Object parseMembers(JsonParser parser, ContainerFrame frame, boolean inKey) {
+        JsonEmitter emitter = parser.getEmitter();
+
+        int ch;
+        while (inKey || ((ch = parser.charAt()) != JsonParser.EOF && ch != '}')) {
+            if (!inKey) {
+                // This is what we expect to find:
+                // <member> ::= <string> ': ' <json>
+
+                // Skip filler whitespaces
+                parser.skipWhitespacesAt();
+
+                // Sometimes LLMs do weird things, if we find a ":" so early, we'll change it to "," and move on
+                ch = parser.charAt();
+                if (ch == ':') {
+                    parser.log("While parsing an object we found a : before a key, ignoring");
+                    parser.setIndex(parser.getIndex() + 1);
                 }
 
-                Object keyResult = new StringParser(parser).parseString();
-                key = keyResult != null ? keyResult.toString() : "";
+                // We are now searching for they string key
+                // Context is used in the string parser to manage the lack of quotes
+                parser.getContext().set(ContextValues.OBJECT_KEY);
 
-                if (key.isEmpty()) {
-                    parser.skipWhitespacesAt();
-                }
+                // Save this index in case we need find a duplicate key
+                frame.setRollbackIndex(parser.getIndex());
+            }
+            inKey = false;
 
-                ch = parser.getCharAt();
-                if (!key.isEmpty() || (key.isEmpty() && ch != null && (ch == ':' || ch == '}'))) {
-                    // If the string is empty but there is a object divider, we are done here
-                    break;
-                }
+            // <member> starts with a <string>
+            Object keyResult = parseKey(parser, frame);
+            if (keyResult instanceof NestedContainer) {
+                return keyResult;
             }
+            String key = (String) keyResult;
 
-            if (parser.getContext().contains(ContextValues.ARRAY) && obj.containsKey(key)) {
+            // The context is checked at this point, not when the object started: a nested value that ends early can
+            // leave an ARRAY context behind
+            if (parser.getContext().contains(ContextValues.ARRAY) && frame.containsKey(key)) {
                 parser.log("While parsing an object we found a duplicate key, closing the object here and rolling back the index");
-                parser.setIndex(rollbackIndex - 1);
+                parser.setIndex(frame.getRollbackIndex() - 1);
                 // add an opening curly brace to make this work
-                String jsonStr = parser.getJsonStr();
-                parser.setJsonStr(jsonStr.substring(0, parser.getIndex() + 1) + "{" + jsonStr.substring(parser.getIndex() + 1));
+                parser.insertAt(1, '{');
                 break;
             }
 
@@ -125,16 +130,16 @@ public class ObjectParser implements JsonElementParser {
             parser.skipWhitespacesAt();
 
             // We reached the end here
-            ch = parser.getCharAt();
-            if (ch == null || ch.equals('}')) {
+            ch = parser.charAt();
+            if (ch == JsonParser.EOF || ch == '}') {
                 continue;
             }
 
             parser.skipWhitespacesAt();
 
             // An extreme case of missing ":" after a key
-            ch = parser.getCharAt();
-            if (ch == null || !ch.equals(':')) {
+            ch = parser.charAt();
+            if (ch != ':') {
                 parser.log("While parsing an object we missed a : after a key");
             }
 
@@ -144,32 +149,112 @@ public class ObjectParser implements JsonElementParser {
 
             // The value can be any valid json
             parser.skipWhitespacesAt();
+            emitter.key(key);
 
             // Corner case, a lone comma
             Object value = "";
-            ch = parser.getCharAt();
-            if (ch != null && (ch == ',' || ch == '}')) {
+            ch = parser.charAt();
+            if (ch == ',' || ch == '}') {
                 parser.log("While parsing an object value we found a stray , ignoring it");
             } else {
-                value = parser.parseJson();
+                value = parser.parseValue();
+                if (value instanceof NestedContainer) {
+                    frame.setKey(key);
+                    return value;
+                }
             }
 
-            // Reset context since our job is done
-            parser.getContext().reset();
-            obj.put(key, value);
+            if (!(value instanceof EmittedContainer)) {
+                emitter.value(value);
+            }
+            frame.addKey(key);
+            finishMember(parser);
+        }
 
-            ch = parser.getCharAt();
-            if (ch != null && (ch == ',' || ch == '\'' || ch == '"')) {
-                parser.setIndex(parser.getIndex() + 1);
+        // 跳过 '}'
+        parser.setIndex(parser.getIndex() + 1);
+        return emitter.endObject();
+    }
+
+    /**
+     * 解析成员的键
+     *
+     * @return 键；迭代模式下需要先解析一个要合并的数组时返回NestedContainer
+     */
+    @SuppressWarnings("unchecked")
+    private Object parseKey(JsonParser parser, ContainerFrame frame) {
+        JsonEmitter emitter = parser.getEmitter();
+        String key = "";
+        while (parser.charAt() != JsonParser.EOF) {
+            // The rollback index needs to be updated here in case the key is empty
+            frame.setRollbackIndex(parser.getIndex());
+            if (parser.charAt() == '[' && key.isEmpty()) {
+                // Is this an array?
+                // Need to check if the previous parsed value is an array and in that case parse and merge the two
+                // The emitter keeps that array open until something else is written
+                if (emitter.isArrayCloseDeferred()) {
+                    // If the previous key's value is an array, parse the new array and merge
+                    parser.setIndex(parser.getIndex() + 1);
+                    Object newArray = parser.parseDetachedArray();
+                    if (newArray instanceof NestedContainer) {
+                        frame.setMerging(true);
+                        return newArray;
+                    }
+                    if (newArray != null) {
+                        mergeArray(parser, (List<Object>) newArray);
+                        continue;
+                    }
+                }
             }
 
-            // Remove trailing spaces
-            parser.skipWhitespacesAt();
+            Object keyResult = StringParser.INSTANCE.parseString(parser);
+            key = keyResult != null ? keyResult.toString() : "";
+
+            if (key.isEmpty()) {
+                parser.skipWhitespacesAt();
+            }
 
+            int ch = parser.charAt();
+            if (!key.isEmpty() || ch == ':' || ch == '}') {
+                // If the string is empty but there is a object divider, we are done here
+                break;
+            }
         }
+        return key;
+    }
 
-        // 跳过 '}'
-        parser.setIndex(parser.getIndex() + 1);
-        return obj;
+    @SuppressWarnings("unchecked")
+    private static void mergeArray(JsonParser parser, List<Object> newArray) {
+        JsonEmitter emitter = parser.getEmitter();
+        // Merge and flatten the arrays
+        emitter.resumeArray();
+        if (newArray.size() == 1 && newArray.get(0) instanceof List) {
+            for (Object item : (List<Object>) newArray.get(0)) {
+                emitter.emitTree(item);
+            }
+        } else {
+            for (Object item : newArray) {
+                emitter.emitTree(item);
+            }
+        }
+        emitter.endArray();
+        parser.skipWhitespacesAt();
+        if (parser.charAt() == ',') {
+            parser.setIndex(parser.getIndex() + 1);
+        }
+        parser.skipWhitespacesAt();
+    }
+
+    private void finishMember(JsonParser parser) {
+        // Reset context since our job is done
+        parser.getContext().reset();
+
+        int ch = parser.charAt();
+        if (ch == ',' || ch == '\'' || ch == '"') {
+            parser.setIndex(parser.getIndex() + 1);
+        }
+
+        // Remove trailing spaces
+        parser.skipWhitespacesAt();
     }
 } 
\ No newline at end of file
@@ -3,34 +3,30 @@ package io.github.lfshao.json.repair.parser.impl;
 import io.github.lfshao.json.repair.core.JsonContext;
 import io.github.lfshao.json.repair.core.JsonContext.ContextValues;
 import io.github.lfshao.json.repair.core.JsonParser;
+import io.github.lfshao.json.repair.core.KeyTable;
 import io.github.lfshao.json.repair.parser.JsonElementParser;
 
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * 字符串解析器 - 完全对应Python版本parse_string.py的逻辑
  */
 public class StringParser implements JsonElementParser {
 
-    private final JsonParser parser;
+    public static final StringParser INSTANCE = new StringParser();
 
-    public StringParser(JsonParser parser) {
-        this.parser = parser;
+    private StringParser() {
     }
 
     @Override
-    public Object parse() {
-        return parseString();
+    public Object parse(JsonParser parser) {
+        return parseString(parser);
     }
 
     @Override
-    public boolean accept(Character ch, JsonContext context) {
-        return !context.isEmpty() && (JsonParser.STRING_DELIMITERS.contains(ch) || Character.isLetter(ch));
+    public boolean accept(int ch, JsonContext context) {
+        return !context.isEmpty() && (JsonParser.isStringDelimiter(ch) || Character.isLetter(ch));
     }
 
-    public Object parseString() {
+    public Object parseString(JsonParser parser) {
         // <string> is a string of valid characters enclosed in quotes
         // i.e. { name: "John" }
         // Somehow all weird cases in an invalid JSON happen to be resolved in this function, so be careful here
@@ -41,18 +37,18 @@ public class StringParser implements JsonElementParser {
         char lstringDelimiter = '"';
         char rstringDelimiter = '"';
 
-        Character ch = parser.getCharAt();
-        if (ch != null && (ch == '#' || ch == '/')) {
-            return new CommentParser(parser).parseComment();
+        int ch = parser.charAt();
+        if (ch == '#' || ch == '/') {
+            return CommentParser.INSTANCE.parseComment(parser);
         }
 
         // A valid string can only start with a valid quote or, in our case, with a literal
-        while (ch != null && !JsonParser.STRING_DELIMITERS.contains(ch) && !Character.isLetterOrDigit(ch)) {
+        while (ch != JsonParser.EOF && !JsonParser.isStringDelimiter(ch) && !Character.isLetterOrDigit(ch)) {
             parser.setIndex(parser.getIndex() + 1);
-            ch = parser.getCharAt();
+            ch = parser.charAt();
         }
 
-        if (ch == null) {
+        if (ch == JsonParser.EOF) {
             // This is an empty string
             return "";
         }
@@ -66,10 +62,9 @@ public class StringParser implements JsonElementParser {
         } else if (Character.isLetterOrDigit(ch)) {
             // This could be a <boolean> and not a string. Because (T)rue or (F)alse or (N)ull are valid
             // But remember, object keys are only of type string
-            if ((ch.toString().equalsIgnoreCase("t") || ch.toString().equalsIgnoreCase("f") ||
-                    ch.toString().equalsIgnoreCase("n")) &&
+            if ((ch == 't' || ch == 'T' || ch == 'f' || ch == 'F' || ch == 'n' || ch == 'N') &&
                     parser.getContext().getCurrent() != ContextValues.OBJECT_KEY) {
-                Object value = new BooleanNullParser(parser).parseBooleanOrNull();
+                Object value = BooleanNullParser.INSTANCE.parseBooleanOrNull(parser);
                 if (!"".equals(value)) {
                     return value;
                 }
@@ -83,15 +78,14 @@ public class StringParser implements JsonElementParser {
         }
 
         // There is sometimes a weird case of doubled quotes, we manage this also later in the while loop
-        if (parser.getCharAt() != null && JsonParser.STRING_DELIMITERS.contains(parser.getCharAt()) &&
-                parser.getCharAt() == lstringDelimiter) {
+        if (parser.charAt() == lstringDelimiter) {
             // If it's an empty key, this was easy
-            Character nextChar = parser.getCharAt(1);
-            if ((parser.getContext().getCurrent() == ContextValues.OBJECT_KEY && nextChar != null && nextChar == ':') ||
-                    (parser.getContext().getCurrent() == ContextValues.OBJECT_VALUE && nextChar != null && (nextChar == ',' || nextChar == '}'))) {
+            int nextChar = parser.charAt(1);
+            if ((parser.getContext().getCurrent() == ContextValues.OBJECT_KEY && nextChar == ':') ||
+                    (parser.getContext().getCurrent() == ContextValues.OBJECT_VALUE && (nextChar == ',' || nextChar == '}'))) {
                 parser.setIndex(parser.getIndex() + 1);
                 return "";
-            } else if (parser.getCharAt(1) != null && parser.getCharAt(1) == lstringDelimiter) {
+            } else if (nextChar == lstringDelimiter) {
                 // There's something fishy about this, we found doubled quotes and then again quotes
                 parser.log("While parsing a string, we found a doubled quote and then a quote again, ignoring it");
                 return "";
@@ -99,24 +93,23 @@ public class StringParser implements JsonElementParser {
 
             // Find the next delimiter
             int i = parser.skipToCharacter(rstringDelimiter, 1);
-            Character nextC = parser.getCharAt(i);
+            int nextC = parser.charAt(i);
             // Now check that the next character is also a delimiter to ensure that we have "".....""
             // In that case we ignore this rstringDelimiter
-            if (nextC != null && (parser.getCharAt(i + 1) != null && parser.getCharAt(i + 1) == rstringDelimiter)) {
+            if (nextC != JsonParser.EOF && parser.charAt(i + 1) == rstringDelimiter) {
                 parser.log("While parsing a string, we found a valid starting doubled quote");
                 doubledQuotes = true;
                 parser.setIndex(parser.getIndex() + 1);
             } else {
                 // Ok this is not a doubled quote, check if this is an empty string or not
                 i = parser.skipWhitespacesAt(1, false);
-                nextC = parser.getCharAt(i);
-                if (nextC != null && (JsonParser.STRING_DELIMITERS.contains(nextC) ||
-                        Arrays.asList('{', '[').contains(nextC))) {
+                nextC = parser.charAt(i);
+                if (JsonParser.isStringDelimiter(nextC) || nextC == '{' || nextC == '[') {
                     // something fishy is going on here
                     parser.log("While parsing a string, we found a doubled quote but also another quote afterwards, ignoring it");
                     parser.setIndex(parser.getIndex() + 1);
                     return "";
-                } else if (nextC == null || !Arrays.asList(',', ']', '}').contains(nextC)) {
+                } else if (nextC != ',' && nextC != ']' && nextC != '}') {
                     parser.log("While parsing a string, we found a doubled quote but it was a mistake, removing one quote");
                     parser.setIndex(parser.getIndex() + 1);
                 }
@@ -124,7 +117,7 @@ public class StringParser implements JsonElementParser {
         }
 
         // Initialize our return value
-        StringBuilder stringAcc = new StringBuilder();
+        StringBuilder stringAcc = parser.borrowBuffer();
 
         // Here things get a bit hairy because a string missing the final quote can also be a key or a value in an object
         // In that case we need to use the ":|,|}" characters as terminators of the string
@@ -132,12 +125,12 @@ public class StringParser implements JsonElementParser {
         // * It finds a closing quote
         // * It iterated over the entire sequence
         // * If we are fixing missing quotes in an object, when it finds the special terminators
-        ch = parser.getCharAt();
+        ch = parser.charAt();
         boolean unmatchedDelimiter = false;
 
-        while (ch != null && ch != rstringDelimiter) {
+        while (ch != JsonParser.EOF && ch != rstringDelimiter) {
             if (missingQuotes) {
-                if (parser.getContext().getCurrent() == ContextValues.OBJECT_KEY && (ch == ':' || Character.isWhitespace(ch))) {
+                if (parser.getContext().getCurrent() == ContextValues.OBJECT_KEY && (ch == ':' || JsonParser.isWhitespace(ch))) {
                     parser.log("While parsing a string missing the left delimiter in object key context, we found a :, stopping here");
                     break;
                 } else if (parser.getContext().getCurrent() == ContextValues.ARRAY && (ch == ']' || ch == ',')) {
@@ -148,40 +141,40 @@ public class StringParser implements JsonElementParser {
 
             if (!parser.isStreamStable() &&
                     parser.getContext().getCurrent() == ContextValues.OBJECT_VALUE &&
-                    Arrays.asList(',', '}').contains(ch) &&
+                    (ch == ',' || ch == '}') &&
                     (stringAcc.length() == 0 || stringAcc.charAt(stringAcc.length() - 1) != rstringDelimiter)) {
 
                 boolean rstringDelimiterMissing = true;
                 // check if this is a case in which the closing comma is NOT missing instead
                 parser.skipWhitespacesAt();
-                if (parser.getCharAt(1) != null && parser.getCharAt(1) == '\\') {
+                if (parser.charAt(1) == '\\') {
                     // Ok this is a quoted string, skip
                     rstringDelimiterMissing = false;
                 }
                 int i = parser.skipToCharacter(rstringDelimiter, 1);
-                Character nextC = parser.getCharAt(i);
-                if (nextC != null) {
+                int nextC = parser.charAt(i);
+                if (nextC != JsonParser.EOF) {
                     i += 1;
                     // found a delimiter, now we need to check that is followed strictly by a comma or brace
                     // or the string ended
                     i = parser.skipWhitespacesAt(i, false);
-                    nextC = parser.getCharAt(i);
-                    if (nextC == null || Arrays.asList(',', '}').contains(nextC)) {
+                    nextC = parser.charAt(i);
+                    if (nextC == JsonParser.EOF || nextC == ',' || nextC == '}') {
                         rstringDelimiterMissing = false;
                     } else {
                         // OK but this could still be some garbage at the end of the string
                         // So we need to check if we find a new lstringDelimiter afterwards
                         // If we do, maybe this is a missing delimiter
                         i = parser.skipToCharacter(lstringDelimiter, i);
-                        nextC = parser.getCharAt(i);
-                        if (nextC == null) {
+                        nextC = parser.charAt(i);
+                        if (nextC == JsonParser.EOF) {
                             rstringDelimiterMissing = false;
                         } else {
                             // But again, this could just be something a bit stupid like "lorem, "ipsum" sic"
                             // Check if we find a : afterwards (skipping space)
                             i = parser.skipWhitespacesAt(i + 1, false);
-                            nextC = parser.getCharAt(i);
-                            if (nextC != null && nextC != ':') {
+                            nextC = parser.charAt(i);
+                            if (nextC != JsonParser.EOF && nextC != ':') {
                                 rstringDelimiterMissing = false;
                             }
                         }
@@ -191,8 +184,8 @@ public class StringParser implements JsonElementParser {
                     // because it might be a systemic issue with the output
                     // So let's check if we can find a : in the string instead
                     i = parser.skipToCharacter(':', 1);
-                    nextC = parser.getCharAt(i);
-                    if (nextC != null) {
+                    nextC = parser.charAt(i);
+                    if (nextC != JsonParser.EOF) {
                         // OK then this is a systemic issue with the output
                         break;
                     } else {
@@ -208,11 +201,10 @@ public class StringParser implements JsonElementParser {
                             rstringDelimiterMissing = false;
                         }
                         // Check that j was not out of bound
-                        else if (parser.getCharAt(j) != null) {
+                        else if (parser.charAt(j) != JsonParser.EOF) {
                             // Check for an unmatched opening brace in stringAcc
-                            String stringAccStr = stringAcc.toString();
-                            for (int k = stringAccStr.length() - 1; k >= 0; k--) {
-                                if (stringAccStr.charAt(k) == '{') {
+                            for (int k = stringAcc.length() - 1; k >= 0; k--) {
+                                if (stringAcc.charAt(k) == '{') {
                                     // Ok then this is part of the string
                                     rstringDelimiterMissing = false;
                                     break;
@@ -234,89 +226,81 @@ public class StringParser implements JsonElementParser {
                 // We found the end of an array and we are in array context
                 // So let's check if we find a rstringDelimiter forward otherwise end early
                 int i = parser.skipToCharacter(rstringDelimiter, 0);
-                if (parser.getCharAt(i) == null) {
+                if (parser.charAt(i) == JsonParser.EOF) {
                     // No delimiter found
                     break;
                 }
             }
 
-            stringAcc.append(ch);
+            stringAcc.append((char) ch);
             parser.setIndex(parser.getIndex() + 1);
-            ch = parser.getCharAt();
+            ch = parser.charAt();
 
             // Unclosed string ends with a \ character. This character is ignored if streamStable = True.
-            if (parser.isStreamStable() && ch == null && stringAcc.length() > 0 &&
+            if (parser.isStreamStable() && ch == JsonParser.EOF && stringAcc.length() > 0 &&
                     stringAcc.charAt(stringAcc.length() - 1) == '\\') {
                 stringAcc.setLength(stringAcc.length() - 1);
             }
 
-            if (ch != null && stringAcc.length() > 0 && stringAcc.charAt(stringAcc.length() - 1) == '\\') {
+            if (ch != JsonParser.EOF && stringAcc.length() > 0 && stringAcc.charAt(stringAcc.length() - 1) == '\\') {
                 // This is a special case, if people use real strings this might happen
                 parser.log("Found a stray escape sequence, normalizing it");
-                if (Arrays.asList(rstringDelimiter, 't', 'n', 'r', 'b', '\\').contains(ch)) {
+                if (ch == rstringDelimiter || ch == 't' || ch == 'n' || ch == 'r' || ch == 'b' || ch == '\\') {
                     stringAcc.setLength(stringAcc.length() - 1);
-                    Map<Character, Character> escapeSeqs = new HashMap<>();
-                    escapeSeqs.put('t', '\t');
-                    escapeSeqs.put('n', '\n');
-                    escapeSeqs.put('r', '\r');
-                    escapeSeqs.put('b', '\b');
-                    stringAcc.append(escapeSeqs.getOrDefault(ch, ch));
+                    stringAcc.append(unescape(ch));
                     parser.setIndex(parser.getIndex() + 1);
-                    ch = parser.getCharAt();
-                    while (ch != null && stringAcc.length() > 0 &&
+                    ch = parser.charAt();
+                    while (ch != JsonParser.EOF && stringAcc.length() > 0 &&
                             stringAcc.charAt(stringAcc.length() - 1) == '\\' &&
-                            Arrays.asList(rstringDelimiter, '\\').contains(ch)) {
+                            (ch == rstringDelimiter || ch == '\\')) {
                         // this is a bit of a special case, if I don't do this it will close the loop or create a train of \\
                         // I don't love it though
                         stringAcc.setLength(stringAcc.length() - 1);
-                        stringAcc.append(ch);
+                        stringAcc.append((char) ch);
                         parser.setIndex(parser.getIndex() + 1);
-                        ch = parser.getCharAt();
+                        ch = parser.charAt();
                     }
                     continue;
-                } else if (Arrays.asList('u', 'x').contains(ch)) {
+                } else if (ch == 'u' || ch == 'x') {
                     // If we find a unicode escape sequence, normalize it
                     int numChars = ch == 'u' ? 4 : 2;
-                    String nextChars = parser.getJsonStr().substring(
-                            Math.min(parser.getIndex() + 1, parser.getJsonStr().length()),
-                            Math.min(parser.getIndex() + 1 + numChars, parser.getJsonStr().length())
-                    );
-                    if (nextChars.length() == numChars && nextChars.matches("[0-9a-fA-F]+")) {
+                    int value = parseHex(parser, 1, numChars);
+                    if (value >= 0) {
                         parser.log("Found a unicode escape sequence, normalizing it");
                         stringAcc.setLength(stringAcc.length() - 1);
-                        stringAcc.append((char) Integer.parseInt(nextChars, 16));
+                        stringAcc.append((char) value);
                         parser.setIndex(parser.getIndex() + 1 + numChars);
-                        ch = parser.getCharAt();
+                        ch = parser.charAt();
                         continue;
                     }
-                } else if (JsonParser.STRING_DELIMITERS.contains(ch) && ch != rstringDelimiter) {
+                } else if (JsonParser.isStringDelimiter(ch) && ch != rstringDelimiter) {
                     parser.log("Found a delimiter that was escaped but shouldn't be escaped, removing the escape");
                     stringAcc.setLength(stringAcc.length() - 1);
-                    stringAcc.append(ch);
+                    stringAcc.append((char) ch);
                     parser.setIndex(parser.getIndex() + 1);
-                    ch = parser.getCharAt();
+                    ch = parser.charAt();
                     continue;
                 }
             }
 
             // If we are in object key context and we find a colon, it could be a missing right quote
-            if (ch != null && ch == ':' && !missingQuotes &&
+            if (ch == ':' && !missingQuotes &&
                     parser.getContext().getCurrent() == ContextValues.OBJECT_KEY) {
                 // Ok now we need to check if this is followed by a value like "..."
                 int i = parser.skipToCharacter(lstringDelimiter, 1);
-                Character nextC = parser.getCharAt(i);
-                if (nextC != null) {
+                int nextC = parser.charAt(i);
+                if (nextC != JsonParser.EOF) {
                     i += 1;
                     // found the first delimiter
                     i = parser.skipToCharacter(rstringDelimiter, i);
-                    nextC = parser.getCharAt(i);
-                    if (nextC != null) {
+                    nextC = parser.charAt(i);
+                    if (nextC != JsonParser.EOF) {
                         // found a second delimiter
                         i += 1;
                         // Skip spaces
                         i = parser.skipWhitespacesAt(i, false);
-                        nextC = parser.getCharAt(i);
-                        if (nextC != null && Arrays.asList(',', '}').contains(nextC)) {
+                        nextC = parser.charAt(i);
+                        if (nextC == ',' || nextC == '}') {
                             // Ok then this is a missing right quote
                             parser.log("While parsing a string missing the right delimiter in object key context, we found a :, stopping here");
                             break;
@@ -330,84 +314,83 @@ public class StringParser implements JsonElementParser {
             }
 
             // ChatGPT sometimes forget to quote stuff in html tags or markdown, so we do this whole thing here
-            if (ch != null && ch == rstringDelimiter &&
+            if (ch == rstringDelimiter &&
                     (stringAcc.length() == 0 || stringAcc.charAt(stringAcc.length() - 1) != '\\')) {
 
                 // Special case here, in case of double quotes one after another
-                if (doubledQuotes && parser.getCharAt(1) != null && parser.getCharAt(1) == rstringDelimiter) {
+                if (doubledQuotes && parser.charAt(1) == rstringDelimiter) {
                     parser.log("While parsing a string, we found a doubled quote, ignoring it");
                     parser.setIndex(parser.getIndex() + 1);
                 } else if (missingQuotes && parser.getContext().getCurrent() == ContextValues.OBJECT_VALUE) {
                     // In case of missing starting quote I need to check if the delimeter is the end or the beginning of a key
                     int i = 1;
-                    Character nextC = parser.getCharAt(i);
-                    while (nextC != null && !Arrays.asList(rstringDelimiter, lstringDelimiter).contains(nextC)) {
+                    int nextC = parser.charAt(i);
+                    while (nextC != JsonParser.EOF && nextC != rstringDelimiter && nextC != lstringDelimiter) {
                         i++;
-                        nextC = parser.getCharAt(i);
+                        nextC = parser.charAt(i);
                     }
-                    if (nextC != null) {
+                    if (nextC != JsonParser.EOF) {
                         // We found a quote, now let's make sure there's a ":" following
                         i += 1;
                         // found a delimiter, now we need to check that is followed strictly by a comma or brace
                         i = parser.skipWhitespacesAt(i, false);
-                        nextC = parser.getCharAt(i);
-                        if (nextC != null && nextC == ':') {
+                        nextC = parser.charAt(i);
+                        if (nextC == ':') {
                             // Reset the cursor
                             parser.setIndex(parser.getIndex() - 1);
-                            ch = parser.getCharAt();
+                            ch = parser.charAt();
                             parser.log("In a string with missing quotes and object value context, I found a delimeter but it turns out it was the beginning on the next key. Stopping here.");
                             break;
                         }
                     }
                 } else if (unmatchedDelimiter) {
                     unmatchedDelimiter = false;
-                    stringAcc.append(ch);
+                    stringAcc.append((char) ch);
                     parser.setIndex(parser.getIndex() + 1);
-                    ch = parser.getCharAt();
+                    ch = parser.charAt();
                 } else {
                     // Check if eventually there is a rstringDelimiter, otherwise we bail
                     int i = 1;
-                    Character nextC = parser.getCharAt(i);
+                    int nextC = parser.charAt(i);
                     boolean checkCommaInObjectValue = true;
-                    while (nextC != null && !Arrays.asList(rstringDelimiter, lstringDelimiter).contains(nextC)) {
+                    while (nextC != JsonParser.EOF && nextC != rstringDelimiter && nextC != lstringDelimiter) {
                         // This is a bit of a weird workaround, essentially in object_value context we don't always break on commas
                         // This is because the routine after will make sure to correct any bad guess and this solves a corner case
                         if (checkCommaInObjectValue && Character.isLetter(nextC)) {
                             checkCommaInObjectValue = false;
                         }
                         // If we are in an object context, let's check for the right delimiters
-                        if ((parser.getContext().contains(ContextValues.OBJECT_KEY) && Arrays.asList(':', '}').contains(nextC)) ||
+                        if ((parser.getContext().contains(ContextValues.OBJECT_KEY) && (nextC == ':' || nextC == '}')) ||
                                 (parser.getContext().contains(ContextValues.OBJECT_VALUE) && nextC == '}') ||
-                                (parser.getContext().contains(ContextValues.ARRAY) && Arrays.asList(']', ',').contains(nextC)) ||
+                                (parser.getContext().contains(ContextValues.ARRAY) && (nextC == ']' || nextC == ',')) ||
                                 (checkCommaInObjectValue && parser.getContext().getCurrent() == ContextValues.OBJECT_VALUE && nextC == ',')) {
                             break;
                         }
                         i++;
-                        nextC = parser.getCharAt(i);
+                        nextC = parser.charAt(i);
                     }
                     // If we stopped for a comma in object_value context, let's check if find a "} at the end of the string
-                    if (nextC != null && nextC == ',' && parser.getContext().getCurrent() == ContextValues.OBJECT_VALUE) {
+                    if (nextC == ',' && parser.getContext().getCurrent() == ContextValues.OBJECT_VALUE) {
                         i += 1;
                         i = parser.skipToCharacter(rstringDelimiter, i);
-                        nextC = parser.getCharAt(i);
                         // Ok now I found a delimiter, let's skip whitespaces and see if next we find a } or a ,
                         i += 1;
                         i = parser.skipWhitespacesAt(i, false);
-                        nextC = parser.getCharAt(i);
-                        if (nextC != null && Arrays.asList('}', ',').contains(nextC)) {
+                        nextC = parser.charAt(i);
+                        if (nextC == '}' || nextC == ',') {
                             parser.log("While parsing a string, we a misplaced quote that would have closed the string but has a different meaning here, ignoring it");
-                            stringAcc.append(ch);
+                            stringAcc.append((char) ch);
                             parser.setIndex(parser.getIndex() + 1);
-                            ch = parser.getCharAt();
+                            ch = parser.charAt();
                             continue;
                         }
-                    } else if (nextC != null && nextC == rstringDelimiter &&
-                            (i == 1 || parser.getCharAt(i - 1) != '\\')) {
+                    } else if (nextC == rstringDelimiter &&
+                            (i == 1 || parser.charAt(i - 1) != '\\')) {
                         // Check if self.index:self.index+i is only whitespaces, break if that's the case
                         boolean allWhitespace = true;
                         for (int j = 1; j < i; j++) {
-                            Character cAtJ = parser.getCharAt(j);
-                            if (cAtJ != null && !Character.isWhitespace(cAtJ)) {
+                            int cAtJ = parser.charAt(j);
+                            if (cAtJ != JsonParser.EOF && !JsonParser.isWhitespace(cAtJ)) {
                                 allWhitespace = false;
                                 break;
                             }
@@ -417,7 +400,7 @@ public class StringParser implements JsonElementParser {
                         }
                         if (parser.getContext().getCurrent() == ContextValues.OBJECT_VALUE) {
                             i = parser.skipWhitespacesAt(i + 1, false);
-                            if (parser.getCharAt(i) != null && parser.getCharAt(i) == ',') {
+                            if (parser.charAt(i) == ',') {
                                 // So we found a comma, this could be a case of a single quote like "va"lue",
                                 // Search if it's followed by another key, starting with the first delimeter
                                 i = parser.skipToCharacter(lstringDelimiter, i + 1);
@@ -425,12 +408,12 @@ public class StringParser implements JsonElementParser {
                                 i = parser.skipToCharacter(rstringDelimiter, i + 1);
                                 i += 1;
                                 i = parser.skipWhitespacesAt(i, false);
-                                nextC = parser.getCharAt(i);
-                                if (nextC != null && nextC == ':') {
+                                nextC = parser.charAt(i);
+                                if (nextC == ':') {
                                     parser.log("While parsing a string, we a misplaced quote that would have closed the string but has a different meaning here, ignoring it");
-                                    stringAcc.append(ch);
+                                    stringAcc.append((char) ch);
                                     parser.setIndex(parser.getIndex() + 1);
-                                    ch = parser.getCharAt();
+                                    ch = parser.charAt();
                                     continue;
                                 }
                             }
@@ -438,69 +421,68 @@ public class StringParser implements JsonElementParser {
                             // so find a rstringDelimiter and a colon after
                             i = parser.skipToCharacter(rstringDelimiter, i + 1);
                             i += 1;
-                            nextC = parser.getCharAt(i);
-                            while (nextC != null && nextC != ':') {
-                                if (Arrays.asList(',', ']', '}').contains(nextC) ||
-                                        (nextC == rstringDelimiter && (i == 0 || parser.getCharAt(i - 1) != '\\'))) {
+                            nextC = parser.charAt(i);
+                            while (nextC != JsonParser.EOF && nextC != ':') {
+                                if (nextC == ',' || nextC == ']' || nextC == '}' ||
+                                        (nextC == rstringDelimiter && (i == 0 || parser.charAt(i - 1) != '\\'))) {
                                     break;
                                 }
                                 i++;
-                                nextC = parser.getCharAt(i);
+                                nextC = parser.charAt(i);
                             }
                             // Only if we fail to find a ':' then we know this is misplaced quote
-                            if (nextC == null || nextC != ':') {
+                            if (nextC != ':') {
                                 parser.log("While parsing a string, we a misplaced quote that would have closed the string but has a different meaning here, ignoring it");
                                 unmatchedDelimiter = !unmatchedDelimiter;
-                                stringAcc.append(ch);
+                                stringAcc.append((char) ch);
                                 parser.setIndex(parser.getIndex() + 1);
-                                ch = parser.getCharAt();
+                                ch = parser.charAt();
                             }
                         } else if (parser.getContext().getCurrent() == ContextValues.ARRAY) {
                             // Let's check if after this quote there are two quotes in a row followed by a comma or a closing bracket
-                            i = parser.skipToCharacter(Arrays.asList(rstringDelimiter, ']'), i + 1);
-                            nextC = parser.getCharAt(i);
-                            boolean evenDelimiters = nextC != null && nextC == rstringDelimiter;
-                            while (evenDelimiters && nextC != null && nextC == rstringDelimiter) {
-                                i = parser.skipToCharacter(Arrays.asList(rstringDelimiter, ']'), i + 1);
-                                i = parser.skipToCharacter(Arrays.asList(rstringDelimiter, ']'), i + 1);
-                                nextC = parser.getCharAt(i);
+                            i = parser.skipToCharacter(rstringDelimiter, ']', i + 1);
+                            nextC = parser.charAt(i);
+                            boolean evenDelimiters = nextC == rstringDelimiter;
+                            if (evenDelimiters) {
+                                i = parser.skipPairsToArrayEnd(rstringDelimiter, i);
+                                nextC = parser.charAt(i);
                             }
-                            if (evenDelimiters && (nextC == null || nextC != ']')) {
+                            if (evenDelimiters && nextC != ']') {
                                 // If we got up to here it means that this is a situation like this:
                                 // ["bla bla bla "puppy" bla bla bla "kitty" bla bla"]
                                 // So we need to ignore this quote
                                 parser.log("While parsing a string in Array context, we detected a quoted section that would have closed the string but has a different meaning here, ignoring it");
                                 unmatchedDelimiter = !unmatchedDelimiter;
-                                stringAcc.append(ch);
+                                stringAcc.append((char) ch);
                                 parser.setIndex(parser.getIndex() + 1);
-                                ch = parser.getCharAt();
+                                ch = parser.charAt();
                             } else {
                                 break;
                             }
                         } else if (parser.getContext().getCurrent() == ContextValues.OBJECT_KEY) {
                             // In this case we just ignore this and move on
                             parser.log("While parsing a string in Object Key context, we detected a quoted section that would have closed the string but has a different meaning here, ignoring it");
-                            stringAcc.append(ch);
+                            stringAcc.append((char) ch);
                             parser.setIndex(parser.getIndex() + 1);
-                            ch = parser.getCharAt();
+                            ch = parser.charAt();
                         }
                     }
                 }
             }
         }
 
-        if (ch != null && missingQuotes && parser.getContext().getCurrent() == ContextValues.OBJECT_KEY &&
-                Character.isWhitespace(ch)) {
+        if (missingQuotes && parser.getContext().getCurrent() == ContextValues.OBJECT_KEY &&
+                JsonParser.isWhitespace(ch)) {
             parser.log("While parsing a string, handling an extreme corner case in which the LLM added a comment instead of valid string, invalidate the string and return an empty value");
             parser.skipWhitespacesAt();
-            if (parser.getCharAt() == null || (parser.getCharAt() != ':' && parser.getCharAt() != ',')) {
+            if (parser.charAt() != ':' && parser.charAt() != ',') {
                 return "";
             }
         }
 
         // A fallout of the previous special case in the while loop,
         // we need to update the index only if we had a closing quote
-        if (ch == null || ch != rstringDelimiter) {
+        if (ch != rstringDelimiter) {
             // if streamStable = True, unclosed strings do not trim trailing whitespace characters
             if (!parser.isStreamStable()) {
                 parser.log("While parsing a string, we missed the closing quote, ignoring");
@@ -520,6 +502,45 @@ public class StringParser implements JsonElementParser {
             }
         }
 
+        KeyTable keyTable = parser.getKeyTable();
+        if (keyTable != null && parser.getContext().getCurrent() == ContextValues.OBJECT_KEY) {
+            return keyTable.intern(stringAcc);
+        }
         return stringAcc.toString();
     }
-}
\ No newline at end of file
+
+    private static char unescape(int ch) {
+        switch (ch) {
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'b':
+                return '\b';
+            default:
+                return (char) ch;
+        }
+    }
+
+    /**
+     * Read numChars hex digits starting at the given offset, returns -1 if they are not all hex digits
+     */
+    private int parseHex(JsonParser parser, int offset, int numChars) {
+        int value = 0;
+        for (int i = 0; i < numChars; i++) {
+            int c = parser.charAt(offset + i);
+            if (c >= '0' && c <= '9') {
+                value = value * 16 + c - '0';
+            } else if (c >= 'a' && c <= 'f') {
+                value = value * 16 + c - 'a' + 10;
+            } else if (c >= 'A' && c <= 'F') {
+                value = value * 16 + c - 'A' + 10;
+            } else {
+                return -1;
+            }
+        }
+        return value;
+    }
+}
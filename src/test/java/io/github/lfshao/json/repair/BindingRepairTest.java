@@ -0,0 +1,77 @@
+package io.github.lfshao.json.repair;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 直接绑定到Java对象（repair(String, Class)和RepairingJsonFactory）的测试类
+ */
+public class BindingRepairTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final RepairingJsonFactory FACTORY = new RepairingJsonFactory();
+
+    private static final String[] INPUTS = {
+            "{name: John, age: 30, city: New York}",
+            "[1, 2, 3, 4",
+            "{\"a\": [1, 2] [3], \"b\": {\"c\": tru",
+            "{\"a\": 1, \"a\": 2}",
+            "lorem ```json {\"key\":\"value\"} ``` ipsum ```json [1,2,3,True] ``` 42",
+            "{\"key\": \"value\\u263a\", \"number\": 1.5e3, \"big\": 12345678901234567890}",
+            "{\"n\": 1e999, \"m\": -0.5",
+            "1.2",
+    };
+
+    public static class Person {
+        public String name;
+        public int age;
+        public List<String> tags;
+        public Person friend;
+    }
+
+    @Test
+    public void testRepairToClass() throws IOException {
+        Person person = JsonRepair.repair("{name: 'John', age: 30, tags: [a, b], friend: {name: Jane, age: 2", Person.class);
+        assertEquals("John", person.name);
+        assertEquals(30, person.age);
+        assertEquals(Arrays.asList("a", "b"), person.tags);
+        assertEquals("Jane", person.friend.name);
+        assertEquals(2, person.friend.age);
+
+        Person valid = JsonRepair.repair("{\"name\": \"Ann\", \"age\": 41}", Person.class);
+        assertEquals("Ann", valid.name);
+        assertEquals(41, valid.age);
+
+        Map<?, ?> map = JsonRepair.repair("{a: 1, b: [true, null", Map.class);
+        assertEquals(1, map.get("a"));
+        assertEquals(Arrays.asList(true, null), map.get("b"));
+
+        assertThrows(IOException.class, () -> JsonRepair.repair("", Person.class));
+        assertThrows(IOException.class, () -> JsonRepair.repair("[1, 2", Person.class));
+    }
+
+    @Test
+    public void testParserMatchesRepairedText() throws IOException {
+        for (String input : INPUTS) {
+            JsonNode expected = MAPPER.readTree(JsonRepair.repair(input));
+            try (JsonParser parser = FACTORY.createParser(input)) {
+                assertEquals(expected, MAPPER.readTree(parser), input);
+            }
+        }
+        // 没有任何内容
+        for (String input : new String[]{"", "string"}) {
+            try (JsonParser parser = FACTORY.createParser(input)) {
+                assertNull(parser.nextToken(), input);
+            }
+        }
+    }
+}
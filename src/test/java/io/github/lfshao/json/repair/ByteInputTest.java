@@ -0,0 +1,152 @@
+package io.github.lfshao.json.repair;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * UTF-8字节输入（repair(byte[])、repair(ByteBuffer)等）的测试类
+ */
+public class ByteInputTest {
+
+    // 只在字节输入中有区别的输入：三字节的弯引号、代码块中的西里尔字母、多个顶层元素中的非ASCII字符
+    private static final String[] BYTE_INPUTS = {
+            "{“key”: “value”, note: ‘curly’}",
+            "```json\n{\"a\": \"б\"}\n```",
+            "{\"a\": 1} [2, 3] {b: 'é'}",
+    };
+
+    private static String[] inputs() {
+        String[] inputs = Arrays.copyOf(RepairInputs.COMMON, RepairInputs.COMMON.length + BYTE_INPUTS.length);
+        System.arraycopy(BYTE_INPUTS, 0, inputs, RepairInputs.COMMON.length, BYTE_INPUTS.length);
+        return inputs;
+    }
+
+    private static byte[] utf8(String input) {
+        return input.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testByteArray() {
+        for (String input : inputs()) {
+            assertEquals(JsonRepair.repair(input), JsonRepair.repair(utf8(input)), input);
+        }
+        String input = RepairInputs.large();
+        assertEquals(JsonRepair.repair(input), JsonRepair.repair(utf8(input)));
+        assertEquals("", JsonRepair.repair((byte[]) null));
+    }
+
+    @Test
+    public void testMalformedBytes() {
+        byte[][] inputs = {
+                // 截断的多字节序列
+                {'[', '"', (byte) 0xE4, (byte) 0xB8},
+                // 过长的编码、代理字符和超出范围的码点
+                {'[', (byte) 0xC0, (byte) 0xAF, ',', (byte) 0xED, (byte) 0xA0, (byte) 0x80, ',', (byte) 0xF4, (byte) 0x90, (byte) 0x80, (byte) 0x80, ']'},
+                // 孤立的后续字节之后是合法的序列
+                {'{', 'a', ':', (byte) 0x80, (byte) 0xE4, (byte) 0xB8, (byte) 0xAD, '}'},
+        };
+        for (byte[] input : inputs) {
+            assertEquals(JsonRepair.repair(new String(input, StandardCharsets.UTF_8)), JsonRepair.repair(input));
+        }
+
+        Random random = new Random(42);
+        byte[] alphabet = utf8("{}[]\":, 'a1中😀é\\");
+        for (int n = 0; n < 2000; n++) {
+            byte[] input = new byte[random.nextInt(40)];
+            for (int i = 0; i < input.length; i++) {
+                input[i] = random.nextInt(4) == 0 ? (byte) random.nextInt(256) : alphabet[random.nextInt(alphabet.length)];
+            }
+            assertEquals(JsonRepair.repair(new String(input, StandardCharsets.UTF_8)), JsonRepair.repair(input));
+        }
+    }
+
+    @Test
+    public void testByteBuffer() {
+        for (String input : inputs()) {
+            String expected = JsonRepair.repair(input);
+            byte[] bytes = utf8(input);
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 3);
+            direct.put(new byte[]{'#', '#'}).put(bytes).put((byte) '#');
+            ByteBuffer heap = ByteBuffer.allocate(bytes.length + 10);
+            heap.position(5);
+            heap = heap.slice();
+            heap.put(new byte[]{'#', '#'}).put(bytes).put((byte) '#');
+            for (ByteBuffer buffer : new ByteBuffer[]{direct, heap}) {
+                // 只读取position到limit之间的内容
+                buffer.position(2);
+                buffer.limit(2 + bytes.length);
+                assertEquals(expected, JsonRepair.repair(buffer), input);
+                assertEquals(buffer.limit(), buffer.position());
+            }
+        }
+    }
+
+    @Test
+    public void testOutputStream() throws IOException {
+        String[] inputs = Arrays.copyOf(inputs(), inputs().length + 1);
+        inputs[inputs.length - 1] = RepairInputs.large();
+        for (String input : inputs) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            JsonRepair.repair(utf8(input), out);
+            assertArrayEquals(utf8(JsonRepair.repair(input)), out.toByteArray(), input);
+        }
+    }
+
+    @Test
+    public void testByteBufferToByteBuffer() {
+        for (String input : inputs()) {
+            byte[] expected = utf8(JsonRepair.repair(input));
+            ByteBuffer source = ByteBuffer.wrap(utf8(input));
+            ByteBuffer target = ByteBuffer.allocateDirect(expected.length);
+            JsonRepair.repair(source, target);
+            assertFalse(source.hasRemaining());
+            assertEquals(expected.length, target.position());
+            target.flip();
+            byte[] actual = new byte[target.remaining()];
+            target.get(actual);
+            assertArrayEquals(expected, actual, input);
+        }
+
+        ByteBuffer source = ByteBuffer.wrap(utf8(RepairInputs.large()));
+        ByteBuffer target = ByteBuffer.allocate(1000);
+        assertThrows(BufferOverflowException.class, () -> JsonRepair.repair(source, target));
+        assertEquals(0, source.position());
+        assertEquals(0, target.position());
+    }
+
+    @Test
+    public void testReuseAcrossInputs() {
+        // 同一个线程交替修复字节和字符串输入，复用的解析状态不能残留上一次的内容
+        RepairEngine engine = new RepairEngine(true);
+        for (int round = 0; round < 3; round++) {
+            for (String input : inputs()) {
+                assertEquals(engine.repair(input), engine.repair(utf8(input)), input);
+            }
+        }
+    }
+
+    @Test
+    public void testSurrogatePairAtPooledLimit() {
+        // 字节数不超过POOLED_LIMIT的输入解码到复用的字符数组中，移动表情符号使它跨越这个上限
+        for (int n = RepairEngine.POOLED_LIMIT - 10; n <= RepairEngine.POOLED_LIMIT; n++) {
+            char[] padding = new char[n];
+            Arrays.fill(padding, 'a');
+            String input = "[\"" + new String(padding) + "😀\"";
+            String expected = JsonRepair.repair(input);
+            byte[] bytes = utf8(input);
+            assertEquals(expected, JsonRepair.repair(bytes), "length " + bytes.length);
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+            direct.put(bytes).flip();
+            assertEquals(expected, JsonRepair.repair(direct), "length " + bytes.length);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.lfshao.json.repair;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * UTF-8字节输出（repair(String, OutputStream)和repair(String, ByteBuffer)）的测试类
+ */
+public class ByteOutputTest {
+
+    // 不成对的代理字符写为 ?，与String.getBytes(UTF_8)相同
+    private static final String LONE_SURROGATES = "{\"lone\": \"\ud800\", \"low\": \"\udc00x\"}";
+
+    private static String[] inputs() {
+        String[] inputs = Arrays.copyOf(RepairInputs.COMMON, RepairInputs.COMMON.length + 2);
+        inputs[inputs.length - 2] = LONE_SURROGATES;
+        inputs[inputs.length - 1] = RepairInputs.large();
+        return inputs;
+    }
+
+    private static byte[] expected(String input) {
+        return JsonRepair.repair(input).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testOutputStream() throws IOException {
+        for (String input : inputs()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            JsonRepair.repair(input, out);
+            assertArrayEquals(expected(input), out.toByteArray(), input);
+        }
+    }
+
+    @Test
+    public void testByteBuffer() {
+        for (String input : inputs()) {
+            byte[] expected = expected(input);
+            for (ByteBuffer buffer : new ByteBuffer[]{
+                    ByteBuffer.allocate(expected.length + 10),
+                    ByteBuffer.allocateDirect(expected.length + 10),
+                    // 底层数组有偏移的堆缓冲区
+                    ((ByteBuffer) ByteBuffer.allocate(expected.length + 20).position(7)).slice()}) {
+                buffer.put((byte) '#');
+                JsonRepair.repair(input, buffer);
+                assertEquals(expected.length + 1, buffer.position(), input);
+                buffer.flip();
+                byte[] actual = new byte[buffer.remaining() - 1];
+                assertEquals('#', buffer.get());
+                buffer.get(actual);
+                assertArrayEquals(expected, actual, input);
+            }
+        }
+    }
+
+    @Test
+    public void testByteBufferOverflow() {
+        String input = RepairInputs.large();
+        for (ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate(1000), ByteBuffer.allocateDirect(100000)}) {
+            buffer.position(3);
+            assertThrows(BufferOverflowException.class, () -> JsonRepair.repair(input, buffer));
+            assertEquals(3, buffer.position());
+        }
+    }
+
+    @Test
+    public void testSurrogatePairAtBufferBoundary() throws IOException {
+        // 输出以 [" 开始，移动表情符号使它的四个字节依次跨越内部缓冲区的边界
+        for (int n = Utf8Output.BUFFER_SIZE - 8; n <= Utf8Output.BUFFER_SIZE; n++) {
+            char[] padding = new char[n];
+            Arrays.fill(padding, 'a');
+            String input = "[\"" + new String(padding) + "😀中\"";
+            byte[] expected = expected(input);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            JsonRepair.repair(input, out);
+            assertArrayEquals(expected, out.toByteArray(), "length " + n);
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(expected.length);
+            JsonRepair.repair(input, direct);
+            direct.flip();
+            byte[] actual = new byte[direct.remaining()];
+            direct.get(actual);
+            assertArrayEquals(expected, actual, "length " + n);
+
+            // 堆缓冲区直接写入底层数组，表情符号只写入一部分时整体失败
+            ByteBuffer heap = ByteBuffer.allocate(n + 4);
+            assertThrows(BufferOverflowException.class, () -> JsonRepair.repair(input, heap));
+            assertEquals(0, heap.position());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package io.github.lfshao.json.repair;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 缓存修复结果的引擎（CachingRepairEngine）的测试类
+ */
+public class CachingRepairEngineTest {
+
+    @Test
+    public void testHitsAndMisses() {
+        CachingRepairEngine cache = new CachingRepairEngine(new RepairEngine(), 100, 10000);
+        String input = "{name: 'John', items: [apple, banana";
+        String expected = JsonRepair.repair(input);
+        assertEquals(expected, cache.repair(input));
+        assertEquals(expected, cache.repair(input));
+        // 内容相同的另一个字符串对象同样命中
+        assertEquals(expected, cache.repair(new String(input.toCharArray())));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.size());
+        assertEquals(input.length() + expected.length(), cache.weight());
+
+        // 空输入不进入缓存
+        assertEquals("", cache.repair(""));
+        assertEquals("", cache.repair(null));
+        assertEquals(1, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.weight());
+        assertEquals(expected, cache.repair(input));
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testEviction() {
+        // 条目数是整个缓存的上限，不按段分配
+        for (int max : new int[]{1, 16, 100}) {
+            CachingRepairEngine cache = new CachingRepairEngine(new RepairEngine(), max, 1 << 20);
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(JsonRepair.repair("[" + i + ", 'x'"), cache.repair("[" + i + ", 'x'"));
+            }
+            assertEquals(max, cache.size());
+            assertEquals(1000 - max, cache.getEvictionCount());
+        }
+
+        // 权重同样是整个缓存的上限
+        CachingRepairEngine light = new CachingRepairEngine(new RepairEngine(), 1000, 16 * 64);
+        for (int i = 0; i < 1000; i++) {
+            light.repair("{key" + i + ": value" + i);
+        }
+        assertTrue(light.weight() <= 16 * 64);
+        assertTrue(light.weight() > 15 * 64);
+        assertTrue(light.getEvictionCount() > 0);
+
+        // 超过总权重十六分之一的结果同样可以缓存，超过总权重的不缓存，也不会淘汰其他条目
+        StringBuilder large = new StringBuilder("[");
+        for (int i = 0; i < 100; i++) {
+            large.append(i).append(", ");
+        }
+        light.clear();
+        light.repair(large.toString());
+        assertEquals(1, light.size());
+        assertEquals(large.length() + JsonRepair.repair(large.toString()).length(), light.weight());
+        long evictions = light.getEvictionCount();
+        for (int i = 0; i < 300; i++) {
+            large.append(i).append(", ");
+        }
+        light.repair(large.toString());
+        assertEquals(1, light.size());
+        assertEquals(evictions, light.getEvictionCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsed() {
+        CachingRepairEngine cache = new CachingRepairEngine(new RepairEngine(), 2, 1 << 20);
+        // 找到落在同一段的三个输入，缓存最多两个条目
+        List<String> inputs = new ArrayList<>();
+        long segment = -1;
+        for (int i = 0; inputs.size() < 3; i++) {
+            String input = "{id: " + i;
+            long s = (CachingRepairEngine.hash(input) >>> 32) & 15;
+            if (segment < 0 || s == segment) {
+                segment = s;
+                inputs.add(input);
+            }
+        }
+        cache.repair(inputs.get(0));
+        cache.repair(inputs.get(1));
+        // 访问第一个，之后插入第三个时淘汰第二个
+        cache.repair(inputs.get(0));
+        cache.repair(inputs.get(2));
+        assertEquals(1, cache.getEvictionCount());
+        long hits = cache.getHitCount();
+        cache.repair(inputs.get(0));
+        assertEquals(hits + 1, cache.getHitCount());
+        cache.repair(inputs.get(1));
+        assertEquals(hits + 1, cache.getHitCount());
+    }
+
+    @Test
+    public void testHash() {
+        assertNotEquals(CachingRepairEngine.hash("{a: 1}"), CachingRepairEngine.hash("{a: 2}"));
+        assertNotEquals(CachingRepairEngine.hash("abcd"), CachingRepairEngine.hash("abdc"));
+        assertEquals(CachingRepairEngine.hash("中文 {a: 1}"), CachingRepairEngine.hash(new String("中文 {a: 1}".toCharArray())));
+    }
+
+    @Test
+    public void testConcurrentUse() throws Exception {
+        CachingRepairEngine cache = new CachingRepairEngine(new RepairEngine(), 64, 1 << 20);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        String input = "{id: " + i % 100 + ", name: 'user'";
+                        assertEquals(JsonRepair.repair(input), cache.repair(input));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(8 * 2000, cache.getHitCount() + cache.getMissCount());
+        assertTrue(cache.size() <= 64);
+    }
+}
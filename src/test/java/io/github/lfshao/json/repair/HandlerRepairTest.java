@@ -0,0 +1,185 @@
+package io.github.lfshao.json.repair;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 事件处理器（JsonRepairHandler）的测试类
+ */
+public class HandlerRepairTest {
+
+    // 只在事件处理器中有区别的输入：重复的键只产生最后一个值的事件，顶层的字符串
+    private static final String[] HANDLER_INPUTS = {
+            "{\"a\": 1, \"a\": 2}",
+            "\"text\"",
+    };
+
+    @Test
+    public void testWriterHandler() throws IOException {
+        List<String> inputs = new ArrayList<>(Arrays.asList(RepairInputs.COMMON));
+        inputs.addAll(Arrays.asList(HANDLER_INPUTS));
+        for (String input : inputs) {
+            StringBuilder expected = new StringBuilder();
+            JsonRepair.repair(input, expected);
+            StringBuilder out = new StringBuilder();
+            JsonRepair.repair(input, new WriterHandler(out));
+            assertEquals(expected.toString(), out.toString(), input);
+        }
+    }
+
+    @Test
+    public void testEventOrder() {
+        // 合并的数组、重复的键和多个顶层元素，事件按修复后的JSON的顺序发出
+        assertEquals(Arrays.asList("{", "key:a", "[", 1, 2, 3, "]", "key:b", "{", "key:c", "tru", "}", "}"),
+                events("{\"a\": [1, 2] [3], \"b\": {\"c\": tru"));
+        assertEquals(Arrays.asList("{", "key:a", 2, "}"), events("{\"a\": 1, \"a\": 2}"));
+        assertEquals(Arrays.asList("[", "{", "key:a", 1, "}", "[", 2, "x", "]", "]"), events("{\"a\": 1} [2, 'x']"));
+        assertEquals(Arrays.asList("[", 1, "{", "key:b", null, "key:c", 1.5, "}", "]"), events("[1, {b: null, c: 1.5}, []]"));
+        assertEquals(Arrays.asList("text"), events("\"text\""));
+        assertEquals(new ArrayList<>(), events(""));
+    }
+
+    /**
+     * 记录修复产生的事件，容器的开始和结束记为括号，键记为 key:名称，标量记为值本身
+     */
+    private static List<Object> events(String input) {
+        List<Object> events = new ArrayList<>();
+        JsonRepair.repair(input, new JsonRepairHandler() {
+            @Override
+            public void startObject() {
+                events.add("{");
+            }
+
+            @Override
+            public void endObject() {
+                events.add("}");
+            }
+
+            @Override
+            public void startArray() {
+                events.add("[");
+            }
+
+            @Override
+            public void endArray() {
+                events.add("]");
+            }
+
+            @Override
+            public void key(String key) {
+                events.add("key:" + key);
+            }
+
+            @Override
+            public void value(Object value) {
+                events.add(value);
+            }
+        });
+        return events;
+    }
+
+    @Test
+    public void testTreeHandler() {
+        TreeHandler tree = new TreeHandler();
+        JsonRepair.repair("{name: 'John', tags: [a, b], nested: {x: 1", tree);
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("name", "John");
+        expected.put("tags", Arrays.asList("a", "b"));
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("x", 1);
+        expected.put("nested", nested);
+        assertEquals(expected, tree.getResult());
+
+        TreeHandler empty = new TreeHandler();
+        JsonRepair.repair("", empty);
+        assertEquals("", empty.getResult());
+
+        TreeHandler scalar = new TreeHandler();
+        JsonRepair.repair("null", scalar);
+        assertNull(scalar.getResult());
+    }
+
+    @Test
+    public void testSelectedFieldsFromLargeArray() throws IOException {
+        int count = 200000;
+        // 按需生成的很大的顶层数组，只收集name字段
+        Reader reader = new Reader() {
+            private int index;
+            private String pending = "[";
+
+            @Override
+            public int read(char[] cbuf, int off, int len) {
+                if (pending.isEmpty()) {
+                    if (index == count) {
+                        return -1;
+                    }
+                    pending = "{id: " + index + ", name: 'user" + index + "', tags: [a, b]}, ";
+                    index++;
+                }
+                int n = Math.min(len, pending.length());
+                pending.getChars(0, n, cbuf, off);
+                pending = pending.substring(n);
+                return n;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        List<String> names = new ArrayList<>();
+        JsonRepair.repair(reader, new JsonRepairHandler() {
+            private int depth;
+            private boolean nameNext;
+
+            @Override
+            public void startObject() {
+                depth++;
+            }
+
+            @Override
+            public void endObject() {
+                depth--;
+            }
+
+            @Override
+            public void startArray() {
+                depth++;
+            }
+
+            @Override
+            public void endArray() {
+                depth--;
+            }
+
+            @Override
+            public void key(String key) {
+                nameNext = depth == 2 && key.equals("name");
+            }
+
+            @Override
+            public void value(Object value) {
+                if (nameNext) {
+                    names.add((String) value);
+                    nameNext = false;
+                }
+            }
+        });
+        assertEquals(count, names.size());
+        assertEquals("user0", names.get(0));
+        assertEquals("user" + (count - 1), names.get(count - 1));
+
+        StringBuilder out = new StringBuilder();
+        JsonRepair.repair(new StringReader("[1, {a: 2"), new WriterHandler(out));
+        assertEquals("[1,{\"a\":2}]", out.toString());
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.lfshao.json.repair;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 增量修复（IncrementalJsonRepair）的测试类
+ */
+public class IncrementalRepairTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static String feedAll(String input, int chunkSize) throws Exception {
+        IncrementalJsonRepair repair = new IncrementalJsonRepair();
+        String stable = "";
+        for (int i = 0; i < input.length(); i += chunkSize) {
+            repair.feed(input.substring(i, Math.min(input.length(), i + chunkSize)));
+            String snapshot = repair.snapshot();
+            // 每个快照都是合法的JSON，并且以之前稳定的部分开头
+            if (!snapshot.isEmpty()) {
+                objectMapper.readTree(snapshot);
+            }
+            assertTrue(snapshot.startsWith(stable), snapshot);
+            assertEquals(snapshot.substring(stable.length()), repair.snapshot(stable.length()));
+            stable = snapshot.substring(0, repair.getStableLength());
+        }
+        return repair.snapshot();
+    }
+
+    @Test
+    public void testPartialSnapshots() {
+        IncrementalJsonRepair repair = new IncrementalJsonRepair();
+        assertEquals("", repair.snapshot());
+        assertEquals("{\"name\":\"Jo\"}", repair.feed("{\"name\": \"Jo").snapshot());
+        assertEquals("{\"name\":\"John\",\"items\":[1,2]}", repair.feed("hn\", \"items\": [1, 2").snapshot());
+        assertEquals("{\"name\":\"John\",\"items\":[1,2,\"tr\"]}", repair.feed(", tr").snapshot());
+        assertEquals("{\"name\":\"John\",\"items\":[1,2,true]}", repair.feed("ue], ").snapshot());
+        assertEquals("{\"name\":\"John\",\"items\":[1,2,true]}", repair.feed("\"ag").snapshot());
+        assertEquals("{\"name\":\"John\",\"items\":[1,2,true],\"age\":30}", repair.feed("e\": 30}").snapshot());
+    }
+
+    @Test
+    public void testValidStream() throws Exception {
+        String input = "{\"a\": \"b\" , \"c\": [1, {\"d\": null}, [], \"\"], \"e\": -1.5e3, \"f\": \"\\u263a\\\"\"}";
+        // 合法的部分保持原文，只去掉空白
+        String expected = "{\"a\":\"b\",\"c\":[1,{\"d\":null},[],\"\"],\"e\":-1.5e3,\"f\":\"\\u263a\\\"\"}";
+        for (int chunkSize = 1; chunkSize <= 8; chunkSize++) {
+            assertEquals(expected, feedAll(input, chunkSize));
+        }
+    }
+
+    @Test
+    public void testBrokenStream() throws Exception {
+        String[] inputs = {
+                "{name: 'John', items: [apple, banana, 'cherry'",
+                "{\"key\": \"v\"alue\", \"key2\": \"value2\"}",
+                "[\"lorem \"ipsum\" sic\"]",
+                "{\"text\": \"line1\nline2\", \"n\": 1",
+                "{\"price\": 1,000, \"tags\": [\"a\", \"b\"",
+                "{\n  // User info\n  \"name\": \"John\",\n  \"age\": 30 /* age */\n}",
+                "[{\"key\": \"value\"},, {\"key\": \"value2\"}",
+        };
+        for (String input : inputs) {
+            for (int chunkSize = 1; chunkSize <= 5; chunkSize++) {
+                assertEquals(objectMapper.readTree(JsonRepair.repair(input)), objectMapper.readTree(feedAll(input, chunkSize)), input);
+            }
+        }
+    }
+
+    @Test
+    public void testTextAroundRoot() throws Exception {
+        assertEquals("{\"a\":1}", feedAll("```json\n{\"a\": 1}\n```", 3));
+        assertEquals("[1,2]", feedAll("// [comment]\n/* {block} */ [1, 2] [3]", 2));
+        assertEquals("", feedAll("no json here", 4));
+    }
+
+    @Test
+    public void testFinishIndependentOfChunks() {
+        String[] inputs = {
+                "{}[\\]/at*",
+                "[1]:\n\n]t /1n*'{{}\"{",
+                "[1, 2]   \n",
+                "{\"a\": 1} {\"b\": 2}",
+                "[\"x\"] // done",
+        };
+        for (String input : inputs) {
+            String expected = new IncrementalJsonRepair().feed(input).finish();
+            for (int chunkSize = 1; chunkSize <= 4; chunkSize++) {
+                IncrementalJsonRepair repair = new IncrementalJsonRepair();
+                for (int i = 0; i < input.length(); i += chunkSize) {
+                    repair.feed(input.substring(i, Math.min(input.length(), i + chunkSize)));
+                }
+                // 根元素之后的内容在之后的块中到达时，同样使finish返回null
+                assertEquals(expected, repair.finish(), input);
+            }
+        }
+        assertEquals("[1,2]", new IncrementalJsonRepair().feed("[1, 2]").feed("  \n").finish());
+        assertNull(new IncrementalJsonRepair().feed("[1, 2]").feed(" x").finish());
+    }
+
+    @Test
+    public void testLargeStream() throws Exception {
+        StringBuilder input = new StringBuilder("{\"records\": [");
+        for (int i = 0; i < 500; i++) {
+            input.append("{\"id\": ").append(i).append(", \"name\": \"user ").append(i).append("\"}, ");
+        }
+        String snapshot = feedAll(input.toString(), 7);
+        assertEquals(objectMapper.readTree(JsonRepair.repair(input.toString())), objectMapper.readTree(snapshot));
+    }
+}
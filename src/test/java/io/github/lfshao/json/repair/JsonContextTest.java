@@ -0,0 +1,61 @@
+package io.github.lfshao.json.repair;
+
+import io.github.lfshao.json.repair.core.JsonContext;
+import io.github.lfshao.json.repair.core.JsonContext.ContextValues;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 解析上下文（JsonContext）的测试类
+ */
+public class JsonContextTest {
+
+    @Test
+    public void testStack() {
+        JsonContext context = new JsonContext();
+        assertTrue(context.isEmpty());
+        assertNull(context.getCurrent());
+
+        context.set(ContextValues.ARRAY);
+        context.set(ContextValues.OBJECT_KEY);
+        context.reset();
+        context.set(ContextValues.OBJECT_VALUE);
+        assertFalse(context.isEmpty());
+        assertEquals(ContextValues.OBJECT_VALUE, context.getCurrent());
+        assertTrue(context.contains(ContextValues.ARRAY));
+        assertFalse(context.contains(ContextValues.OBJECT_KEY));
+        assertEquals(Arrays.asList(ContextValues.ARRAY, ContextValues.OBJECT_VALUE), context.getContext());
+
+        context.reset();
+        context.reset();
+        assertTrue(context.isEmpty());
+        assertFalse(context.contains(ContextValues.ARRAY));
+        // 栈为空时reset不做任何事
+        context.reset();
+        assertTrue(context.isEmpty());
+        assertEquals(Collections.emptyList(), context.getContext());
+    }
+
+    @Test
+    public void testDeepStack() {
+        JsonContext context = new JsonContext();
+        for (int i = 0; i < 10000; i++) {
+            context.set(i % 2 == 0 ? ContextValues.ARRAY : ContextValues.OBJECT_VALUE);
+        }
+        assertEquals(ContextValues.OBJECT_VALUE, context.getCurrent());
+        for (int i = 0; i < 9999; i++) {
+            context.reset();
+        }
+        assertEquals(ContextValues.ARRAY, context.getCurrent());
+        assertFalse(context.contains(ContextValues.OBJECT_VALUE));
+
+        context.set(ContextValues.OBJECT_KEY);
+        context.clear();
+        assertTrue(context.isEmpty());
+        assertFalse(context.contains(ContextValues.OBJECT_KEY));
+    }
+}
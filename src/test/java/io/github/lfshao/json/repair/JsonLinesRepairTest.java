@@ -0,0 +1,162 @@
+package io.github.lfshao.json.repair;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JSON Lines修复器（JsonLinesRepair）的测试类
+ */
+public class JsonLinesRepairTest {
+
+    private static String repair(JsonLinesRepair repair, String input) throws Exception {
+        StringBuilder out = new StringBuilder();
+        repair.repair(new StringReader(input), out);
+        return out.toString();
+    }
+
+    @Test
+    public void testLines() throws Exception {
+        String input = "{\"id\": 1, \"msg\": \"ok\"}\n"
+                + "{'id': 2, 'msg': 'single quotes'}\r\n"
+                + "\n"
+                + "{\"id\": 3, \"msg\": \"trunc\n"
+                + "[1, 2";
+        String expected = "{\"id\":1,\"msg\":\"ok\"}\n"
+                + "{\"id\":2,\"msg\":\"single quotes\"}\n"
+                + "{\"id\":3,\"msg\":\"trunc\"}\n"
+                + "[1,2]\n";
+        assertEquals(expected, repair(new JsonLinesRepair(), input));
+        assertEquals("", repair(new JsonLinesRepair(), ""));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JsonLinesRepair().repair(new ByteArrayInputStream("{a: 中文}\n".getBytes(StandardCharsets.UTF_8)), out);
+        assertEquals("{\"a\":\"中文\"}\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testOrderAcrossBatches() throws Exception {
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        int count = JsonLinesRepair.BATCH_LINES * 5 + 17;
+        for (int i = 0; i < count; i++) {
+            String line = i % 3 == 0
+                    ? "{\"id\": " + i + "}"
+                    : "{id: " + i + ", name: 'user " + i + "', tags: [a, b";
+            input.append(line).append('\n');
+            expected.append(JsonRepair.repair(line)).append('\n');
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            JsonLinesRepair repair = new JsonLinesRepair(new RepairEngine(), executor, false);
+            assertEquals(expected.toString(), repair(repair, input.toString()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testJoinContinuations() throws Exception {
+        String input = "{\"id\": 1, \"msg\": \"first line\n"
+                + "second line\"}\n"
+                + "{\"id\": 2,\n"
+                + "  \"tags\": ['a']}\n"
+                + "{\"id\": 3}";
+        String expected = "{\"id\":1,\"msg\":\"first line\\nsecond line\"}\n"
+                + "{\"id\":2,\"tags\":[\"a\"]}\n"
+                + "{\"id\":3}\n";
+        assertEquals(expected, repair(new JsonLinesRepair(true), input));
+
+        // 不合并时每一行单独修复，无法修复出内容的行被丢弃
+        assertEquals("{\"id\":1,\"msg\":\"first line\"}\n"
+                        + "{\"id\":2}\n"
+                        + "[\"a\"]\n"
+                        + "{\"id\":3}\n",
+                repair(new JsonLinesRepair(false), input));
+    }
+
+    @Test
+    public void testRepairFile(@TempDir Path dir) throws Exception {
+        StringBuilder input = new StringBuilder();
+        int count = JsonLinesRepair.BATCH_CHARS / 10;
+        for (int i = 0; i < count; i++) {
+            switch (i % 5) {
+                case 0:
+                    input.append("{\"id\": ").append(i).append(", \"msg\": \"line one\n  continued 中文\"}\n");
+                    break;
+                case 1:
+                    input.append("{'id': ").append(i).append(", 'tags': ['a'\r\n");
+                    break;
+                case 2:
+                    input.append("\n   {\"id\": ").append(i).append("}\r");
+                    break;
+                default:
+                    input.append("{\"id\": ").append(i).append(", \"ok\": true}\n");
+            }
+        }
+        Path source = dir.resolve("in.jsonl");
+        Path target = dir.resolve("out.jsonl");
+        Files.write(source, input.toString().getBytes(StandardCharsets.UTF_8));
+        for (boolean join : new boolean[]{false, true}) {
+            JsonLinesRepair repair = new JsonLinesRepair(join);
+            repair.repair(source, target);
+            assertEquals(repair(repair, input.toString()),
+                    new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+        }
+
+        Files.write(source, new byte[0]);
+        new JsonLinesRepair().repair(source, target);
+        assertEquals(0, Files.size(target));
+    }
+
+    @Test
+    public void testCarriageReturnCuts(@TempDir Path dir) throws Exception {
+        Path source = dir.resolve("cr.jsonl");
+        Files.write(source, "{a: 1}\r{b: 2}\r\n{c: 3}\n{d: 4}\r".getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            JsonLinesRepair repair = new JsonLinesRepair();
+            // 单独的 \r 同样是行结束符，\r\n 只在 \n 之后切分
+            assertEquals(7, repair.nextCut(region, 1));
+            assertEquals(15, repair.nextCut(region, 8));
+            assertEquals(15, repair.nextCut(region, 15));
+            assertEquals(22, repair.nextCut(region, 16));
+            // 区域末尾的 \r 之后可能是下一个区域开头的 \n
+            assertEquals(-1, repair.nextCut(region, 23));
+            MappedByteBuffer prefix = channel.map(FileChannel.MapMode.READ_ONLY, 0, 14);
+            assertEquals(-1, repair.nextCut(prefix, 8));
+        }
+
+        // 只用 \r 分行、超过一个批次的文件按多个批次修复
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; input.length() < 2 * JsonLinesRepair.BATCH_CHARS; i++) {
+            input.append("{'id': ").append(i).append(", 'tags': ['a'\r");
+        }
+        Files.write(source, input.toString().getBytes(StandardCharsets.UTF_8));
+        Path target = dir.resolve("out.jsonl");
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            assertTrue(new JsonLinesRepair().nextCut(region, JsonLinesRepair.BATCH_CHARS) > 0);
+        }
+        for (boolean join : new boolean[]{false, true}) {
+            JsonLinesRepair repair = new JsonLinesRepair(join);
+            repair.repair(source, target);
+            assertEquals(repair(repair, input.toString()),
+                    new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -157,6 +157,15 @@ public class JsonRepairTest {
                 JsonRepair.repair("{\"mixed\":\"Hello 世界 🌍\"}"));
     }
 
+    @Test
+    public void testLeadingProse() {
+        // 根元素之前以及之间的文字被跳过，非ASCII字母在容器中按无引号的字符串处理
+        assertEquals("{\"a\":\"值\",\"b\":[\"é\"]}",
+                JsonRepair.repair("下面是结果：{\"a\": 值, \"b\": [é, ½, ٣]} 以上"));
+        assertEquals("[[1,2],{\"x\":\"café\"}]",
+                JsonRepair.repair("Here you go: the answer is [1, 2] and {\"x\": café}"));
+    }
+
     @Test
     public void testNewlineAndCommaEdgeCases() {
         // 测试你提到的具体边缘情况
@@ -183,4 +192,42 @@ public class JsonRepairTest {
         assertEquals("{\"incomplete\":\"text\"}",
                 JsonRepair.repair("{\"incomplete\": \"text\\n}"));
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void testValidInput() {
+        // 合法的输入逐个token复制，输出与对象树序列化一致
+        assertEquals("{\"a\":1.5,\"b\":[1,100000.0],\"c\":\"\u00e9\"}",
+                JsonRepair.repair("{\"a\": 1.50, \"b\": [1, 1e5], \"c\": \"\\u00e9\"}"));
+        // 重复的键保留最后一个值
+        assertEquals("{\"a\":2,\"b\":[{\"c\":4}]}",
+                JsonRepair.repair("{\"a\": 1, \"b\": [{\"c\": 3, \"c\": 4}], \"a\": 2}"));
+
+        // keepValidInput为true时，合法的输入原样返回
+        String valid = "{ \"a\": 1.50, \"a\": 2 }";
+        assertSame(valid, JsonRepair.repair(valid, true));
+        assertEquals(JsonRepair.repair(valid), JsonRepair.repair(valid, false));
+        assertEquals("{\"a\":1}", JsonRepair.repair("{'a': 1}", true));
+        assertEquals("", JsonRepair.repair(null, true));
+    }
+
+    @Test
+    public void testRepairTail() {
+        // 合法的前缀保持原文，只修复损坏的尾部
+        assertEquals("{\"a\":1.50,\"b\":[1,2],\"c\":\"tex\"}",
+                JsonRepair.repairTail("{\"a\": 1.50, \"b\": [1, 2], \"c\": \"tex"));
+        assertEquals("{\"a\":\"\\u00e9\",\"a\":2}", JsonRepair.repairTail("{\"a\": \"\\u00e9\", \"a\": 2"));
+        assertEquals("[{\"id\":1},{\"id\":2,\"name\":\"x\"}]",
+                JsonRepair.repairTail("[{\"id\": 1}, {\"id\": 2, \"name\": 'x'"));
+        assertEquals("{\"incomplete\":\"text\"}", JsonRepair.repairTail("{\"incomplete\": \"text\\n}"));
+        assertEquals("{\"key\":\"value\"}", JsonRepair.repairTail("{\"key\": \"value  "));
+
+        // 合法的输入同样保持原文
+        assertEquals("{\"a\":1e5}", JsonRepair.repairTail(" {\"a\": 1e5} "));
+
+        // 根元素不是对象或数组，或者之后还有其他内容时，与repair相同
+        assertEquals(JsonRepair.repair("\"abc"), JsonRepair.repairTail("\"abc"));
+        assertEquals("[[],{}]", JsonRepair.repairTail("[]{}"));
+        assertEquals("[{\"a\":1},{\"b\":2}]", JsonRepair.repairTail("{\"a\": 1, } {\"b\": 2}"));
+        assertEquals("", JsonRepair.repairTail(""));
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.lfshao.json.repair;
+
+import io.github.lfshao.json.repair.core.JsonValidator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 严格校验器（JsonValidator）的测试类
+ */
+public class JsonValidatorTest {
+
+    private static final int VALID = JsonValidator.VALID;
+
+    @Test
+    public void testValidInput() {
+        assertEquals(VALID, JsonValidator.validate("{\"a\": [1, -0.5e+3, true, false, null], \"b\": {}}"));
+        assertEquals(VALID, JsonValidator.validate(" [ ] "));
+        assertEquals(VALID, JsonValidator.validate("\"\\u00e9\\n\\\"\""));
+        assertEquals(VALID, JsonValidator.validate("0"));
+        // 重复的键在语法上是合法的
+        assertEquals(VALID, JsonValidator.validate("{\"a\": 1, \"a\": 2}"));
+    }
+
+    @Test
+    public void testErrorOffset() {
+        assertEquals(0, JsonValidator.validate(""));
+        assertEquals(2, JsonValidator.validate("  "));
+        assertEquals(1, JsonValidator.validate("{'a': 1}"));
+        assertEquals(8, JsonValidator.validate("{\"a\": 1,}"));
+        assertEquals(8, JsonValidator.validate("{\"a\": 1 \"b\": 2}"));
+        assertEquals(6, JsonValidator.validate("[1, 2]x"));
+        assertEquals(1, JsonValidator.validate("01"));
+        assertEquals(2, JsonValidator.validate("1."));
+        assertEquals(3, JsonValidator.validate("tru"));
+        assertEquals(2, JsonValidator.validate("[tx]"));
+        assertEquals(2, JsonValidator.validate("\"\\x\""));
+        assertEquals(5, JsonValidator.validate("\"\\u12g4\""));
+        assertEquals(1, JsonValidator.validate("\"\n\""));
+        assertEquals(4, JsonValidator.validate("[1, "));
+        assertEquals(1, JsonValidator.validate("[}"));
+        assertEquals(2, JsonValidator.validate("{}/* comment */"));
+    }
+
+    @Test
+    public void testDeepNesting() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            sb.append(i % 3 == 0 ? "{\"k\":" : "[");
+        }
+        String open = sb.toString();
+        for (int i = 499; i >= 0; i--) {
+            sb.append(i % 3 == 0 ? '}' : ']');
+        }
+        assertEquals(VALID, JsonValidator.validate(sb.toString()));
+        assertEquals(open.length(), JsonValidator.validate(open));
+        // 关闭时括号类型必须与深层的容器一致
+        assertEquals(open.length(), JsonValidator.validate(open + "}"));
+    }
+}
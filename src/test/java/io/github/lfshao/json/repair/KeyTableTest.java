@@ -0,0 +1,61 @@
+package io.github.lfshao.json.repair;
+
+import io.github.lfshao.json.repair.core.KeyTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 对象键驻留表（KeyTable）的测试类
+ */
+public class KeyTableTest {
+
+    @Test
+    public void testIntern() {
+        KeyTable table = new KeyTable(100);
+        assertEquals(128, table.capacity());
+        String first = table.intern(new StringBuilder("name"));
+        assertEquals("name", first);
+        assertSame(first, table.intern(new StringBuilder("name")));
+        assertSame(first, table.intern("name"));
+        assertEquals("", table.intern(new StringBuilder()));
+
+        // 过长的键不驻留
+        StringBuilder longKey = new StringBuilder();
+        for (int i = 0; i <= KeyTable.MAX_KEY_LENGTH; i++) {
+            longKey.append('k');
+        }
+        assertEquals(longKey.toString(), table.intern(longKey));
+        assertNotSame(table.intern(longKey), table.intern(longKey));
+
+        // 冲突时新的键覆盖旧的键，结果仍然正确
+        KeyTable tiny = new KeyTable(1);
+        assertEquals("a", tiny.intern(new StringBuilder("a")));
+        assertEquals("b", tiny.intern(new StringBuilder("b")));
+        assertEquals("a", tiny.intern(new StringBuilder("a")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSharedKeysInTrees() {
+        RepairEngine engine = new RepairEngine(false, new KeyTable(256));
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            records.add((Map<String, Object>) engine.parse("{'id': " + i + ", \"user\": {name: 'u" + i + "'}, tags: [a"));
+        }
+        String id = records.get(0).keySet().iterator().next();
+        for (Map<String, Object> record : records) {
+            assertSame(id, record.keySet().iterator().next());
+            Map<String, Object> user = (Map<String, Object>) record.get("user");
+            assertSame(((Map<String, Object>) records.get(0).get("user")).keySet().iterator().next(),
+                    user.keySet().iterator().next());
+        }
+        assertEquals("{\"id\":3,\"user\":{\"name\":\"u3\"},\"tags\":[\"a\"]}",
+                engine.repair("{'id': 3, \"user\": {name: 'u3'}, tags: [a"));
+        assertEquals("", engine.parse(""));
+    }
+}
@@ -2,6 +2,8 @@ package io.github.lfshao.json.repair;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -100,5 +102,20 @@ public class ParseCommentTest {
         // 测试注释中包含JSON语法的情况
         assertEquals("{\"key\":\"value\"}",
                 JsonRepair.repair("{\"key\": \"value\" /* this comment has { and } */ }"));
+
+        // 开始的 * 也算作结束符的一部分
+        assertEquals("{\"a\":1,\"b\":2}", JsonRepair.repair("{\"a\": 1, /*/ \"b\": 2}"));
+        assertEquals("{\"a\":1,\"b\":2}", JsonRepair.repair("{\"a\": 1, /* ** / **/ \"b\": 2}"));
+    }
+
+    @Test
+    public void testLargeBlockComment() {
+        StringBuilder sb = new StringBuilder("{\"a\": 1, /*");
+        while (sb.length() < 1 << 20) {
+            sb.append(" * \"disabled\": {\"key\": \"value\", \"path\": \"a/b\"},\n");
+        }
+        String input = sb.append(" */ \"b\": 2}").toString();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+                assertEquals("{\"a\":1,\"b\":2}", JsonRepair.repair(input)));
     }
 } 
\ No newline at end of file
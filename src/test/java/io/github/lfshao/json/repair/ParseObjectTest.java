@@ -2,7 +2,11 @@ package io.github.lfshao.json.repair;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * 基于Python test_parse_object.py的Java测试类
@@ -87,4 +91,29 @@ public class ParseObjectTest {
         assertEquals("{\"key-with-dashes\":\"value\"}", JsonRepair.repair("{\"key-with-dashes\": \"value\"}"));
         assertEquals("{\"key_with_underscores\":\"value\"}", JsonRepair.repair("{\"key_with_underscores\": \"value\"}"));
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void testDuplicateKeysInArray() {
+        assertEquals("[{\"id\":0,\"name\":\"a\"},{\"id\":1,\"name\":\"b\"}]",
+                JsonRepair.repair("[{\"id\": 0, \"name\": \"a\", \"id\": 1, \"name\": \"b\""));
+
+        // 每个重复的键都会插入一个 { 并重新开始对象，大量重复时不应退化为平方级别
+        StringBuilder records = new StringBuilder("[{");
+        for (int i = 0; i < 100000; i++) {
+            records.append("\"id\": ").append(i).append(", \"name\": \"user ").append(i).append("\", ");
+        }
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            String repaired = JsonRepair.repair(records.toString());
+            assertTrue(repaired.startsWith("[{\"id\":0,\"name\":\"user 0\"},{\"id\":1,"));
+            assertTrue(repaired.endsWith("{\"id\":99999,\"name\":\"user 99999\"}]"));
+        });
+    }
+
+    @Test
+    public void testDuplicateKeyRollbackBeforeTrailingValue() {
+        // 回滚重复的键之后，根层级的后续值仍要与之前的结果合并
+        assertEquals("[[{\"id\":1},{\"id\":2}],7]", JsonRepair.repair("[{\"id\": 1, \"id\": 2}] 7"));
+        assertEquals("[[{\"id\":1,\"name\":\"a\"},{\"id\":2,\"name\":\"b\"}],\"Note: true\"]",
+                JsonRepair.repair("[{\"id\": 1, \"name\": \"a\", \"id\": 2, \"name\": \"b\"}]\n```\nNote: true"));
+    }
+}
@@ -2,6 +2,8 @@ package io.github.lfshao.json.repair;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -242,4 +244,25 @@ public class ParseStringTest {
                         "    }\n" +
                         "]"));
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void testQuoteHeavyInput() {
+        assertEquals("[\"a \\\"b\\\" c\",\"a \\\"b\\\" c\",\"a \\\"b\\\" c\"]",
+                JsonRepair.repair("[\"a \"b\" c\", \"a \"b\" c\", \"a \"b\" c\""));
+        assertEquals("[\"a \\\"b\\\" c\",\"d\"]", JsonRepair.repair("[\"a \\\"b\\\" c\", \"d\"]"));
+        assertEquals("{\"a\":\"x, y x, y x\"}", JsonRepair.repair("{\"a\": \"x, y x, y x, y"));
+
+        // 每个引号或逗号都需要向后查找，大量重复时不应退化为平方级别
+        StringBuilder strayQuotes = new StringBuilder("[");
+        StringBuilder commas = new StringBuilder("{\"a\": \"");
+        for (int i = 0; i < 50000; i++) {
+            strayQuotes.append("\"a \"b\" c\", ");
+            commas.append("x, y ");
+        }
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            assertTrue(JsonRepair.repair(strayQuotes.toString()).startsWith("[\"a \\\"b\\\" c\",\"a \\\"b\\\" c\","));
+            String repaired = JsonRepair.repair(commas.toString());
+            assertTrue(repaired.startsWith("{\"a\":\"x, y x, y") && repaired.endsWith("\"}"));
+        });
+    }
+}
@@ -0,0 +1,162 @@
+package io.github.lfshao.json.repair;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 从Reader和InputStream读取输入的修复测试类
+ */
+public class ReaderRepairTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static String repairReader(String input) throws Exception {
+        StringBuilder out = new StringBuilder();
+        JsonRepair.repair(new StringReader(input), out);
+        return out.toString();
+    }
+
+    private static String repairString(String input) throws Exception {
+        StringBuilder out = new StringBuilder();
+        JsonRepair.repair(input, out);
+        return out.toString();
+    }
+
+    private static String records(int count) {
+        StringBuilder sb = new StringBuilder("{records: [");
+        for (int i = 0; i < count; i++) {
+            sb.append("{'id': ").append(i).append(", name: \"user ").append(i)
+                    .append("\", \"tags\": [\"a\", 'b'], \"active\": True, // comment\n \"score\": ")
+                    .append(i % 100).append(".5}, ");
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testSmallInput() throws Exception {
+        String[] inputs = {
+                "{\"name\": \"John\", \"age\": 30}",
+                "{name: 'John', items: [apple, banana, 'cherry'",
+                "{\"key\": \"v\"alue\", \"key2\": \"value2\"}",
+                "[{\"key\": \"value\"},, {\"key\": \"value2\"}",
+                "{\"a\": 1, \"a\": 2}",
+                "{\"text\": \"\\u263a \\x41\"}",
+                "[1, 2] [3]",
+                "",
+        };
+        for (String input : inputs) {
+            assertEquals(repairString(input), repairReader(input), input);
+        }
+    }
+
+    @Test
+    public void testInputStream() throws Exception {
+        String input = "{\"名字\": \"张三\", \"emoji\": \"\uD83D\uDE00\", \"items\": [1, 2";
+        StringBuilder out = new StringBuilder();
+        JsonRepair.repair(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out);
+        assertEquals(repairString(input), out.toString());
+    }
+
+    @Test
+    public void testLargeInput() throws Exception {
+        // 超过窗口一半的输入通过滑动窗口修复
+        String input = records(10000);
+        assertTrue(input.length() > (1 << 19));
+        String repaired = repairReader(input);
+        assertEquals(objectMapper.readTree(JsonRepair.repair(input)), objectMapper.readTree(repaired));
+    }
+
+    @Test
+    public void testDuplicateKeysInLargeInput() throws Exception {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 20000; i++) {
+            sb.append("{\"key\": ").append(i).append(", \"key\": \"dup\", \"other\": [").append(i).append("]}, ");
+        }
+        String input = sb.toString();
+        assertEquals(objectMapper.readTree(JsonRepair.repair(input)), objectMapper.readTree(repairReader(input)));
+    }
+
+    @Test
+    public void testGeneratedInput() throws Exception {
+        // 输入按需生成，不会整体出现在内存中，修复过程中窗口会被多次移动
+        int count = 200000;
+        String record = "{\"id\": 1, name: 'value', \"list\": [1, 2, 3]}, ";
+        Reader reader = new Reader() {
+            private long position = -1;
+            private final long end = (long) count * record.length();
+
+            @Override
+            public int read(char[] cbuf, int off, int len) {
+                if (position >= end) {
+                    return -1;
+                }
+                int n = 0;
+                if (position < 0) {
+                    cbuf[off + n++] = '[';
+                    position = 0;
+                }
+                for (; n < len && position < end; n++, position++) {
+                    cbuf[off + n] = record.charAt((int) (position % record.length()));
+                }
+                return n;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        StringBuilder out = new StringBuilder();
+        JsonRepair.repair(reader, out);
+        assertTrue(out.toString().startsWith("[{\"id\":1,\"name\":\"value\",\"list\":[1,2,3]},"));
+        assertEquals(count, objectMapper.readTree(out.toString()).size());
+    }
+
+    @Test
+    public void testRepairFile(@TempDir Path dir) throws Exception {
+        Path source = dir.resolve("in.json");
+        Path target = dir.resolve("out.json");
+        // 小文件和超过DEFAULT_WINDOW一半的大文件分别走整体修复和滑动窗口两条路径
+        for (String input : new String[]{"{name: '中文 😀', tags: [a, b", records(20000)}) {
+            Files.write(source, input.getBytes(StandardCharsets.UTF_8));
+            Files.write(target, "stale content that is longer than the result".getBytes(StandardCharsets.UTF_8));
+            JsonRepair.repair(source, target);
+            assertEquals(repairReader(input), new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testMappedRegionBoundary(@TempDir Path dir) throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("a中😀é");
+        }
+        String text = sb.toString();
+        Path file = dir.resolve("text.txt");
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        // 多字节字符会跨越映射区域的边界
+        for (int region : new int[]{4, 5, 7, 64}) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                Reader reader = new MappedFileReader(channel, region);
+                StringBuilder out = new StringBuilder();
+                char[] buffer = new char[3];
+                int n;
+                while ((n = reader.read(buffer, 0, buffer.length)) >= 0) {
+                    out.append(buffer, 0, n);
+                }
+                assertEquals(text, out.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package io.github.lfshao.json.repair;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 可复用的修复引擎（RepairEngine）的测试类
+ */
+public class RepairEngineTest {
+
+    @Test
+    public void testReuseAcrossCalls() throws IOException {
+        RepairEngine engine = new RepairEngine();
+        // 同一线程上的后续调用复用解析状态，结果不能受之前输入的影响
+        for (int round = 0; round < 3; round++) {
+            for (String input : RepairInputs.COMMON) {
+                assertEquals(JsonRepair.repair(input), engine.repair(input), input);
+                StringBuilder sb = new StringBuilder();
+                engine.repair(input, sb);
+                assertEquals(JsonRepair.repair(input), sb.toString(), input);
+            }
+        }
+        // 超过复用上限的输入使用一次性的解析状态
+        String large = RepairInputs.large();
+        assertEquals(JsonRepair.repair(large), engine.repair(large));
+        assertEquals("[{\"a\":1}]", engine.repair("[{a: 1}"));
+    }
+
+    @Test
+    public void testReentrantOutput() throws IOException {
+        RepairEngine engine = new RepairEngine();
+        // 输出目标在写入时再次调用同一个引擎
+        StringBuilder inner = new StringBuilder();
+        Appendable out = new Appendable() {
+            private final StringBuilder sb = new StringBuilder();
+
+            @Override
+            public Appendable append(CharSequence csq) {
+                return append(csq, 0, csq.length());
+            }
+
+            @Override
+            public Appendable append(CharSequence csq, int start, int end) {
+                sb.append(csq, start, end);
+                if (inner.length() == 0) {
+                    inner.append(engine.repair("{b: [2, 3}"));
+                }
+                return this;
+            }
+
+            @Override
+            public Appendable append(char c) {
+                return append(String.valueOf(c));
+            }
+
+            @Override
+            public String toString() {
+                return sb.toString();
+            }
+        };
+        engine.repair("{a: [1, 'x'", out);
+        assertEquals("{\"a\":[1,\"x\"]}", out.toString());
+        assertEquals("{\"b\":[2,3]}", inner.toString());
+    }
+
+    @Test
+    public void testIterativeMatchesRecursive() throws IOException {
+        RepairEngine engine = new RepairEngine(true);
+        String[] nested = {
+                "{\"a\": {\"b\": [1, {\"c\": [2, 3}, 4], \"d\": {}}, \"e\": []}",
+                "{\"a\": [1, 2] [3], \"b\": [[4] [5]]}",
+                "[[[1, 2], {\"x\": [3, {\"y\": 4",
+                "{\"a\": [{\"b\": 1}, {\"b\": 2}], \"a\": [{\"b\": 1}]}",
+                "[\"a\": {\"b\": [1, \"c\": 2]}]",
+        };
+        for (String[] inputs : new String[][]{RepairInputs.COMMON, nested}) {
+            for (String input : inputs) {
+                assertEquals(JsonRepair.repair(input), engine.repair(input), input);
+                StringBuilder sb = new StringBuilder();
+                engine.repair(input, sb);
+                assertEquals(JsonRepair.repair(input), sb.toString(), input);
+            }
+        }
+    }
+
+    @Test
+    public void testIterativeDeepNesting() throws Exception {
+        int depth = 1000000;
+        StringBuilder arrays = new StringBuilder();
+        StringBuilder objects = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            arrays.append('[');
+            objects.append("{a: ");
+            expected.append("{\"a\":");
+        }
+        arrays.append('1');
+        objects.append('1');
+        expected.append('1');
+        for (int i = 0; i < depth; i++) {
+            expected.append('}');
+        }
+        RepairEngine engine = new RepairEngine(true);
+        String[] results = new String[3];
+        // 使用很小的调用栈，递归模式在这里会StackOverflowError
+        Thread thread = new Thread(null, () -> {
+            results[0] = engine.repair(arrays.toString());
+            results[1] = engine.repair(objects.toString());
+            StringBuilder sb = new StringBuilder();
+            try {
+                engine.repair(objects.toString(), sb);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            results[2] = sb.toString();
+        }, "deep-nesting", 256 * 1024);
+        thread.start();
+        thread.join();
+
+        StringBuilder closed = new StringBuilder(arrays);
+        for (int i = 0; i < depth; i++) {
+            closed.append(']');
+        }
+        // 结果有几兆字节，不相等时不输出整个字符串
+        assertTrue(closed.toString().equals(results[0]));
+        assertTrue(expected.toString().equals(results[1]));
+        assertTrue(expected.toString().equals(results[2]));
+    }
+
+    @Test
+    public void testRepairAll() {
+        List<String> inputs = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String input = RepairInputs.COMMON[i % RepairInputs.COMMON.length] + (i % 7 == 0 ? " " + i : "");
+            inputs.add(input);
+            expected.add(JsonRepair.repair(input));
+        }
+        RepairEngine engine = new RepairEngine();
+        assertEquals(expected, engine.repairAll(inputs));
+        assertEquals(expected, JsonRepair.repairAll(inputs.stream()));
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            assertEquals(expected, engine.repairAll(inputs, executor));
+            assertEquals(expected.subList(0, 2), JsonRepair.repairAll(inputs.subList(0, 2), executor));
+            assertEquals(new ArrayList<>(), engine.repairAll(new ArrayList<>(), executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrentUse() throws Exception {
+        RepairEngine engine = new RepairEngine();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int round = 0; round < 200; round++) {
+                        for (String input : RepairInputs.COMMON) {
+                            assertEquals(JsonRepair.repair(input), engine.repair(input), input);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRepairWithoutJackson() throws Exception {
+        // 只能加载本项目的类，classpath中没有Jackson
+        URL classes = JsonRepair.class.getProtectionDomain().getCodeSource().getLocation();
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{classes}, null)) {
+            assertThrows(ClassNotFoundException.class, () -> loader.loadClass("com.fasterxml.jackson.databind.ObjectMapper"));
+            Class<?> type = loader.loadClass(JsonRepair.class.getName());
+            assertEquals("{\"a\":[1,2]}", type.getMethod("repair", String.class).invoke(null, "{a: [1, 2"));
+            assertEquals("{\"a\":1.5}", type.getMethod("repair", String.class).invoke(null, "{\"a\": 1.50}"));
+            StringBuilder out = new StringBuilder();
+            type.getMethod("repair", String.class, Appendable.class).invoke(null, "[1, {\"b\": 2, \"b\": 3}]", out);
+            assertEquals("[1,{\"b\":3}]", out.toString());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.lfshao.json.repair;
+
+/**
+ * 多个测试类共用的输入
+ * 各个测试类用这些输入比较自己的入口与repair(String)的结果，只针对自身功能的输入留在各自的测试类中
+ */
+final class RepairInputs {
+
+    /**
+     * 常见的损坏形式：缺少引号和括号、注释、重复的键、合并的数组、代码块中的JSON、转义、非ASCII字符以及顶层的标量
+     */
+    static final String[] COMMON = {
+            "{name: John, age: 30, city: New York}",
+            "[1, 2, 3, 4",
+            "{name: 'John', items: [apple, banana, 'cherry'}",
+            "{\n  // User info\n  \"name\": \"John\",\n  \"age\": 30 /* age */\n}",
+            "[{\"a\": 1, \"b\": 2, \"a\": 3}]",
+            "{\"a\": 1, \"a\": \"中文\"}",
+            "[\"a\" \"b\": 1, \"c\": \"d\"]",
+            "{\"key\": [1, 2] [3, 4], \"other\": [5] [[6, 7]]}",
+            "{\"a\": [1, 2] [3], \"b\": {\"c\": tru",
+            "lorem ```json {\"key\":\"value\"} ``` ipsum ```json [1,2,3,True] ``` 42",
+            "{\"key\": \"value\\u263a\\ud83d\\ude00\", \"number\": 1.5e3, \"big\": 12345678901234567890}",
+            "{name: John, city: 北京, emoji: '😀', accent: 'é'}",
+            "{\"a\": \"b\"}",
+            "1.2",
+            "string",
+            "",
+    };
+
+    private RepairInputs() {
+    }
+
+    /**
+     * 没有结束的大数组，超过RepairEngine复用解析状态的上限
+     * 每三条记录中有一条包含中文和代理对，多字节字符分布在整个输入中
+     */
+    static String large() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; sb.length() <= 2 * RepairEngine.POOLED_LIMIT; i++) {
+            sb.append("{id: ").append(i).append(", text: '").append(i % 3 == 0 ? "中文😀" : "ascii é").append("'}, ");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.lfshao.json.repair;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 流式输出（JsonRepair.repair(String, Appendable)）的测试类
+ */
+public class StreamingRepairTest {
+
+    private static String repairToString(String input) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        JsonRepair.repair(input, sb);
+        return sb.toString();
+    }
+
+    @Test
+    public void testSameResultAsRepair() throws IOException {
+        String[] inputs = {
+                "{\"name\": \"John\", \"age\": 30, \"city\": \"New York\"}",
+                "{name: John, age: 30, city: New York}",
+                "[1, 2, 3, 4",
+                "{name: 'John', items: [apple, banana, 'cherry'}",
+                "{\n  // User info\n  \"name\": \"John\",\n  \"age\": 30 /* age */\n}",
+                "[1,2,3]{\"key\":\"value\"}",
+                "[{\"key\":\"value\"}][{\"key\":\"value_after\"}]",
+                "lorem ```json {\"key\":\"value\"} ``` ipsum ```json [1,2,3,True] ``` 42",
+                "[[], {}, \"\", 1, [[]], {\"a\": []}]",
+                "{\"key\": [1, 2] [3, 4], \"other\": [5] [[6, 7]]}",
+                "[{\"a\": 1, \"b\": 2, \"a\": 3}]",
+                "{\"key\": \"tab\\there\", \"ctrl\": \"\u0001\", \"quote\": \"a\\\"b\"",
+                "{'test_中国人_ascii':'统一码'}",
+                "[1e999, -0, 0.10, 12345678901234567890",
+                "// just a comment",
+                "string",
+        };
+        for (String input : inputs) {
+            assertEquals(JsonRepair.repair(input), repairToString(input), input);
+        }
+    }
+
+    @Test
+    public void testMergedArrayFollowedByContainer() throws IOException {
+        // 合并到上一个数组的内容提前结束时会留下数组的上下文，之后重复的空键回滚并开始新的根对象；期望值为修改前的输出
+        String[][] cases = {
+                {"{\"\":[][{]", "[{\"\":[]},{}]"},
+                {"{\"\":[][{]}", "[{\"\":[]},{}]"},
+                {"{\"\":[1][{]", "[{\"\":[1]},{}]"},
+                {"{\"\":[][,{:\"}", "[{\"\":[]},{}]"},
+                {"{\"\":[][{}]", "{\"\":[]}"},
+                {"{\"\":[][{\"b\":1}]", "{\"\":[{\"b\":1}]}"},
+                // 超过线性查找数量的键
+                {"[{\"k0\": 0, \"k1\": 1, \"k2\": 2, \"k3\": 3, \"k4\": 4, \"k5\": 5, \"k6\": 6, \"k7\": 7, \"k8\": 8, \"k9\": 9, \"k8\": 10",
+                        "[{\"k0\":0,\"k1\":1,\"k2\":2,\"k3\":3,\"k4\":4,\"k5\":5,\"k6\":6,\"k7\":7,\"k8\":8,\"k9\":9},{\"k8\":10}]"},
+        };
+        RepairEngine iterative = new RepairEngine(true);
+        for (String[] c : cases) {
+            assertEquals(c[1], JsonRepair.repair(c[0]), c[0]);
+            assertEquals(c[1], repairToString(c[0]), c[0]);
+            assertEquals(c[1], iterative.repair(c[0]), c[0]);
+        }
+    }
+
+    @Test
+    public void testValidJson() throws IOException {
+        assertEquals("{\"key1\":{\"key2\":[1,2,3]}}",
+                repairToString("{\"key1\": {\"key2\": [1, 2, 3]}}"));
+        assertEquals("{\"key\":\"value☺\"}",
+                repairToString("{\"key\": \"value\\u263a\"}"));
+        // 合法JSON中的重复键保留最后一个值
+        assertEquals("{\"a\":2,\"b\":1}",
+                repairToString("{\"a\": 1, \"b\": 1, \"a\": 2}"));
+    }
+
+    @Test
+    public void testEmptyInput() throws IOException {
+        assertEquals("", repairToString(""));
+        assertEquals("", repairToString(null));
+        assertEquals("", repairToString("   "));
+    }
+
+    @Test
+    public void testWriterTarget() throws IOException {
+        StringWriter writer = new StringWriter();
+        JsonRepair.repair("{'key': [1, 2, {nested: true}", writer);
+        assertEquals("{\"key\":[1,2,{\"nested\":true}]}", writer.toString());
+    }
+
+    @Test
+    public void testLargeDocument() throws IOException {
+        // 超过缓存预算的文档会直接流式输出
+        StringBuilder input = new StringBuilder("{records: [");
+        for (int i = 0; i < 20000; i++) {
+            input.append("{id: ").append(i).append(", name: 'user ").append(i).append("', tags: [a, b]}, ");
+        }
+        String broken = input.toString();
+        assertEquals(JsonRepair.repair(broken), repairToString(broken));
+    }
+}
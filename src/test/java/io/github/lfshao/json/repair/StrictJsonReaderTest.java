@@ -0,0 +1,74 @@
+package io.github.lfshao.json.repair;
+
+import io.github.lfshao.json.repair.core.JsonWriter;
+import io.github.lfshao.json.repair.core.StrictJsonReader;
+import io.github.lfshao.json.repair.core.TreeBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 合法JSON的事件读取器（StrictJsonReader）的测试类
+ */
+public class StrictJsonReaderTest {
+
+    private static Object tree(String json) {
+        TreeBuilder builder = new TreeBuilder();
+        assertTrue(StrictJsonReader.read(json, builder, false));
+        return builder.getRoot();
+    }
+
+    @Test
+    public void testNumberTypes() {
+        List<?> numbers = (List<?>) tree("[0, -0, 2147483647, 2147483648, -9223372036854775808, "
+                + "9223372036854775808, 1.50, 1e3, -2.5E-1]");
+        assertEquals(Arrays.asList(0, 0, Integer.MAX_VALUE, 2147483648L, Long.MIN_VALUE,
+                new BigInteger("9223372036854775808"), 1.5, 1000.0, -0.25), numbers);
+    }
+
+    @Test
+    public void testStrings() {
+        assertEquals(Arrays.asList("plain", "\"\\/\b\f\n\r\t", "\u00e9\ud83d\ude00", ""),
+                tree(" [\"plain\", \"\\\"\\\\\\/\\b\\f\\n\\r\\t\", \"\\u00e9\\ud83d\\ude00\", \"\"] "));
+    }
+
+    @Test
+    public void testDuplicateKeys() {
+        assertFalse(StrictJsonReader.hasDuplicateKeys("{\"a\": {\"a\": 1}, \"b\": [{\"a\": 2}, {\"a\": 3}]}"));
+        assertTrue(StrictJsonReader.hasDuplicateKeys("{\"a\": 1, \"b\": 2, \"c\": 3, \"b\": 4}"));
+        // 转义后相同的键
+        assertTrue(StrictJsonReader.hasDuplicateKeys("[{\"a\": 1, \"\\u0061\": 2}]"));
+
+        // 键较多的对象，以及嵌套在其中的对象
+        StringBuilder large = new StringBuilder("{");
+        for (int k = 0; k < 1000; k++) {
+            large.append("\"key").append(k).append("\": {\"key").append(k).append("\": ").append(k).append("}, ");
+        }
+        assertFalse(StrictJsonReader.hasDuplicateKeys(large + "\"last\": 0}"));
+        assertTrue(StrictJsonReader.hasDuplicateKeys(large + "\"key500\": 0}"));
+
+        StringBuilder out = new StringBuilder();
+        assertFalse(StrictJsonReader.read("[1, {\"a\": 1, \"a\": 2}]", new JsonWriter(out), true));
+        assertEquals("[1,{\"a\":1", out.toString());
+    }
+
+    @Test
+    public void testDeepNesting() {
+        int depth = 100000;
+        StringBuilder json = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            json.append("[{\"k\":");
+        }
+        json.append("null");
+        for (int i = 0; i < depth; i++) {
+            json.append("}]");
+        }
+        StringBuilder out = new StringBuilder();
+        assertTrue(StrictJsonReader.read(json, new JsonWriter(out), true));
+        assertTrue(out.toString().equals(json.toString()));
+    }
+}